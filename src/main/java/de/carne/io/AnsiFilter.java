@@ -19,66 +19,66 @@ package de.carne.io;
 import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.function.IntFunction;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * {@linkplain Writer} implementation used to remove ANSI escape codes from output (e.g. to write color enriched output
  * to a dumb terminal).
+ * <p>
+ * Output not containing any escape character is passed through in bulk. Escape sequences are processed by a table
+ * driven state machine.
+ * </p>
  */
 public class AnsiFilter extends FilterWriter {
 
-	private enum State {
-
-		STANDARD(State::standardState),
-
-		ESC(State::escState),
-
-		UNKNOWN_ESC(State::finalState),
-
-		CSI(State::csiOrParameterState),
-
-		PARAMETER(State::csiOrParameterState),
-
-		INTERMEDIATE(State::intermediateState),
-
-		FINAL(State::finalState);
-
-		private final IntFunction<State> transition;
-
-		State(IntFunction<State> transition) {
-			this.transition = transition;
-		}
-
-		private static State standardState(int c) {
-			return (c == 0x1b ? ESC : STANDARD);
-		}
-
-		private static State escState(int c) {
-			return (c == 0x9b ? CSI : UNKNOWN_ESC);
-		}
-
-		private static State csiOrParameterState(int c) {
-			return (0x30 <= c && c <= 0x3f ? PARAMETER : intermediateState(c));
+	private static final int ESC_CHAR = 0x1b;
+
+	// States
+	private static final int STANDARD = 0;
+	private static final int ESC = 1;
+	private static final int UNKNOWN_ESC = 2;
+	private static final int CSI = 3;
+	private static final int PARAMETER = 4;
+	private static final int INTERMEDIATE = 5;
+	private static final int FINAL = 6;
+
+	// Character classes
+	private static final int OTHER_CLASS = 0;
+	private static final int ESC_CLASS = 1;
+	private static final int CSI_CLASS = 2;
+	private static final int PARAMETER_CLASS = 3;
+	private static final int INTERMEDIATE_CLASS = 4;
+	private static final int FINAL_CLASS = 5;
+	private static final int CLASS_COUNT = 6;
+
+	private static final byte[] CHAR_CLASSES = new byte[256];
+
+	static {
+		for (int c = 0x20; c <= 0x2f; c++) {
+			CHAR_CLASSES[c] = INTERMEDIATE_CLASS;
 		}
-
-		@SuppressWarnings("java:S3358")
-		private static State intermediateState(int c) {
-			return (0x20 <= c && c <= 0x2f ? INTERMEDIATE : (0x40 <= c && c <= 0x7f ? FINAL : STANDARD));
+		for (int c = 0x30; c <= 0x3f; c++) {
+			CHAR_CLASSES[c] = PARAMETER_CLASS;
 		}
-
-		private static State finalState(@SuppressWarnings("unused") int c) {
-			return STANDARD;
+		for (int c = 0x40; c <= 0x7f; c++) {
+			CHAR_CLASSES[c] = FINAL_CLASS;
 		}
-
-		public State apply(int c) {
-			return this.transition.apply(c);
-		}
-
+		CHAR_CLASSES[ESC_CHAR] = ESC_CLASS;
+		CHAR_CLASSES[0x9b] = CSI_CLASS;
 	}
 
-	private State state = State.STANDARD;
+	private static final byte[] TRANSITIONS = {
+			// OTHER, ESC, CSI, PARAMETER, INTERMEDIATE, FINAL
+			/* STANDARD */ STANDARD, ESC, STANDARD, STANDARD, STANDARD, STANDARD,
+			/* ESC */ UNKNOWN_ESC, UNKNOWN_ESC, CSI, UNKNOWN_ESC, UNKNOWN_ESC, UNKNOWN_ESC,
+			/* UNKNOWN_ESC */ STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD,
+			/* CSI */ STANDARD, STANDARD, STANDARD, PARAMETER, INTERMEDIATE, FINAL,
+			/* PARAMETER */ STANDARD, STANDARD, STANDARD, PARAMETER, INTERMEDIATE, FINAL,
+			/* INTERMEDIATE */ STANDARD, STANDARD, STANDARD, STANDARD, INTERMEDIATE, FINAL,
+			/* FINAL */ STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD };
+
+	private int state = STANDARD;
 
 	/**
 	 * Constructs a new {@linkplain AnsiFilter} instance.
@@ -89,109 +89,127 @@ public class AnsiFilter extends FilterWriter {
 		super(out);
 	}
 
+	private static int transition(int state, int c) {
+		int charClass = (0 <= c && c < CHAR_CLASSES.length ? CHAR_CLASSES[c] : OTHER_CLASS);
+
+		return TRANSITIONS[state * CLASS_COUNT + charClass];
+	}
+
 	@Override
 	public void write(int c) throws IOException {
-		this.state = this.state.apply(c);
-		if (this.state == State.STANDARD) {
-			super.write(c);
-		} else if (this.state == State.UNKNOWN_ESC) {
-			super.write(0x1b);
-			super.write(c);
-			this.state = State.STANDARD;
+		this.state = transition(this.state, c);
+		if (this.state == STANDARD) {
+			this.out.write(c);
+		} else if (this.state == UNKNOWN_ESC) {
+			this.out.write(ESC_CHAR);
+			this.out.write(c);
+			this.state = STANDARD;
 		}
 	}
 
-	@SuppressWarnings("java:S3776")
 	@Override
 	public void write(char @Nullable [] cbuf, int off, int len) throws IOException {
 		if (cbuf != null) {
-			boolean standardState = this.state == State.STANDARD;
-			int writeOff1 = off;
-			int writeOff2 = off;
-			int offLimit = off + len;
-
-			while (writeOff2 < offLimit) {
-				char c = cbuf[writeOff2];
-
-				this.state = this.state.apply(c);
-				if (this.state == State.STANDARD) {
-					if (!standardState) {
-						writeOff1 = writeOff2;
-						standardState = true;
+			int index = off;
+			int runStart = off;
+			int limit = off + len;
+
+			while (index < limit) {
+				if (this.state == STANDARD) {
+					int escIndex = index;
+
+					while (escIndex < limit && cbuf[escIndex] != ESC_CHAR) {
+						escIndex++;
+					}
+					if (runStart < escIndex) {
+						this.out.write(cbuf, runStart, escIndex - runStart);
 					}
-				} else if (this.state == State.UNKNOWN_ESC) {
-					super.write(0x1b);
-					this.state = State.STANDARD;
-					writeOff1 = writeOff2;
-					standardState = true;
-				} else if (standardState) {
-					if (writeOff1 < writeOff2) {
-						super.write(cbuf, writeOff1, writeOff2 - writeOff1);
-						writeOff1 = writeOff2;
+					runStart = index = escIndex;
+					if (escIndex < limit) {
+						this.state = ESC;
+						index++;
 					}
-					writeOff1++;
-					standardState = false;
 				} else {
-					writeOff1++;
+					index = writeEscaped(cbuf[index], index);
+					runStart = index - 1;
 				}
-				writeOff2++;
 			}
-			if (standardState && writeOff1 < offLimit) {
-				super.write(cbuf, writeOff1, offLimit - writeOff1);
+			if (this.state == STANDARD && runStart < limit) {
+				this.out.write(cbuf, runStart, limit - runStart);
 			}
 		} else {
 			super.write(cbuf, off, len);
 		}
 	}
 
-	@SuppressWarnings("java:S3776")
 	@Override
 	public void write(@Nullable String str, int off, int len) throws IOException {
 		if (str != null) {
-			boolean standardState = this.state == State.STANDARD;
-			int writeOff1 = off;
-			int writeOff2 = off;
-			int offLimit = off + len;
-
-			while (writeOff2 < offLimit) {
-				char c = str.charAt(writeOff2);
-
-				this.state = this.state.apply(c);
-				if (this.state == State.STANDARD) {
-					if (!standardState) {
-						writeOff1 = writeOff2;
-						standardState = true;
+			int index = off;
+			int runStart = off;
+			int limit = off + len;
+
+			while (index < limit) {
+				if (this.state == STANDARD) {
+					int escIndex = indexOfEsc(str, index, limit);
+
+					if (runStart < escIndex) {
+						this.out.write(str, runStart, escIndex - runStart);
 					}
-				} else if (this.state == State.UNKNOWN_ESC) {
-					super.write(0x1b);
-					this.state = State.STANDARD;
-					writeOff1 = writeOff2;
-					standardState = true;
-				} else if (standardState) {
-					if (writeOff1 < writeOff2) {
-						super.write(str, writeOff1, writeOff2 - writeOff1);
-						writeOff1 = writeOff2;
+					runStart = index = escIndex;
+					if (escIndex < limit) {
+						this.state = ESC;
+						index++;
 					}
-					writeOff1++;
-					standardState = false;
 				} else {
-					writeOff1++;
+					index = writeEscaped(str.charAt(index), index);
+					runStart = index - 1;
 				}
-				writeOff2++;
 			}
-			if (standardState && writeOff1 < offLimit) {
-				super.write(str, writeOff1, offLimit - writeOff1);
+			if (this.state == STANDARD && runStart < limit) {
+				this.out.write(str, runStart, limit - runStart);
 			}
 		} else {
 			super.write(str, off, len);
 		}
 	}
 
+	private static int indexOfEsc(String str, int from, int limit) {
+		int escIndex;
+
+		if (limit == str.length()) {
+			escIndex = str.indexOf(ESC_CHAR, from);
+			if (escIndex < 0) {
+				escIndex = limit;
+			}
+		} else {
+			escIndex = from;
+			while (escIndex < limit && str.charAt(escIndex) != ESC_CHAR) {
+				escIndex++;
+			}
+		}
+		return escIndex;
+	}
+
+	/*
+	 * Processes a single character while inside an escape sequence. If the character terminates the sequence, it is
+	 * part of the output (and not re-interpreted), which is the reason the caller has to start its next run at the
+	 * processed character.
+	 */
+	private int writeEscaped(char c, int index) throws IOException {
+		this.state = transition(this.state, c);
+		if (this.state == UNKNOWN_ESC) {
+			this.out.write(ESC_CHAR);
+			this.state = STANDARD;
+		}
+		return index + 1;
+	}
+
 	@Override
 	public void flush() throws IOException {
-		if (this.state == State.ESC) {
-			super.write(0x1b);
-			this.state = State.STANDARD;
+		if (this.state == ESC) {
+			this.out.write(ESC_CHAR);
+			this.state = STANDARD;
 		}
 		super.flush();
 	}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain OutputStream} implementation used to remove ANSI escape codes from UTF-8 encoded output.
+ * <p>
+ * This is the byte level counterpart of {@linkplain AnsiFilter}. It removes the same escape sequences but operates
+ * directly on the encoded output and hence avoids any charset decoding and encoding. Output not containing any escape
+ * character is passed through in bulk. To filter a {@linkplain java.nio.channels.WritableByteChannel} wrap this stream
+ * via {@linkplain java.nio.channels.Channels#newChannel(OutputStream)}.
+ * </p>
+ */
+public class AnsiFilterOutputStream extends FilterOutputStream {
+
+	private static final int ESC_BYTE = 0x1b;
+	private static final int CSI_LEAD_BYTE = 0xc2;
+	private static final int CSI_TRAIL_BYTE = 0x9b;
+
+	// States
+	private static final int STANDARD = 0;
+	private static final int ESC = 1;
+	private static final int ESC_CSI_LEAD = 2;
+	private static final int UNKNOWN_ESC = 3;
+	private static final int UNKNOWN_ESC_CSI_LEAD = 4;
+	private static final int CSI = 5;
+	private static final int PARAMETER = 6;
+	private static final int INTERMEDIATE = 7;
+	private static final int FINAL = 8;
+
+	// Byte classes
+	private static final int OTHER_CLASS = 0;
+	private static final int ESC_CLASS = 1;
+	private static final int CSI_LEAD_CLASS = 2;
+	private static final int CSI_TRAIL_CLASS = 3;
+	private static final int PARAMETER_CLASS = 4;
+	private static final int INTERMEDIATE_CLASS = 5;
+	private static final int FINAL_CLASS = 6;
+	private static final int CLASS_COUNT = 7;
+
+	private static final byte[] BYTE_CLASSES = new byte[256];
+
+	static {
+		for (int b = 0x20; b <= 0x2f; b++) {
+			BYTE_CLASSES[b] = INTERMEDIATE_CLASS;
+		}
+		for (int b = 0x30; b <= 0x3f; b++) {
+			BYTE_CLASSES[b] = PARAMETER_CLASS;
+		}
+		for (int b = 0x40; b <= 0x7f; b++) {
+			BYTE_CLASSES[b] = FINAL_CLASS;
+		}
+		BYTE_CLASSES[ESC_BYTE] = ESC_CLASS;
+		BYTE_CLASSES[CSI_LEAD_BYTE] = CSI_LEAD_CLASS;
+		BYTE_CLASSES[CSI_TRAIL_BYTE] = CSI_TRAIL_CLASS;
+	}
+
+	private static final byte[] TRANSITIONS = {
+			// OTHER, ESC, CSI_LEAD, CSI_TRAIL, PARAMETER, INTERMEDIATE, FINAL
+			/* STANDARD */ STANDARD, ESC, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD,
+			/* ESC */ UNKNOWN_ESC, UNKNOWN_ESC, ESC_CSI_LEAD, UNKNOWN_ESC, UNKNOWN_ESC, UNKNOWN_ESC, UNKNOWN_ESC,
+			/* ESC_CSI_LEAD */ UNKNOWN_ESC_CSI_LEAD, UNKNOWN_ESC_CSI_LEAD, UNKNOWN_ESC_CSI_LEAD, CSI,
+			UNKNOWN_ESC_CSI_LEAD, UNKNOWN_ESC_CSI_LEAD, UNKNOWN_ESC_CSI_LEAD,
+			/* UNKNOWN_ESC */ STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD,
+			/* UNKNOWN_ESC_CSI_LEAD */ STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD,
+			/* CSI */ STANDARD, STANDARD, STANDARD, STANDARD, PARAMETER, INTERMEDIATE, FINAL,
+			/* PARAMETER */ STANDARD, STANDARD, STANDARD, STANDARD, PARAMETER, INTERMEDIATE, FINAL,
+			/* INTERMEDIATE */ STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, INTERMEDIATE, FINAL,
+			/* FINAL */ STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD, STANDARD };
+
+	private static final byte[] ESC_CSI_LEAD_BYTES = { ESC_BYTE, (byte) CSI_LEAD_BYTE };
+
+	private int state = STANDARD;
+
+	/**
+	 * Constructs a new {@linkplain AnsiFilterOutputStream} instance.
+	 *
+	 * @param out the {@linkplain OutputStream} instance to write to.
+	 */
+	public AnsiFilterOutputStream(OutputStream out) {
+		super(out);
+	}
+
+	private static int transition(int state, int b) {
+		return TRANSITIONS[state * CLASS_COUNT + BYTE_CLASSES[b & 0xff]];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		this.state = transition(this.state, b);
+		if (this.state == STANDARD) {
+			this.out.write(b);
+		} else if (this.state >= UNKNOWN_ESC && this.state <= UNKNOWN_ESC_CSI_LEAD) {
+			writePending();
+			this.out.write(b);
+		}
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public void write(byte @Nullable [] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+
+		int index = off;
+		int runStart = off;
+		int limit = off + len;
+
+		while (index < limit) {
+			if (this.state == STANDARD) {
+				int escIndex = index;
+
+				while (escIndex < limit && checkedB[escIndex] != ESC_BYTE) {
+					escIndex++;
+				}
+				if (runStart < escIndex) {
+					this.out.write(checkedB, runStart, escIndex - runStart);
+				}
+				runStart = index = escIndex;
+				if (escIndex < limit) {
+					this.state = ESC;
+					index++;
+				}
+			} else {
+				this.state = transition(this.state, checkedB[index]);
+				if (this.state >= UNKNOWN_ESC && this.state <= UNKNOWN_ESC_CSI_LEAD) {
+					writePending();
+				}
+				// A byte terminating the sequence is part of the output (and not re-interpreted)
+				runStart = index;
+				index++;
+			}
+		}
+		if (this.state == STANDARD && runStart < limit) {
+			this.out.write(checkedB, runStart, limit - runStart);
+		}
+	}
+
+	private void writePending() throws IOException {
+		if (this.state == UNKNOWN_ESC) {
+			this.out.write(ESC_BYTE);
+		} else {
+			this.out.write(ESC_CSI_LEAD_BYTES);
+		}
+		this.state = STANDARD;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (this.state == ESC) {
+			this.state = UNKNOWN_ESC;
+			writePending();
+		} else if (this.state == ESC_CSI_LEAD) {
+			this.state = UNKNOWN_ESC_CSI_LEAD;
+			writePending();
+		}
+		super.flush();
+	}
+
+}
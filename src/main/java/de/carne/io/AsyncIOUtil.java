@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Utility class providing non-blocking file I/O functions based on {@linkplain AsynchronousFileChannel}.
+ * <p>
+ * All functions split the file into blocks and keep up to the requested number of block operations in flight (at
+ * different file positions). The returned {@linkplain CompletableFuture} completes once all blocks have been
+ * processed and the involved channels have been closed.
+ * </p>
+ */
+public final class AsyncIOUtil {
+
+	private AsyncIOUtil() {
+		// Prevent instantiation
+	}
+
+	/**
+	 * The default number of concurrent block operations.
+	 */
+	public static final int DEFAULT_CONCURRENCY = 4;
+
+	private static final int BLOCK_SIZE = Math.min(Defaults.DEFAULT_BUFFER_SIZE << 4, Defaults.MAX_BUFFER_SIZE);
+
+	private static final int BUFFER_POOL_LIMIT = 16;
+
+	private static final ConcurrentLinkedQueue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+
+	private static final AtomicInteger BUFFER_POOL_SIZE = new AtomicInteger();
+
+	/**
+	 * Reads all bytes from a file asynchronously.
+	 *
+	 * @param src the file to read from.
+	 * @return the {@linkplain CompletableFuture} providing the read bytes.
+	 */
+	public static CompletableFuture<byte[]> readAllBytes(Path src) {
+		return readAllBytes(src, DEFAULT_CONCURRENCY);
+	}
+
+	/**
+	 * Reads all bytes from a file asynchronously.
+	 *
+	 * @param src the file to read from.
+	 * @param concurrency the maximum number of concurrent read operations.
+	 * @return the {@linkplain CompletableFuture} providing the read bytes.
+	 */
+	public static CompletableFuture<byte[]> readAllBytes(Path src, int concurrency) {
+		checkConcurrency(concurrency);
+
+		CompletableFuture<byte[]> result;
+
+		try {
+			AsynchronousFileChannel srcChannel = AsynchronousFileChannel.open(src, StandardOpenOption.READ);
+
+			try {
+				long size = srcChannel.size();
+
+				if (size > Integer.MAX_VALUE - 8) {
+					throw new IOException("File too large: " + src);
+				}
+
+				byte[] bytes = new byte[(int) size];
+
+				result = forEachBlock(size, concurrency,
+						(position, length) -> readFully(srcChannel, ByteBuffer.wrap(bytes, (int) position, length),
+								position))
+						.thenApply(ignored -> bytes);
+			} catch (IOException | RuntimeException e) {
+				Closeables.safeClose(e, srcChannel);
+				throw e;
+			}
+			result = closeOnCompletion(result, srcChannel);
+		} catch (IOException e) {
+			result = CompletableFuture.failedFuture(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes all bytes to a file asynchronously.
+	 * <p>
+	 * The file is created if it does not exist or truncated if it does exist.
+	 * </p>
+	 *
+	 * @param dst the file to write to.
+	 * @param bytes the bytes to write.
+	 * @return the {@linkplain CompletableFuture} providing the number of written bytes.
+	 */
+	public static CompletableFuture<Long> write(Path dst, byte[] bytes) {
+		return write(dst, bytes, DEFAULT_CONCURRENCY);
+	}
+
+	/**
+	 * Writes all bytes to a file asynchronously.
+	 * <p>
+	 * The file is created if it does not exist or truncated if it does exist.
+	 * </p>
+	 *
+	 * @param dst the file to write to.
+	 * @param bytes the bytes to write.
+	 * @param concurrency the maximum number of concurrent write operations.
+	 * @return the {@linkplain CompletableFuture} providing the number of written bytes.
+	 */
+	public static CompletableFuture<Long> write(Path dst, byte[] bytes, int concurrency) {
+		checkConcurrency(concurrency);
+
+		CompletableFuture<Long> result;
+
+		try {
+			AsynchronousFileChannel dstChannel = openWrite(dst);
+
+			result = closeOnCompletion(
+					forEachBlock(bytes.length, concurrency,
+							(position, length) -> writeFully(dstChannel,
+									ByteBuffer.wrap(bytes, (int) position, length), position))
+							.thenApply(ignored -> Long.valueOf(bytes.length)),
+					dstChannel);
+		} catch (IOException e) {
+			result = CompletableFuture.failedFuture(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Copies all bytes from a file to a file asynchronously.
+	 * <p>
+	 * The destination file is created if it does not exist or truncated if it does exist.
+	 * </p>
+	 *
+	 * @param dst the file to copy to.
+	 * @param src the file to copy from.
+	 * @return the {@linkplain CompletableFuture} providing the number of copied bytes.
+	 */
+	public static CompletableFuture<Long> copyFile(Path dst, Path src) {
+		return copyFile(dst, src, DEFAULT_CONCURRENCY);
+	}
+
+	/**
+	 * Copies all bytes from a file to a file asynchronously.
+	 * <p>
+	 * The destination file is created if it does not exist or truncated if it does exist. Every in flight block uses
+	 * a pooled direct buffer, which is read from the source and then written to the destination at the same position.
+	 * </p>
+	 *
+	 * @param dst the file to copy to.
+	 * @param src the file to copy from.
+	 * @param concurrency the maximum number of concurrent block copy operations.
+	 * @return the {@linkplain CompletableFuture} providing the number of copied bytes.
+	 */
+	public static CompletableFuture<Long> copyFile(Path dst, Path src, int concurrency) {
+		checkConcurrency(concurrency);
+
+		CompletableFuture<Long> result;
+
+		try {
+			AsynchronousFileChannel srcChannel = AsynchronousFileChannel.open(src, StandardOpenOption.READ);
+			AsynchronousFileChannel dstChannel;
+
+			try {
+				dstChannel = openWrite(dst);
+			} catch (IOException e) {
+				Closeables.safeClose(e, srcChannel);
+				throw e;
+			}
+
+			CompletableFuture<Long> copy;
+
+			try {
+				long size = srcChannel.size();
+
+				copy = forEachBlock(size, concurrency, (position, length) -> {
+					ByteBuffer buffer = acquireBuffer();
+
+					buffer.limit(length);
+					return readFully(srcChannel, buffer, position).thenCompose(ignored -> {
+						buffer.flip();
+						return writeFully(dstChannel, buffer, position);
+					}).whenComplete((ignored, exception) -> releaseBuffer(buffer));
+				}).thenApply(ignored -> Long.valueOf(size));
+			} catch (IOException e) {
+				copy = CompletableFuture.failedFuture(e);
+			}
+			result = closeOnCompletion(closeOnCompletion(copy, srcChannel), dstChannel);
+		} catch (IOException e) {
+			result = CompletableFuture.failedFuture(e);
+		}
+		return result;
+	}
+
+	private static void checkConcurrency(int concurrency) {
+		if (concurrency <= 0) {
+			throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+		}
+	}
+
+	private static AsynchronousFileChannel openWrite(Path dst) throws IOException {
+		return AsynchronousFileChannel.open(dst, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	private static <T> CompletableFuture<T> closeOnCompletion(CompletableFuture<T> future,
+			AsynchronousFileChannel channel) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+
+		future.whenComplete((value, exception) -> {
+			Throwable resultException = exception;
+
+			try {
+				channel.close();
+			} catch (IOException e) {
+				if (resultException != null) {
+					resultException.addSuppressed(e);
+				} else {
+					resultException = e;
+				}
+			}
+			if (resultException != null) {
+				result.completeExceptionally(resultException);
+			} else {
+				result.complete(value);
+			}
+		});
+		return result;
+	}
+
+	@FunctionalInterface
+	private interface BlockOperation {
+
+		CompletableFuture<?> apply(long position, int length);
+
+	}
+
+	private static CompletableFuture<Void> forEachBlock(long size, int concurrency, BlockOperation operation) {
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		long blockCount = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		int chainCount = (int) Math.max(1, Math.min(concurrency, blockCount));
+		BlockChains chains = new BlockChains(size, chainCount, operation, result);
+
+		for (int chainIndex = 0; chainIndex < chainCount; chainIndex++) {
+			chains.next();
+		}
+		return result;
+	}
+
+	private static final class BlockChains {
+
+		private final long size;
+		private final BlockOperation operation;
+		private final CompletableFuture<Void> result;
+		private final AtomicLong nextPosition = new AtomicLong();
+		private final AtomicInteger activeChains;
+		private final AtomicReference<@Nullable Throwable> exception = new AtomicReference<>();
+
+		BlockChains(long size, int chainCount, BlockOperation operation, CompletableFuture<Void> result) {
+			this.size = size;
+			this.operation = operation;
+			this.result = result;
+			this.activeChains = new AtomicInteger(chainCount);
+		}
+
+		void next() {
+			long position = (this.exception.get() == null ? this.nextPosition.getAndAdd(BLOCK_SIZE) : this.size);
+
+			if (position < this.size) {
+				int length = (int) Math.min(BLOCK_SIZE, this.size - position);
+
+				this.operation.apply(position, length).whenComplete((ignored, blockException) -> {
+					if (blockException != null) {
+						this.exception.compareAndSet(null, blockException);
+					}
+					next();
+				});
+			} else if (this.activeChains.decrementAndGet() == 0) {
+				Throwable checkedException = this.exception.get();
+
+				if (checkedException != null) {
+					this.result.completeExceptionally(checkedException);
+				} else {
+					this.result.complete(null);
+				}
+			}
+		}
+
+	}
+
+	private static CompletableFuture<Void> readFully(AsynchronousFileChannel channel, ByteBuffer buffer,
+			long position) {
+		CompletableFuture<Void> result = new CompletableFuture<>();
+
+		channel.read(buffer, position, position, new CompletionHandler<Integer, Long>() {
+
+			@Override
+			public void completed(@Nullable Integer read, @Nullable Long readPosition) {
+				int checkedRead = (read != null ? read.intValue() : -1);
+
+				if (!buffer.hasRemaining()) {
+					result.complete(null);
+				} else if (checkedRead < 0) {
+					result.completeExceptionally(new EOFException("Unexpected EOF at position: " + readPosition));
+				} else {
+					long nextPosition = (readPosition != null ? readPosition.longValue() : 0) + checkedRead;
+
+					channel.read(buffer, nextPosition, nextPosition, this);
+				}
+			}
+
+			@Override
+			public void failed(@Nullable Throwable exc, @Nullable Long readPosition) {
+				result.completeExceptionally(exc != null ? exc : new IOException("Read failed"));
+			}
+
+		});
+		return result;
+	}
+
+	private static CompletableFuture<Void> writeFully(AsynchronousFileChannel channel, ByteBuffer buffer,
+			long position) {
+		CompletableFuture<Void> result = new CompletableFuture<>();
+
+		channel.write(buffer, position, position, new CompletionHandler<Integer, Long>() {
+
+			@Override
+			public void completed(@Nullable Integer written, @Nullable Long writePosition) {
+				if (!buffer.hasRemaining()) {
+					result.complete(null);
+				} else {
+					long nextPosition = (writePosition != null ? writePosition.longValue() : 0)
+							+ (written != null ? written.intValue() : 0);
+
+					channel.write(buffer, nextPosition, nextPosition, this);
+				}
+			}
+
+			@Override
+			public void failed(@Nullable Throwable exc, @Nullable Long writePosition) {
+				result.completeExceptionally(exc != null ? exc : new IOException("Write failed"));
+			}
+
+		});
+		return result;
+	}
+
+	private static ByteBuffer acquireBuffer() {
+		ByteBuffer buffer = BUFFER_POOL.poll();
+
+		if (buffer != null) {
+			BUFFER_POOL_SIZE.decrementAndGet();
+			buffer.clear();
+		} else {
+			buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+		}
+		return buffer;
+	}
+
+	private static void releaseBuffer(ByteBuffer buffer) {
+		if (BUFFER_POOL_SIZE.incrementAndGet() <= BUFFER_POOL_LIMIT) {
+			BUFFER_POOL.offer(buffer);
+		} else {
+			BUFFER_POOL_SIZE.decrementAndGet();
+		}
+	}
+
+}
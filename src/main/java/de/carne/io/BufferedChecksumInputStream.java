@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Buffered {@linkplain FilterInputStream} that calculates a checksum of the read data.
+ * <p>
+ * In contrast to {@linkplain ChecksumInputStream} this class reads the underlying stream via an internal reusable
+ * buffer and supports {@linkplain #mark(int)} and {@linkplain #reset()}. Every byte of the underlying stream is fed
+ * into the checksum exactly once, at the time it is consumed for the first time. Bytes consumed again after a
+ * {@linkplain #reset()} call do not alter the checksum. Skipped bytes are considered consumed.
+ * </p>
+ */
+public class BufferedChecksumInputStream extends FilterInputStream {
+
+	private final Checksum checksum;
+	private byte[] buffer;
+	private int position = 0;
+	private int count = 0;
+	private int checksumPosition = 0;
+	private int markPosition = -1;
+	private int markLimit = 0;
+
+	/**
+	 * Constructs a new {@linkplain BufferedChecksumInputStream} instance.
+	 *
+	 * @param in the underlying {@linkplain InputStream}.
+	 * @param checksum the {@linkplain Checksum} instance to use for checksum calculation.
+	 */
+	public BufferedChecksumInputStream(InputStream in, Checksum checksum) {
+		this(in, checksum, Defaults.DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructs a new {@linkplain BufferedChecksumInputStream} instance.
+	 *
+	 * @param in the underlying {@linkplain InputStream}.
+	 * @param checksum the {@linkplain Checksum} instance to use for checksum calculation.
+	 * @param bufferSize the size of the internal buffer.
+	 */
+	public BufferedChecksumInputStream(InputStream in, Checksum checksum, int bufferSize) {
+		super(in);
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+		}
+		this.checksum = checksum;
+		this.buffer = new byte[bufferSize];
+	}
+
+	/**
+	 * Gets the checksum value corresponding to the consumed data and resets the checksum processor.
+	 *
+	 * @return the checksum value corresponding to the consumed data.
+	 * @see Checksum#getValue()
+	 */
+	public byte[] getChecksumValue() {
+		return this.checksum.getValue();
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (this.position >= this.count) {
+			fill();
+			if (this.position >= this.count) {
+				return -1;
+			}
+		}
+
+		byte b = this.buffer[this.position++];
+
+		if (this.position > this.checksumPosition) {
+			this.checksum.update(b);
+			this.checksumPosition = this.position;
+		}
+		return b & 0xff;
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public int read(byte @Nullable [] b) throws IOException {
+		return read(b, 0, b.length);
+	}
+
+	@Override
+	public int read(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+
+		if (len == 0) {
+			return 0;
+		}
+
+		int read = read0(checkedB, off, len);
+
+		if (read > 0) {
+			while (read < len && this.in.available() > 0) {
+				int read0 = read0(checkedB, off + read, len - read);
+
+				if (read0 <= 0) {
+					break;
+				}
+				read += read0;
+			}
+		}
+		return read;
+	}
+
+	@Override
+	public int readNBytes(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+
+		int read = 0;
+
+		while (read < len) {
+			int read0 = read0(checkedB, off + read, len - read);
+
+			if (read0 < 0) {
+				break;
+			}
+			read += read0;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+
+		while (skipped < n) {
+			if (this.position >= this.count) {
+				fill();
+				if (this.position >= this.count) {
+					break;
+				}
+			}
+
+			int skipped0 = (int) Math.min(this.count - this.position, n - skipped);
+
+			consume(skipped0);
+			skipped += skipped0;
+		}
+		return skipped;
+	}
+
+	/**
+	 * Skips over and discards exactly {@code n} bytes of data from this stream.
+	 *
+	 * @param n the number of bytes to skip.
+	 * @throws IOException if an I/O error occurs or a premature EOF has been reached.
+	 */
+	public void skipNBytes(long n) throws IOException {
+		long skipped = skip(n);
+
+		if (skipped < n) {
+			throw new EOFException("Unexepcted EOF (expected: " + n + " got: " + skipped);
+		}
+	}
+
+	@Override
+	public long transferTo(@Nullable OutputStream out) throws IOException {
+		Objects.requireNonNull(out);
+
+		long transferred = 0;
+
+		if (this.markPosition < 0) {
+			do {
+				int available = this.count - this.position;
+
+				if (available > 0) {
+					out.write(this.buffer, this.position, available);
+					consume(available);
+					transferred += available;
+				}
+				fill();
+			} while (this.position < this.count);
+		} else {
+			transferred = super.transferTo(out);
+		}
+		return transferred;
+	}
+
+	@Override
+	public int available() throws IOException {
+		int buffered = this.count - this.position;
+		int available = this.in.available();
+
+		return (buffered > Integer.MAX_VALUE - available ? Integer.MAX_VALUE : buffered + available);
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		this.markLimit = readlimit;
+		this.markPosition = this.position;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		if (this.markPosition < 0) {
+			throw new IOException("Resetting to invalid mark");
+		}
+		this.position = this.markPosition;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	private int read0(byte[] b, int off, int len) throws IOException {
+		int available = this.count - this.position;
+
+		if (available <= 0) {
+			if (len >= this.buffer.length && this.markPosition < 0) {
+				// Bypass the buffer for large reads (checksumPosition is 0 as the buffer is empty)
+				int read = this.in.read(b, off, len);
+
+				if (read > 0) {
+					this.checksum.update(b, off, read);
+				}
+				return read;
+			}
+			fill();
+			available = this.count - this.position;
+			if (available <= 0) {
+				return -1;
+			}
+		}
+
+		int read = Math.min(available, len);
+
+		System.arraycopy(this.buffer, this.position, b, off, read);
+		consume(read);
+		return read;
+	}
+
+	private void consume(int n) {
+		int consumeStart = this.position;
+		int consumeEnd = consumeStart + n;
+
+		if (consumeEnd > this.checksumPosition) {
+			int checksumStart = Math.max(consumeStart, this.checksumPosition);
+
+			this.checksum.update(this.buffer, checksumStart, consumeEnd - checksumStart);
+			this.checksumPosition = consumeEnd;
+		}
+		this.position = consumeEnd;
+	}
+
+	private void fill() throws IOException {
+		if (this.markPosition < 0) {
+			this.position = 0;
+			this.checksumPosition = 0;
+		} else if (this.position >= this.buffer.length) {
+			if (this.markPosition > 0) {
+				int keep = this.position - this.markPosition;
+
+				System.arraycopy(this.buffer, this.markPosition, this.buffer, 0, keep);
+				this.position = keep;
+				this.checksumPosition -= this.markPosition;
+				this.markPosition = 0;
+			} else if (this.buffer.length >= this.markLimit) {
+				this.markPosition = -1;
+				this.position = 0;
+				this.checksumPosition = 0;
+			} else {
+				int grownSize = (int) Math.min(Math.max(2l * this.buffer.length, 1), this.markLimit);
+				byte[] grownBuffer = new byte[grownSize];
+
+				System.arraycopy(this.buffer, 0, grownBuffer, 0, this.position);
+				this.buffer = grownBuffer;
+			}
+		}
+		this.count = this.position;
+
+		int read = this.in.read(this.buffer, this.position, this.buffer.length - this.position);
+
+		if (read > 0) {
+			this.count = this.position + read;
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * CRC32C based checksum generator.
+ * <p>
+ * This generator is backed by {@linkplain CRC32C} and hence benefits from any hardware acceleration provided by the
+ * running platform. The generated checksum is the 32 bit CRC value in big endian byte order.
+ * </p>
+ */
+public final class CRC32CChecksum implements Checksum {
+
+	private final CRC32C crc32c = new CRC32C();
+
+	private CRC32CChecksum() {
+		// Use getInstance
+	}
+
+	/**
+	 * Gets a {@linkplain CRC32CChecksum} instance for checksum generation.
+	 *
+	 * @return a {@linkplain CRC32CChecksum} instance for checksum generation.
+	 */
+	public static CRC32CChecksum getInstance() {
+		return new CRC32CChecksum();
+	}
+
+	@Override
+	public void reset() {
+		this.crc32c.reset();
+	}
+
+	@Override
+	public void update(byte b) {
+		this.crc32c.update(b);
+	}
+
+	@Override
+	public void update(byte[] bs) {
+		this.crc32c.update(bs, 0, bs.length);
+	}
+
+	@Override
+	public void update(byte[] bs, int off, int len) {
+		this.crc32c.update(bs, off, len);
+	}
+
+	@Override
+	public void update(ByteBuffer bs) {
+		this.crc32c.update(bs);
+	}
+
+	@Override
+	public byte[] getValue() {
+		int value = (int) this.crc32c.getValue();
+
+		this.crc32c.reset();
+		return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+	}
+
+}
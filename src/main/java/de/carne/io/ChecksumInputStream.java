@@ -28,6 +28,7 @@ import org.eclipse.jdt.annotation.Nullable;
 public class ChecksumInputStream extends FilterInputStream {
 
 	private final Checksum checksum;
+	private byte @Nullable [] skipBuffer = null;
 
 	/**
 	 * Constructs a new {@linkplain ChecksumInputStream} instance.
@@ -79,12 +80,19 @@ public class ChecksumInputStream extends FilterInputStream {
 
 	@Override
 	public long skip(long n) throws IOException {
-		byte[] buffer = new byte[Defaults.DEFAULT_BUFFER_SIZE];
+		byte[] buffer = this.skipBuffer;
+		int bufferSize = (int) Math.max(1, Math.min(n, Defaults.DEFAULT_BUFFER_SIZE));
+
+		// Grow the cached buffer, as small skips must not slow down subsequent large ones
+		if (buffer == null || buffer.length < bufferSize) {
+			buffer = new byte[bufferSize];
+			this.skipBuffer = buffer;
+		}
 
 		long totalRead = 0;
 
 		while (totalRead < n) {
-			int read = read(buffer);
+			int read = read(buffer, 0, (int) Math.min(n - totalRead, buffer.length));
 
 			if (read < 0) {
 				break;
@@ -18,6 +18,17 @@ package de.carne.io;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -108,6 +119,119 @@ public final class Closeables {
 		}
 	}
 
+	/**
+	 * Closes multiple {@linkplain Closeable}s concurrently using a temporary bounded thread pool.
+	 *
+	 * @param <T> the actual {@linkplain Closeable} type.
+	 * @param parallelism the maximum number of concurrent {@linkplain Closeable#close()} calls.
+	 * @param timeout the maximum time to wait for all {@linkplain Closeable#close()} calls to complete.
+	 * @param closeables the {@linkplain Closeable}s to close (may contain {@code null} values).
+	 * @return the {@linkplain Closeable}s which did not finish closing within the given timeout (empty if all
+	 * finished).
+	 * @throws IOException if one or more {@link Closeable#close()} calls fail.
+	 * @see #closeAllParallel(Executor, Duration, Iterable)
+	 */
+	public static <T extends Closeable> List<T> closeAllParallel(int parallelism, Duration timeout,
+			Iterable<T> closeables) throws IOException {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread closer = new Thread(runnable, Closeables.class.getSimpleName());
+
+			closer.setDaemon(true);
+			return closer;
+		});
+
+		try {
+			return closeAllParallel(executor, timeout, closeables);
+		} finally {
+			// Interrupt any close call still running
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Closes multiple {@linkplain Closeable}s concurrently in a safe manner.
+	 * <p>
+	 * This function submits the {@linkplain Closeable#close()} call of every non-null {@linkplain Closeable} instance
+	 * to the submitted {@linkplain Executor} (which should be bounded) and waits for the calls to complete until the
+	 * given timeout has elapsed. As for {@linkplain #closeAll(Iterable)} the first {@linkplain IOException} (in the
+	 * order of the submitted {@linkplain Closeable}s) will be forwarded to the caller and any additional one will be
+	 * added to it as a suppressed exception. {@linkplain Closeable}s which did not finish closing in time are returned
+	 * to the caller. If an exception is thrown, they are reported via an additional suppressed
+	 * {@linkplain TimeoutException} instead.
+	 * </p>
+	 *
+	 * @param <T> the actual {@linkplain Closeable} type.
+	 * @param executor the {@linkplain Executor} to use for the {@linkplain Closeable#close()} calls.
+	 * @param timeout the maximum time to wait for all {@linkplain Closeable#close()} calls to complete.
+	 * @param closeables the {@linkplain Closeable}s to close (may contain {@code null} values).
+	 * @return the {@linkplain Closeable}s which did not finish closing within the given timeout (empty if all
+	 * finished).
+	 * @throws IOException if one or more {@link Closeable#close()} calls fail.
+	 */
+	public static <T extends Closeable> List<T> closeAllParallel(Executor executor, Duration timeout,
+			Iterable<T> closeables) throws IOException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		List<T> closing = new ArrayList<>();
+		List<CompletableFuture<Void>> closeCalls = new ArrayList<>();
+
+		for (T closeable : closeables) {
+			if (closeable != null) {
+				closing.add(closeable);
+				closeCalls.add(CompletableFuture.runAsync(() -> {
+					try {
+						closeable.close();
+					} catch (IOException e) {
+						throw new CompletionException(e);
+					}
+				}, executor));
+			}
+		}
+
+		List<T> pending = new ArrayList<>();
+		Throwable exception = null;
+		boolean interrupted = false;
+
+		for (int closeIndex = 0; closeIndex < closeCalls.size(); closeIndex++) {
+			try {
+				if (interrupted) {
+					throw new TimeoutException();
+				}
+				closeCalls.get(closeIndex).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+
+				if (exception == null) {
+					exception = cause;
+				} else {
+					exception.addSuppressed(cause);
+				}
+			} catch (TimeoutException e) {
+				pending.add(closing.get(closeIndex));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				interrupted = true;
+				pending.add(closing.get(closeIndex));
+			}
+		}
+		if (exception != null) {
+			if (!pending.isEmpty()) {
+				exception.addSuppressed(new TimeoutException("Close timed out for: " + pending));
+			}
+			if (exception instanceof IOException) {
+				throw (IOException) exception;
+			}
+			if (exception instanceof Error) {
+				throw (Error) exception;
+			}
+			throw (RuntimeException) exception;
+		}
+		return pending;
+	}
+
 	/**
 	 * Close potential {@linkplain Closeable}.
 	 * <p>
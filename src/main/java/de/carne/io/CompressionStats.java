@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.util.concurrent.TimeUnit;
+
+import de.carne.text.MemoryUnitFormatter;
+
+/**
+ * Statistics of a compression or decompression run.
+ */
+public final class CompressionStats {
+
+	private final long uncompressedBytes;
+	private final long compressedBytes;
+	private final long elapsedNanos;
+
+	/**
+	 * Constructs a new {@linkplain CompressionStats} instance.
+	 *
+	 * @param uncompressedBytes the number of uncompressed bytes.
+	 * @param compressedBytes the number of compressed bytes.
+	 * @param elapsedNanos the elapsed time in nanoseconds.
+	 */
+	public CompressionStats(long uncompressedBytes, long compressedBytes, long elapsedNanos) {
+		this.uncompressedBytes = uncompressedBytes;
+		this.compressedBytes = compressedBytes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Gets the number of uncompressed bytes.
+	 *
+	 * @return the number of uncompressed bytes.
+	 */
+	public long uncompressedBytes() {
+		return this.uncompressedBytes;
+	}
+
+	/**
+	 * Gets the number of compressed bytes.
+	 *
+	 * @return the number of compressed bytes.
+	 */
+	public long compressedBytes() {
+		return this.compressedBytes;
+	}
+
+	/**
+	 * Gets the elapsed time in nanoseconds.
+	 *
+	 * @return the elapsed time in nanoseconds.
+	 */
+	public long elapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * Gets the compression ratio (compressed size divided by uncompressed size).
+	 *
+	 * @return the compression ratio (or {@code 1.0} if there is no uncompressed data).
+	 */
+	public double ratio() {
+		return (this.uncompressedBytes > 0 ? (double) this.compressedBytes / this.uncompressedBytes : 1.0);
+	}
+
+	/**
+	 * Gets the throughput in uncompressed bytes per second.
+	 *
+	 * @return the throughput in uncompressed bytes per second.
+	 */
+	public double throughput() {
+		return (this.uncompressedBytes * (double) TimeUnit.SECONDS.toNanos(1)) / Math.max(this.elapsedNanos, 1);
+	}
+
+	@Override
+	public String toString() {
+		MemoryUnitFormatter format = MemoryUnitFormatter.DEFAULT;
+
+		return format.format(this.uncompressedBytes) + " <-> " + format.format(this.compressedBytes) + " ("
+				+ Math.round(ratio() * 100.0) + "%, " + format.format(Math.round(throughput())) + "/s)";
+	}
+
+}
@@ -17,12 +17,22 @@
 package de.carne.io;
 
 import java.io.Console;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.Nullable;
 
+import de.carne.util.Lazy;
 import de.carne.util.Platform;
 
 /**
@@ -32,35 +42,182 @@ import de.carne.util.Platform;
  * If {@linkplain System#console()} yields {@code null}, {@linkplain System#out} is used instead. In the latter case any
  * ANSI sequence is filtered out prior to emitting the output.
  * </p>
+ * <p>
+ * By default the output is flushed on every line (see {@linkplain FlushPolicy#LINE}). For high volume output a
+ * different {@linkplain FlushPolicy} can be chosen, in which case the output is collected in a large character buffer
+ * and, if no console is attached, encoded directly to the standard output file descriptor (bypassing
+ * {@linkplain System#out}).
+ * </p>
  */
 public final class ConsoleWriter extends PrintWriter {
 
 	private static final boolean FORCE_ANSI_OUPUT = Boolean
 			.parseBoolean(System.getProperty(ConsoleWriter.class.getName() + ".forceAnsiOutput"));
 
+	private static final int BATCH_BUFFER_SIZE = Defaults.DEFAULT_BUFFER_SIZE << 4;
+
+	private static final Lazy<ScheduledExecutorService> FLUSHER = new Lazy<>(() -> Executors
+			.newSingleThreadScheduledExecutor(runnable -> {
+				Thread flusher = new Thread(runnable, ConsoleWriter.class.getSimpleName() + "Flusher");
+
+				flusher.setDaemon(true);
+				return flusher;
+			}));
+
 	/**
-	 * Constructs a new {@linkplain ConsoleWriter} instance.
+	 * Flush policies supported by {@linkplain ConsoleWriter}.
+	 */
+	public static final class FlushPolicy {
+
+		/**
+		 * Flush on every line (via {@linkplain PrintWriter#println()},
+		 * {@linkplain PrintWriter#printf(String, Object...)} or {@linkplain PrintWriter#format(String, Object...)}).
+		 */
+		public static final FlushPolicy LINE = new FlushPolicy(0, 0);
+
+		/**
+		 * Flush only on explicit {@linkplain PrintWriter#flush()} calls or if the internal buffer is exhausted.
+		 */
+		public static final FlushPolicy EXPLICIT = new FlushPolicy(BATCH_BUFFER_SIZE, 0);
+
+		private final int bufferSize;
+		private final long interval;
+
+		private FlushPolicy(int bufferSize, long interval) {
+			this.bufferSize = bufferSize;
+			this.interval = interval;
+		}
+
+		/**
+		 * Gets a {@linkplain FlushPolicy} which flushes every time the given number of characters has been written.
+		 *
+		 * @param bufferSize the number of characters to buffer before flushing.
+		 * @return the requested {@linkplain FlushPolicy}.
+		 */
+		public static FlushPolicy size(int bufferSize) {
+			if (bufferSize <= 0) {
+				throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+			}
+			return new FlushPolicy(bufferSize, 0);
+		}
+
+		/**
+		 * Gets a {@linkplain FlushPolicy} which flushes periodically (via a background thread) or if the internal
+		 * buffer is exhausted.
+		 *
+		 * @param interval the flush interval in milliseconds.
+		 * @return the requested {@linkplain FlushPolicy}.
+		 */
+		public static FlushPolicy interval(long interval) {
+			if (interval <= 0) {
+				throw new IllegalArgumentException("Invalid flush interval: " + interval);
+			}
+			return new FlushPolicy(BATCH_BUFFER_SIZE, interval);
+		}
+
+		@Override
+		public String toString() {
+			String string;
+
+			if (this.bufferSize == 0) {
+				string = "LINE";
+			} else if (this.interval > 0) {
+				string = "INTERVAL(" + this.interval + " ms)";
+			} else if (this == EXPLICIT) {
+				string = "EXPLICIT";
+			} else {
+				string = "SIZE(" + this.bufferSize + ")";
+			}
+			return string;
+		}
+
+	}
+
+	private final FlushPolicy flushPolicy;
+	private final boolean ansiEnabled;
+	private final @Nullable ScheduledFuture<?> flushTask;
+
+	/**
+	 * Constructs a new {@linkplain ConsoleWriter} instance using {@linkplain FlushPolicy#LINE}.
 	 */
 	public ConsoleWriter() {
-		super(out(System.console()), true);
+		this(FlushPolicy.LINE);
+	}
+
+	/**
+	 * Constructs a new {@linkplain ConsoleWriter} instance.
+	 *
+	 * @param flushPolicy the {@linkplain FlushPolicy} to use.
+	 */
+	public ConsoleWriter(FlushPolicy flushPolicy) {
+		this(System.console(), flushPolicy);
+	}
+
+	/**
+	 * Constructs a new {@linkplain ConsoleWriter} instance writing to the given {@linkplain Writer} instead of the
+	 * console.
+	 * <p>
+	 * ANSI sequences are filtered out unless ANSI output is forced via the corresponding system property.
+	 * </p>
+	 *
+	 * @param out the {@linkplain Writer} to write to.
+	 * @param flushPolicy the {@linkplain FlushPolicy} to use.
+	 */
+	public ConsoleWriter(Writer out, FlushPolicy flushPolicy) {
+		this(wrap(out, FORCE_ANSI_OUPUT, flushPolicy), FORCE_ANSI_OUPUT, flushPolicy);
+	}
+
+	private ConsoleWriter(@Nullable Console console, FlushPolicy flushPolicy) {
+		this(out(console, flushPolicy), isAnsiOutput(console), flushPolicy);
+	}
+
+	private ConsoleWriter(Writer out, boolean ansiEnabled, FlushPolicy flushPolicy) {
+		super(out, flushPolicy == FlushPolicy.LINE);
+		this.flushPolicy = flushPolicy;
+		this.ansiEnabled = ansiEnabled;
+		this.flushTask = (flushPolicy.interval > 0 ? FLUSHER.get().scheduleWithFixedDelay(this::flush,
+				flushPolicy.interval, flushPolicy.interval, TimeUnit.MILLISECONDS) : null);
 	}
 
-	@SuppressWarnings("java:S106")
-	private static Writer out(@Nullable Console console) {
+	private static boolean isAnsiOutput(@Nullable Console console) {
+		return FORCE_ANSI_OUPUT || (console != null && (Platform.IS_LINUX || Platform.IS_MACOS));
+	}
+
+	@SuppressWarnings({ "java:S106", "resource" })
+	private static Writer out(@Nullable Console console, FlushPolicy flushPolicy) {
 		Writer out;
 
 		if (console != null) {
-			if (FORCE_ANSI_OUPUT || Platform.IS_LINUX || Platform.IS_MACOS) {
-				out = console.writer();
-			} else {
-				out = new AnsiFilter(console.writer());
-			}
-		} else if (FORCE_ANSI_OUPUT) {
+			out = console.writer();
+		} else if (flushPolicy == FlushPolicy.LINE) {
 			out = new OutputStreamWriter(System.out);
 		} else {
-			out = new AnsiFilter(new OutputStreamWriter(System.out));
+			System.out.flush();
+			out = Channels.newWriter(new FileOutputStream(FileDescriptor.out).getChannel(),
+					Charset.defaultCharset().newEncoder(), flushPolicy.bufferSize);
 		}
-		return out;
+		return wrap(out, isAnsiOutput(console), flushPolicy);
+	}
+
+	private static Writer wrap(Writer out, boolean ansiOutput, FlushPolicy flushPolicy) {
+		Writer wrapped = out;
+
+		if (!ansiOutput) {
+			wrapped = new AnsiFilter(wrapped);
+		}
+		if (flushPolicy != FlushPolicy.LINE) {
+			wrapped = new BatchWriter(wrapped, flushPolicy.bufferSize);
+		}
+		return wrapped;
+	}
+
+	/**
+	 * Gets the {@linkplain FlushPolicy} used by this instance.
+	 *
+	 * @return the {@linkplain FlushPolicy} used by this instance.
+	 */
+	public FlushPolicy getFlushPolicy() {
+		return this.flushPolicy;
 	}
 
 	/**
@@ -69,7 +226,97 @@ public final class ConsoleWriter extends PrintWriter {
 	 * @return {@code true} if ANSI sequences are emitted by this instance.
 	 */
 	public boolean isAnsiEnabled() {
-		return !(this.out instanceof AnsiFilter);
+		return this.ansiEnabled;
+	}
+
+	@Override
+	public void close() {
+		ScheduledFuture<?> checkedFlushTask = this.flushTask;
+
+		if (checkedFlushTask != null) {
+			checkedFlushTask.cancel(false);
+		}
+		super.close();
+	}
+
+	private static final class BatchWriter extends Writer {
+
+		private final Writer out;
+		private final char[] buffer;
+		private int bufferFill = 0;
+
+		BatchWriter(Writer out, int bufferSize) {
+			super(out);
+			this.out = out;
+			this.buffer = new char[bufferSize];
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			this.buffer[this.bufferFill++] = (char) c;
+			if (this.bufferFill == this.buffer.length) {
+				flush();
+			}
+		}
+
+		@Override
+		public void write(char @Nullable [] cbuf, int off, int len) throws IOException {
+			if (cbuf != null) {
+				int writeOff = off;
+				int remaining = len;
+
+				while (remaining > 0) {
+					int chunk = Math.min(remaining, this.buffer.length - this.bufferFill);
+
+					System.arraycopy(cbuf, writeOff, this.buffer, this.bufferFill, chunk);
+					this.bufferFill += chunk;
+					writeOff += chunk;
+					remaining -= chunk;
+					if (this.bufferFill == this.buffer.length) {
+						flush();
+					}
+				}
+			}
+		}
+
+		@Override
+		public void write(@Nullable String str, int off, int len) throws IOException {
+			if (str != null) {
+				int writeOff = off;
+				int remaining = len;
+
+				while (remaining > 0) {
+					int chunk = Math.min(remaining, this.buffer.length - this.bufferFill);
+
+					str.getChars(writeOff, writeOff + chunk, this.buffer, this.bufferFill);
+					this.bufferFill += chunk;
+					writeOff += chunk;
+					remaining -= chunk;
+					if (this.bufferFill == this.buffer.length) {
+						flush();
+					}
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (this.bufferFill > 0) {
+				this.out.write(this.buffer, 0, this.bufferFill);
+				this.bufferFill = 0;
+			}
+			this.out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			} finally {
+				this.out.close();
+			}
+		}
+
 	}
 
 }
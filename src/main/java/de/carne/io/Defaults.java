@@ -16,7 +16,7 @@
  */
 package de.carne.io;
 
-import de.carne.text.IntegerParser;
+import de.carne.text.MemorySizeParser;
 import de.carne.util.SystemProperties;
 
 /**
@@ -35,10 +35,10 @@ public final class Defaults {
 			+ ".DEFAULT_BUFFER_SIZE";
 
 	/**
-	 * Default buffer size for I/O operations.
+	 * Default buffer size for I/O operations (the property value may be specified with a unit, e.g. {@code 64 KiB}).
 	 */
-	public static final int DEFAULT_BUFFER_SIZE = SystemProperties.intValue(DEFAULT_BUFFER_SIZE_PROPERTY,
-			IntegerParser.POSITIVE, 1 << 12);
+	public static final int DEFAULT_BUFFER_SIZE = (int) SystemProperties.sizeValue(DEFAULT_BUFFER_SIZE_PROPERTY,
+			MemorySizeParser.INT, 1 << 12);
 
 	/**
 	 * {@linkplain #MAX_BUFFER_SIZE} property.
@@ -46,9 +46,9 @@ public final class Defaults {
 	public static final String MAX_BUFFER_SIZE_PROPERTY = Defaults.class.getPackage().getName() + ".MAX_BUFFER_SIZE";
 
 	/**
-	 * Maximum buffer size for I/O operations.
+	 * Maximum buffer size for I/O operations (the property value may be specified with a unit, e.g. {@code 4 MiB}).
 	 */
-	public static final int MAX_BUFFER_SIZE = SystemProperties.intValue(MAX_BUFFER_SIZE_PROPERTY,
-			IntegerParser.POSITIVE, 1 << 22);
+	public static final int MAX_BUFFER_SIZE = (int) SystemProperties.sizeValue(MAX_BUFFER_SIZE_PROPERTY,
+			MemorySizeParser.INT, 1 << 22);
 
 }
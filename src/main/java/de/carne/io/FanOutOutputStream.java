@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.util.Lazy;
+import de.carne.util.LeakTracker;
+
+/**
+ * {@linkplain OutputStream} implementation writing to several sink streams.
+ * <p>
+ * Depending on the chosen {@linkplain Mode} the sinks are either written one after another by the calling thread or
+ * concurrently by one worker thread per sink. In the latter case every sink has its own bounded queue of pending data
+ * and the writer only blocks if the queue of the slowest sink is full.
+ * </p>
+ * <p>
+ * A sink failing with an {@linkplain IOException} (or a {@linkplain RuntimeException}) is not written to anymore but
+ * still closed when this stream is closed. The remaining sinks are written as before. Failures are reported once by
+ * the next write, flush or close call. As in {@linkplain Closeables#closeAll}, the first encountered
+ * {@linkplain IOException} is forwarded to the caller and any additional one is added to it as a suppressed exception.
+ * A {@linkplain RuntimeException} is reported wrapped into an {@linkplain IOException}. A stream created in
+ * {@linkplain Mode#BACKPRESSURE} mode must be closed to release its worker threads.
+ * </p>
+ */
+public class FanOutOutputStream extends OutputStream {
+
+	/**
+	 * The modes supported by {@linkplain FanOutOutputStream}.
+	 */
+	public enum Mode {
+
+		/**
+		 * All sinks are written one after another by the calling thread.
+		 */
+		SYNCHRONOUS,
+
+		/**
+		 * Every sink is written by its own worker thread via a bounded queue. The writer is blocked as soon as the
+		 * queue of the slowest sink is exhausted.
+		 */
+		BACKPRESSURE
+
+	}
+
+	/**
+	 * The default number of queued write chunks per sink used in {@linkplain Mode#BACKPRESSURE} mode.
+	 */
+	public static final int DEFAULT_QUEUE_SIZE = 16;
+
+	private static final Lazy<ExecutorService> WORKERS = new Lazy<>(() -> Executors.newCachedThreadPool(runnable -> {
+		Thread worker = new Thread(runnable, FanOutOutputStream.class.getSimpleName());
+
+		worker.setDaemon(true);
+		return worker;
+	}));
+
+	private static final byte[] NO_DATA = new byte[0];
+
+	private static final class Chunk {
+
+		final byte[] data;
+		final int off;
+		final int len;
+		final boolean flush;
+		final boolean close;
+		final @Nullable CountDownLatch done;
+
+		Chunk(byte[] data, int off, int len) {
+			this(data, off, len, false, false, null);
+		}
+
+		Chunk(byte[] data, int off, int len, boolean flush, boolean close, @Nullable CountDownLatch done) {
+			this.data = data;
+			this.off = off;
+			this.len = len;
+			this.flush = flush;
+			this.close = close;
+			this.done = done;
+		}
+
+	}
+
+	private static final class Sink implements Runnable {
+
+		private final OutputStream out;
+		final @Nullable BlockingQueue<Chunk> queue;
+		final Queue<IOException> exceptions = new ConcurrentLinkedQueue<>();
+		private boolean failed = false;
+
+		Sink(OutputStream out, @Nullable BlockingQueue<Chunk> queue) {
+			this.out = out;
+			this.queue = queue;
+		}
+
+		void process(Chunk chunk) {
+			try {
+				if (!this.failed) {
+					if (chunk.len > 0) {
+						this.out.write(chunk.data, chunk.off, chunk.len);
+					}
+					if (chunk.flush) {
+						this.out.flush();
+					}
+				}
+			} catch (IOException e) {
+				this.failed = true;
+				this.exceptions.add(e);
+			} catch (RuntimeException e) {
+				this.failed = true;
+				this.exceptions.add(new IOException("Sink failure", e));
+			}
+			try {
+				if (chunk.close) {
+					this.out.close();
+				}
+			} catch (IOException e) {
+				this.exceptions.add(e);
+			} catch (RuntimeException e) {
+				this.exceptions.add(new IOException("Sink failure", e));
+			} finally {
+				// Always signal completion (a waiting writer would block forever otherwise)
+				CountDownLatch done = chunk.done;
+
+				if (done != null) {
+					done.countDown();
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			BlockingQueue<Chunk> checkedQueue = Objects.requireNonNull(this.queue);
+			boolean closed = false;
+
+			try {
+				while (!closed) {
+					Chunk chunk = checkedQueue.take();
+
+					process(chunk);
+					closed = chunk.close;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	private final Mode mode;
+	private final List<Sink> sinks;
+	private final byte[] pending;
+	private int pendingLength = 0;
+	private final LeakTracker.Registration leakRegistration = LeakTracker.track(this);
+	private boolean closed = false;
+
+	/**
+	 * Constructs a new {@linkplain FanOutOutputStream} instance in {@linkplain Mode#SYNCHRONOUS} mode.
+	 *
+	 * @param sinks the {@linkplain OutputStream}s to write to.
+	 */
+	public FanOutOutputStream(OutputStream... sinks) {
+		this(Mode.SYNCHRONOUS, DEFAULT_QUEUE_SIZE, Arrays.asList(sinks));
+	}
+
+	/**
+	 * Constructs a new {@linkplain FanOutOutputStream} instance.
+	 *
+	 * @param mode the {@linkplain Mode} to use.
+	 * @param queueSize the number of write chunks to queue per sink (only relevant in {@linkplain Mode#BACKPRESSURE}
+	 * mode).
+	 * @param sinks the {@linkplain OutputStream}s to write to.
+	 */
+	public FanOutOutputStream(Mode mode, int queueSize, List<? extends OutputStream> sinks) {
+		if (queueSize <= 0) {
+			throw new IllegalArgumentException("Invalid queue size: " + queueSize);
+		}
+		this.mode = mode;
+		this.sinks = new ArrayList<>(sinks.size());
+		if (mode == Mode.BACKPRESSURE) {
+			this.pending = new byte[Defaults.DEFAULT_BUFFER_SIZE];
+
+			ExecutorService workers = WORKERS.get();
+
+			for (OutputStream sink : sinks) {
+				Sink queuedSink = new Sink(sink, new ArrayBlockingQueue<>(queueSize));
+
+				this.sinks.add(queuedSink);
+				workers.execute(queuedSink);
+			}
+		} else {
+			this.pending = NO_DATA;
+			for (OutputStream sink : sinks) {
+				this.sinks.add(new Sink(sink, null));
+			}
+		}
+	}
+
+	/**
+	 * Gets this stream's {@linkplain Mode}.
+	 *
+	 * @return this stream's {@linkplain Mode}.
+	 */
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		if (this.mode == Mode.BACKPRESSURE) {
+			this.pending[this.pendingLength++] = (byte) b;
+			if (this.pendingLength == this.pending.length) {
+				dispatchPending();
+			}
+		} else {
+			dispatch(new Chunk(new byte[] { (byte) b }, 0, 1));
+		}
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public void write(byte @Nullable [] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+		ensureOpen();
+		if (this.mode == Mode.BACKPRESSURE) {
+			if (len <= this.pending.length - this.pendingLength) {
+				System.arraycopy(checkedB, off, this.pending, this.pendingLength, len);
+				this.pendingLength += len;
+				if (this.pendingLength == this.pending.length) {
+					dispatchPending();
+				}
+			} else {
+				dispatchPending();
+				// The caller may reuse the buffer, hence queue a copy (shared by all sinks)
+				dispatch(new Chunk(Arrays.copyOfRange(checkedB, off, off + len), 0, len));
+			}
+		} else if (len > 0) {
+			dispatch(new Chunk(checkedB, off, len));
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		dispatchPending();
+		dispatchAndWait(true, false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!this.closed) {
+			this.closed = true;
+			this.leakRegistration.closed();
+			try {
+				dispatchPending();
+			} finally {
+				// Always close the sinks (and release the workers)
+				dispatchAndWait(true, true);
+			}
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private void dispatchPending() throws IOException {
+		if (this.pendingLength > 0) {
+			dispatch(new Chunk(Arrays.copyOf(this.pending, this.pendingLength), 0, this.pendingLength));
+			this.pendingLength = 0;
+		}
+	}
+
+	private void dispatchAndWait(boolean flush, boolean close) throws IOException {
+		CountDownLatch done = new CountDownLatch(this.sinks.size());
+
+		enqueue(new Chunk(NO_DATA, 0, 0, flush, close, done));
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		checkFailures();
+	}
+
+	private void dispatch(Chunk chunk) throws IOException {
+		enqueue(chunk);
+		checkFailures();
+	}
+
+	private void enqueue(Chunk chunk) throws IOException {
+		try {
+			for (Sink sink : this.sinks) {
+				BlockingQueue<Chunk> queue = sink.queue;
+
+				if (queue != null) {
+					queue.put(chunk);
+				} else {
+					sink.process(chunk);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+	}
+
+	private void checkFailures() throws IOException {
+		IOException exception = null;
+
+		for (Sink sink : this.sinks) {
+			IOException sinkException;
+
+			while ((sinkException = sink.exceptions.poll()) != null) {
+				if (exception == null) {
+					exception = sinkException;
+				} else {
+					exception.addSuppressed(sinkException);
+				}
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Utility class providing memory mapped file checksum functions.
+ * <p>
+ * Files are mapped in windows of at most {@value #MAP_WINDOW_SIZE} bytes. Every window is fed directly into
+ * {@linkplain Checksum#update(java.nio.ByteBuffer)} without copying it to the heap. The mappings are released by the
+ * garbage collector once they become unreachable.
+ * </p>
+ */
+public final class FileChecksums {
+
+	private FileChecksums() {
+		// Prevent instantiation
+	}
+
+	/**
+	 * The maximum size of a single mapped file window.
+	 */
+	public static final int MAP_WINDOW_SIZE = 1 << 26;
+
+	/**
+	 * The default chunk size used for tree checksum calculation.
+	 */
+	public static final long DEFAULT_TREE_CHUNK_SIZE = 1l << 24;
+
+	private static final byte TREE_LEAF_PREFIX = 0x00;
+	private static final byte TREE_NODE_PREFIX = 0x01;
+
+	/**
+	 * Calculates the checksum of a file.
+	 * <p>
+	 * The result is identical to the one calculated by feeding the complete file content into the submitted
+	 * {@linkplain Checksum} (e.g. via {@linkplain ChecksumInputStream}).
+	 * </p>
+	 *
+	 * @param file the file to calculate the checksum for.
+	 * @param checksum the {@linkplain Checksum} instance to use.
+	 * @return the calculated checksum.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public static byte[] checksum(Path file, Checksum checksum) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			update(checksum, channel, 0, channel.size());
+		}
+		return checksum.getValue();
+	}
+
+	/**
+	 * Calculates the tree checksum of a file using the common {@linkplain ForkJoinPool} and the default chunk size
+	 * {@value #DEFAULT_TREE_CHUNK_SIZE}.
+	 *
+	 * @param file the file to calculate the checksum for.
+	 * @param checksumFactory the {@linkplain Checksum} factory to use.
+	 * @return the calculated tree checksum.
+	 * @throws IOException if an I/O error occurs.
+	 * @see #treeChecksum(Path, Supplier, long, Executor)
+	 */
+	public static byte[] treeChecksum(Path file, Supplier<? extends Checksum> checksumFactory) throws IOException {
+		return treeChecksum(file, checksumFactory, DEFAULT_TREE_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Calculates the tree checksum of a file.
+	 * <p>
+	 * The file is split into chunks of the submitted size which are hashed concurrently via the submitted
+	 * {@linkplain Executor}. The resulting chunk checksums are then combined pairwise into a binary hash tree (Merkle
+	 * tree) whose root is the returned checksum. To distinguish leaves from inner nodes, every leaf checksum is
+	 * calculated over a {@code 0x00} byte followed by the chunk data and every inner node checksum is calculated over a
+	 * {@code 0x01} byte followed by the two child checksums. A node without sibling is promoted unchanged to the next
+	 * tree level.
+	 * </p>
+	 * <p>
+	 * Tree checksums are only comparable to tree checksums calculated with the same chunk size and checksum algorithm.
+	 * </p>
+	 *
+	 * @param file the file to calculate the checksum for.
+	 * @param checksumFactory the {@linkplain Checksum} factory to use (invoked once per chunk and tree level).
+	 * @param chunkSize the chunk size to use.
+	 * @param executor the {@linkplain Executor} to use for chunk checksum calculation.
+	 * @return the calculated tree checksum.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public static byte[] treeChecksum(Path file, Supplier<? extends Checksum> checksumFactory, long chunkSize,
+			Executor executor) throws IOException {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+		}
+
+		List<byte[]> nodes;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long chunkCount = Math.max(1, (size + chunkSize - 1) / chunkSize);
+			List<CompletableFuture<byte[]>> leaves = new ArrayList<>();
+
+			for (long chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+				long chunkPosition = chunkIndex * chunkSize;
+				long chunkLength = Math.min(chunkSize, size - chunkPosition);
+
+				leaves.add(CompletableFuture.supplyAsync(
+						() -> leafChecksum(checksumFactory.get(), channel, chunkPosition, chunkLength), executor));
+			}
+			// Wait for all leaves (also in case of a failure), as they access the channel which is closed afterwards
+			try {
+				CompletableFuture.allOf(leaves.toArray(new CompletableFuture<?>[leaves.size()])).join();
+			} catch (CompletionException e) {
+				throw leafFailure(e);
+			}
+			nodes = new ArrayList<>(leaves.size());
+			for (CompletableFuture<byte[]> leaf : leaves) {
+				nodes.add(leaf.join());
+			}
+		}
+		return rootChecksum(checksumFactory.get(), nodes);
+	}
+
+	private static IOException leafFailure(CompletionException e) {
+		Throwable cause = e.getCause();
+
+		if (cause instanceof UncheckedIOException) {
+			return ((UncheckedIOException) cause).getCause();
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new IOException("Chunk checksum calculation failed", cause);
+	}
+
+	private static byte[] leafChecksum(Checksum checksum, FileChannel channel, long position, long length) {
+		checksum.update(TREE_LEAF_PREFIX);
+		try {
+			update(checksum, channel, position, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return checksum.getValue();
+	}
+
+	private static byte[] rootChecksum(Checksum checksum, List<byte[]> leaves) {
+		List<byte[]> nodes = leaves;
+
+		while (nodes.size() > 1) {
+			List<byte[]> parents = new ArrayList<>((nodes.size() + 1) / 2);
+			int nodeIndex = 0;
+
+			while (nodeIndex + 1 < nodes.size()) {
+				checksum.update(TREE_NODE_PREFIX);
+				checksum.update(nodes.get(nodeIndex));
+				checksum.update(nodes.get(nodeIndex + 1));
+				parents.add(checksum.getValue());
+				nodeIndex += 2;
+			}
+			if (nodeIndex < nodes.size()) {
+				parents.add(nodes.get(nodeIndex));
+			}
+			nodes = parents;
+		}
+		return nodes.get(0);
+	}
+
+	private static void update(Checksum checksum, FileChannel channel, long position, long length)
+			throws IOException {
+		long windowPosition = position;
+		long remaining = length;
+
+		while (remaining > 0) {
+			long windowSize = Math.min(remaining, MAP_WINDOW_SIZE);
+
+			checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, windowPosition, windowSize));
+			windowPosition += windowSize;
+			remaining -= windowSize;
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Option for the {@linkplain IOUtil} copy functions.
+ * <p>
+ * An option takes effect by wrapping the source and/or the destination stream of a copy operation.
+ * </p>
+ *
+ * @see IOUtil#copyStream(OutputStream, InputStream, IOCopyOption...)
+ */
+public interface IOCopyOption {
+
+	/**
+	 * Applies this option to the source stream of a copy operation.
+	 *
+	 * @param src the source stream to wrap.
+	 * @return the wrapped stream (or the submitted one if this option does not affect the source).
+	 */
+	default InputStream applySource(InputStream src) {
+		return src;
+	}
+
+	/**
+	 * Applies this option to the destination stream of a copy operation.
+	 *
+	 * @param dst the destination stream to wrap.
+	 * @return the wrapped stream (or the submitted one if this option does not affect the destination).
+	 */
+	default OutputStream applyDestination(OutputStream dst) {
+		return dst;
+	}
+
+}
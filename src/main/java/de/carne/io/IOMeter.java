@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects byte and timing metrics of I/O operations.
+ * <p>
+ * The metrics are recorded via {@linkplain LongAdder}s, hence a single instance may be shared by any number of
+ * concurrently used streams. Used as a {@linkplain IOCopyOption} the meter records both the reads from the source and
+ * the writes to the destination of the copy operation.
+ * </p>
+ *
+ * @see MeteredInputStream
+ * @see MeteredOutputStream
+ */
+public final class IOMeter implements IOCopyOption {
+
+	private final LongAdder readBytes = new LongAdder();
+	private final LongAdder readNanos = new LongAdder();
+	private final LongAdder readCount = new LongAdder();
+	private final LongAdder writeBytes = new LongAdder();
+	private final LongAdder writeNanos = new LongAdder();
+	private final LongAdder writeCount = new LongAdder();
+
+	/**
+	 * Records a read operation.
+	 *
+	 * @param bytes the number of read bytes.
+	 * @param nanos the time spent in the read operation.
+	 */
+	public void recordRead(long bytes, long nanos) {
+		this.readBytes.add(bytes);
+		this.readNanos.add(nanos);
+		this.readCount.increment();
+	}
+
+	/**
+	 * Records a write operation.
+	 *
+	 * @param bytes the number of written bytes.
+	 * @param nanos the time spent in the write operation.
+	 */
+	public void recordWrite(long bytes, long nanos) {
+		this.writeBytes.add(bytes);
+		this.writeNanos.add(nanos);
+		this.writeCount.increment();
+	}
+
+	/**
+	 * Gets the total number of read bytes.
+	 *
+	 * @return the total number of read bytes.
+	 */
+	public long readBytes() {
+		return this.readBytes.sum();
+	}
+
+	/**
+	 * Gets the total time spent in read operations.
+	 *
+	 * @return the total time spent in read operations in nanoseconds.
+	 */
+	public long readNanos() {
+		return this.readNanos.sum();
+	}
+
+	/**
+	 * Gets the number of read operations.
+	 *
+	 * @return the number of read operations.
+	 */
+	public long readCount() {
+		return this.readCount.sum();
+	}
+
+	/**
+	 * Gets the total number of written bytes.
+	 *
+	 * @return the total number of written bytes.
+	 */
+	public long writeBytes() {
+		return this.writeBytes.sum();
+	}
+
+	/**
+	 * Gets the total time spent in write operations.
+	 *
+	 * @return the total time spent in write operations in nanoseconds.
+	 */
+	public long writeNanos() {
+		return this.writeNanos.sum();
+	}
+
+	/**
+	 * Gets the number of write operations.
+	 *
+	 * @return the number of write operations.
+	 */
+	public long writeCount() {
+		return this.writeCount.sum();
+	}
+
+	/**
+	 * Resets all metrics.
+	 */
+	public void reset() {
+		this.readBytes.reset();
+		this.readNanos.reset();
+		this.readCount.reset();
+		this.writeBytes.reset();
+		this.writeNanos.reset();
+		this.writeCount.reset();
+	}
+
+	@Override
+	public InputStream applySource(InputStream src) {
+		return new MeteredInputStream(src, this);
+	}
+
+	@Override
+	public OutputStream applyDestination(OutputStream dst) {
+		return new MeteredOutputStream(dst, this);
+	}
+
+	@Override
+	public String toString() {
+		return "read: " + readBytes() + " bytes/" + TimeUnit.NANOSECONDS.toMillis(readNanos()) + " ms; write: "
+				+ writeBytes() + " bytes/" + TimeUnit.NANOSECONDS.toMillis(writeNanos()) + " ms";
+	}
+
+}
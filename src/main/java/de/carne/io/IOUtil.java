@@ -20,15 +20,21 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * Utility class providing I/O related functions.
@@ -87,6 +93,30 @@ public final class IOUtil {
 		return copied;
 	}
 
+	/**
+	 * Copies all bytes from an {@linkplain InputStream} to an {@linkplain OutputStream} applying the submitted copy
+	 * options.
+	 * <p>
+	 * The options are applied in the given order, i.e. the first option's wrapper is the outermost one.
+	 * </p>
+	 *
+	 * @param dst the {@linkplain OutputStream} to copy to.
+	 * @param src the {@linkplain InputStream} to copy from.
+	 * @param options the {@linkplain IOCopyOption}s to apply (e.g. {@linkplain TokenBucket} or {@linkplain IOMeter}).
+	 * @return the number of copied bytes.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public static long copyStream(OutputStream dst, InputStream src, IOCopyOption... options) throws IOException {
+		OutputStream optionDst = dst;
+		InputStream optionSrc = src;
+
+		for (int optionIndex = options.length - 1; optionIndex >= 0; optionIndex--) {
+			optionDst = options[optionIndex].applyDestination(optionDst);
+			optionSrc = options[optionIndex].applySource(optionSrc);
+		}
+		return copyStreamStandard(optionDst, optionSrc);
+	}
+
 	/**
 	 * Copies all bytes from an {@linkplain InputStream} to a {@linkplain File}.
 	 *
@@ -138,6 +168,26 @@ public final class IOUtil {
 		return copied;
 	}
 
+	/**
+	 * Copies all bytes from a {@linkplain File} to a {@linkplain File} applying the submitted copy options.
+	 *
+	 * @param dst the {@linkplain File} to copy to.
+	 * @param src the {@linkplain File} to copy from.
+	 * @param options the {@linkplain IOCopyOption}s to apply (e.g. {@linkplain TokenBucket} or {@linkplain IOMeter}).
+	 * @return the number of copied bytes.
+	 * @throws IOException if an I/O error occurs.
+	 * @see #copyStream(OutputStream, InputStream, IOCopyOption...)
+	 */
+	public static long copyFile(File dst, File src, IOCopyOption... options) throws IOException {
+		long copied;
+
+		try (FileInputStream srcStream = new FileInputStream(src);
+				FileOutputStream dstStream = new FileOutputStream(dst)) {
+			copied = copyStream(dstStream, srcStream, options);
+		}
+		return copied;
+	}
+
 	/**
 	 * Copies all bytes from a {@linkplain URL} to an {@linkplain OutputStream}.
 	 *
@@ -225,6 +275,162 @@ public final class IOUtil {
 		return copied;
 	}
 
+	/**
+	 * Copies and GZIP compresses all bytes from an {@linkplain InputStream} to an {@linkplain OutputStream}.
+	 * <p>
+	 * Compression is performed concurrently via a {@linkplain ParallelGzipOutputStream}. The destination stream is not
+	 * closed. The compression is always finished (also in case of a failure), hence no pending compression is left
+	 * behind.
+	 * </p>
+	 *
+	 * @param dst the {@linkplain OutputStream} to write the compressed data to.
+	 * @param src the {@linkplain InputStream} to copy from.
+	 * @return the {@linkplain CompressionStats} of the copy operation.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public static CompressionStats gzipStream(OutputStream dst, InputStream src) throws IOException {
+		long start = System.nanoTime();
+		IOMeter meter = new IOMeter();
+		long copied;
+
+		try (ParallelGzipOutputStream gzipDst = new ParallelGzipOutputStream(
+				meter.applyDestination(new UnclosableOutputStream(dst)))) {
+			copied = copyStreamStandard(gzipDst, src);
+		}
+		return new CompressionStats(copied, meter.writeBytes(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Copies and GZIP compresses all bytes from a {@linkplain File} to a {@linkplain File}.
+	 *
+	 * @param dst the {@linkplain File} to write the compressed data to.
+	 * @param src the {@linkplain File} to copy from.
+	 * @return the {@linkplain CompressionStats} of the copy operation.
+	 * @throws IOException if an I/O error occurs.
+	 * @see #gzipStream(OutputStream, InputStream)
+	 */
+	public static CompressionStats gzipFile(File dst, File src) throws IOException {
+		CompressionStats stats;
+
+		try (FileInputStream srcStream = new FileInputStream(src);
+				FileOutputStream dstStream = new FileOutputStream(dst)) {
+			stats = gzipStream(dstStream, srcStream);
+		}
+		return stats;
+	}
+
+	/**
+	 * Copies and GZIP decompresses all bytes from an {@linkplain InputStream} to an {@linkplain OutputStream}.
+	 * <p>
+	 * The compressed data is read ahead via a {@linkplain PrefetchInputStream} to overlap I/O and decompression. Multi
+	 * member GZIP data (as created by {@linkplain #gzipStream(OutputStream, InputStream)}) is supported. The source
+	 * stream is not closed. Due to the read ahead, data following the GZIP data may be consumed from the source stream
+	 * as well. Reading the source stream has completed when this function returns.
+	 * </p>
+	 *
+	 * @param dst the {@linkplain OutputStream} to copy the decompressed data to.
+	 * @param src the {@linkplain InputStream} to read the compressed data from.
+	 * @return the {@linkplain CompressionStats} of the copy operation.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public static CompressionStats gunzipStream(OutputStream dst, InputStream src) throws IOException {
+		long start = System.nanoTime();
+		IOMeter meter = new IOMeter();
+		InputStream prefetchSrc = new PrefetchInputStream(new UnclosableInputStream(src),
+				Defaults.DEFAULT_BUFFER_SIZE << 4, PrefetchInputStream.DEFAULT_DEPTH);
+		long copied;
+
+		try (GZIPInputStream gzipSrc = new GZIPInputStream(
+				new MultiMemberInputStream(meter.applySource(prefetchSrc)), Defaults.DEFAULT_BUFFER_SIZE)) {
+			copied = copyStreamStandard(dst, gzipSrc);
+		}
+		return new CompressionStats(copied, meter.readBytes(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Copies and GZIP decompresses all bytes from a {@linkplain File} to a {@linkplain File}.
+	 *
+	 * @param dst the {@linkplain File} to copy the decompressed data to.
+	 * @param src the {@linkplain File} to read the compressed data from.
+	 * @return the {@linkplain CompressionStats} of the copy operation.
+	 * @throws IOException if an I/O error occurs.
+	 * @see #gunzipStream(OutputStream, InputStream)
+	 */
+	public static CompressionStats gunzipFile(File dst, File src) throws IOException {
+		CompressionStats stats;
+
+		try (FileInputStream srcStream = new FileInputStream(src);
+				FileOutputStream dstStream = new FileOutputStream(dst)) {
+			stats = gunzipStream(dstStream, srcStream);
+		}
+		return stats;
+	}
+
+	private static class UnclosableInputStream extends FilterInputStream {
+
+		UnclosableInputStream(InputStream in) {
+			super(in);
+		}
+
+		@SuppressWarnings("null")
+		@Override
+		public int read(byte @Nullable [] b, int off, int len) throws IOException {
+			return this.in.read(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			// Leave the underlying stream open
+		}
+
+	}
+
+	private static class UnclosableOutputStream extends FilterOutputStream {
+
+		UnclosableOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@SuppressWarnings("null")
+		@Override
+		public void write(byte @Nullable [] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			// Leave the underlying stream open
+			flush();
+		}
+
+	}
+
+	// GZIPInputStream only looks for a following member if the underlying stream reports available data. A read
+	// ahead stream may report none at a block boundary although more data follows. Hence available() blocks until
+	// either data or EOF is available.
+	private static class MultiMemberInputStream extends PushbackInputStream {
+
+		MultiMemberInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int available() throws IOException {
+			int available = super.available();
+
+			if (available == 0) {
+				int b = read();
+
+				if (b >= 0) {
+					unread(b);
+					available = 1;
+				}
+			}
+			return available;
+		}
+
+	}
+
 	/**
 	 * Read all bytes from an {@linkplain InputStream}.
 	 *
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.text.HexFormat;
+import de.carne.util.ByteString;
+import de.carne.util.Check;
+import de.carne.util.Strings;
+
+/**
+ * {@linkplain ByteString} compatible view of a {@linkplain MappedFile}.
+ * <p>
+ * This class offers the same access functions as {@linkplain ByteString} but reads the bytes directly from the
+ * underlying mapping. All access functions (except the unguarded {@linkplain #asBuffer()} view) fail with an
+ * {@linkplain IllegalStateException} after the underlying {@linkplain MappedFile} has been closed. Use
+ * {@linkplain #toByteString()} to get a detached copy.
+ * </p>
+ */
+public final class MappedByteString implements Comparable<MappedByteString> {
+
+	private final MappedFile mapping;
+	private final int start;
+	private final int length;
+
+	MappedByteString(MappedFile mapping, int start, int length) {
+		this.mapping = mapping;
+		this.start = start;
+		this.length = length;
+	}
+
+	/**
+	 * Gets the length of this instance.
+	 *
+	 * @return the length of this instance.
+	 */
+	public int length() {
+		return this.length;
+	}
+
+	/**
+	 * Gets a copy of this instance's byte values.
+	 *
+	 * @return a copy of this instance's byte values.
+	 */
+	public byte[] bytes() {
+		byte[] bytes = new byte[this.length];
+
+		this.mapping.get(this.start, bytes, 0, this.length);
+		return bytes;
+	}
+
+	/**
+	 * Gets the this instance's byte value at the given index.
+	 *
+	 * @param index the index of the byte to get.
+	 * @return the byte value at the given index.
+	 */
+	public byte byteAt(int index) {
+		Check.isTrue(0 <= index);
+		Check.isTrue(index < this.length);
+
+		return this.mapping.get(this.start + index);
+	}
+
+	/**
+	 * Copies this instances bytes to a destination buffer.
+	 *
+	 * @param dest the buffer to copy into.
+	 * @param destPos the buffer position to start copying at.
+	 */
+	public void copyTo(byte[] dest, int destPos) {
+		Check.isTrue(0 <= destPos);
+		Check.isTrue(dest.length - destPos >= this.length);
+
+		this.mapping.get(this.start, dest, destPos, this.length);
+	}
+
+	/**
+	 * Copies this instances bytes to the given {@linkplain OutputStream}.
+	 *
+	 * @param out the {@linkplain OutputStream} to write to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void write(OutputStream out) throws IOException {
+		// Copy chunk wise to avoid a full heap copy as well as holding the mapping's lock while writing
+		byte[] chunk = new byte[Math.min(this.length, Defaults.DEFAULT_BUFFER_SIZE)];
+		int offset = 0;
+
+		while (offset < this.length) {
+			int chunkLength = Math.min(chunk.length, this.length - offset);
+
+			this.mapping.get(this.start + offset, chunk, 0, chunkLength);
+			out.write(chunk, 0, chunkLength);
+			offset += chunkLength;
+		}
+	}
+
+	/**
+	 * Gets a read-only {@linkplain ByteBuffer} view of this instance's bytes.
+	 * <p>
+	 * Access to the view is not guarded. Accessing it after the underlying {@linkplain MappedFile} has been closed is
+	 * unsafe and may crash the VM.
+	 * </p>
+	 *
+	 * @return a read-only {@linkplain ByteBuffer} view of this instance's bytes.
+	 */
+	public ByteBuffer asBuffer() {
+		return this.mapping.access(mapping0 -> MappedFile.slice(mapping0, this.start, this.length));
+	}
+
+	/**
+	 * Slices a sub-section from this instance.
+	 *
+	 * @param sliceStart the index of the first byte to slice.
+	 * @param sliceLength the number of bytes to slice.
+	 * @return the sliced byte string.
+	 */
+	public MappedByteString slice(int sliceStart, int sliceLength) {
+		Check.isTrue(0 <= sliceStart);
+		Check.isTrue(0 <= sliceLength);
+		Check.isTrue(sliceStart + sliceLength <= this.length);
+
+		return (sliceStart == 0 && this.length == sliceLength ? this
+				: new MappedByteString(this.mapping, this.start + sliceStart, sliceLength));
+	}
+
+	/**
+	 * Copies this instance's bytes into a {@linkplain ByteString} instance.
+	 *
+	 * @return the {@linkplain ByteString} instance containing this instance's bytes.
+	 */
+	public ByteString toByteString() {
+		return ByteString.wrap(bytes());
+	}
+
+	/**
+	 * Checks whether this instance contains the same bytes as the given {@linkplain ByteString}.
+	 *
+	 * @param byteString the {@linkplain ByteString} to compare with.
+	 * @return {@code true} if both instances contain the same bytes.
+	 */
+	public boolean contentEquals(ByteString byteString) {
+		return this.length == byteString.length() && this.mapping.access(mapping0 -> {
+			boolean equals = true;
+
+			for (int byteIndex = 0; equals && byteIndex < this.length; byteIndex++) {
+				equals = mapping0.get(this.start + byteIndex) == byteString.byteAt(byteIndex);
+			}
+			return Boolean.valueOf(equals);
+		}).booleanValue();
+	}
+
+	@Override
+	public int compareTo(MappedByteString o) {
+		int commonLength = Math.min(this.length, o.length);
+		int compare;
+
+		if (this.mapping == o.mapping) {
+			compare = this.mapping.access(mapping0 -> Integer
+					.valueOf(compareBytes(mapping0, this.start, mapping0, o.start, commonLength))).intValue();
+		} else {
+			// Never hold the locks of both mappings at the same time (to rule out any lock ordering issue)
+			byte[] chunk = new byte[Math.min(commonLength, Defaults.DEFAULT_BUFFER_SIZE)];
+			ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk);
+			int offset = 0;
+
+			compare = 0;
+			while (compare == 0 && offset < commonLength) {
+				int chunkOffset = offset;
+				int chunkLength = Math.min(chunk.length, commonLength - chunkOffset);
+
+				o.mapping.get(o.start + chunkOffset, chunk, 0, chunkLength);
+				compare = this.mapping.access(mapping0 -> Integer
+						.valueOf(compareBytes(mapping0, this.start + chunkOffset, chunkBuffer, 0, chunkLength)))
+						.intValue();
+				offset += chunkLength;
+			}
+		}
+		if (compare == 0) {
+			compare = Integer.compare(this.length, o.length);
+		}
+		return compare;
+	}
+
+	// Compares unsigned (like ByteString does) in contrast to ByteBuffer.compareTo
+	private static int compareBytes(ByteBuffer buffer1, int index1, ByteBuffer buffer2, int index2, int length) {
+		int compare = 0;
+
+		for (int byteIndex = 0; compare == 0 && byteIndex < length; byteIndex++) {
+			compare = Integer.compare(Byte.toUnsignedInt(buffer1.get(index1 + byteIndex)),
+					Byte.toUnsignedInt(buffer2.get(index2 + byteIndex)));
+		}
+		return compare;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.mapping.access(mapping0 -> {
+			int hashLimit = Math.min(4, this.length);
+			int hash = 0;
+
+			for (int hashIndex = 0; hashIndex < hashLimit; hashIndex++) {
+				hash = (hash << 8) | (mapping0.get(this.start + hashIndex) & 0xff);
+			}
+			return Integer.valueOf(hash);
+		}).intValue();
+	}
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return this == obj || (obj instanceof MappedByteString && compareTo((MappedByteString) obj) == 0);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buffer = new StringBuilder();
+		int formatLimit = Math.min(16, this.length);
+		byte[] formatBytes = new byte[formatLimit];
+
+		this.mapping.get(this.start, formatBytes, 0, formatLimit);
+		HexFormat.LOWER_CASE.format(buffer, formatBytes, 0, formatLimit);
+		if (formatLimit < this.length) {
+			buffer.append(Strings.ELLIPSIS);
+		}
+		return buffer.toString();
+	}
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.util.Lazy;
+import de.carne.util.LeakTracker;
+import de.carne.util.logging.Log;
+
+/**
+ * Read-only memory mapping of a complete file.
+ * <p>
+ * In contrast to {@linkplain IOUtil#readAllBytes(java.io.File)} the file content is not copied to the heap but accessed
+ * directly via the mapping. Closing this instance releases the mapping immediately (if supported by the running VM;
+ * otherwise the mapping is released by the garbage collector). Access via this instance or via derived
+ * {@linkplain MappedByteString} instances is guarded by a read lock, whereas the mapping is released under the
+ * corresponding write lock. Hence such access either completes before the mapping is released or fails with an
+ * {@linkplain IllegalStateException}. This does not apply to any {@linkplain ByteBuffer} view obtained via
+ * {@linkplain #buffer()} or {@linkplain MappedByteString#asBuffer()}. Accessing such a view after this instance has
+ * been closed is unsafe and may crash the VM.
+ * </p>
+ */
+public final class MappedFile implements AutoCloseable {
+
+	private static final Log LOG = new Log();
+
+	private static final Lazy<@Nullable MethodHandle> UNMAPPER = new Lazy<>(MappedFile::lookupUnmapper);
+
+	private final Path file;
+	private final ByteBuffer mapping;
+	private final LeakTracker.Registration leakRegistration = LeakTracker.track(this);
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private boolean closed = false;
+
+	private MappedFile(Path file, ByteBuffer mapping) {
+		this.file = file;
+		this.mapping = mapping;
+	}
+
+	/**
+	 * Maps a file read-only.
+	 *
+	 * @param file the file to map.
+	 * @return the {@linkplain MappedFile} instance representing the mapping.
+	 * @throws IOException if an I/O error occurs or if the file is too large to be mapped as a whole.
+	 */
+	public static MappedFile open(Path file) throws IOException {
+		ByteBuffer mapping;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large to be mapped: " + file);
+			}
+			mapping = (size > 0 ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : ByteBuffer.allocate(0));
+		}
+		return new MappedFile(file, mapping);
+	}
+
+	/**
+	 * Gets the mapped file.
+	 *
+	 * @return the mapped file.
+	 */
+	public Path file() {
+		return this.file;
+	}
+
+	/**
+	 * Gets the size of the mapping.
+	 *
+	 * @return the size of the mapping.
+	 */
+	public int size() {
+		return this.mapping.capacity();
+	}
+
+	/**
+	 * Gets a read-only {@linkplain ByteBuffer} view of the mapping.
+	 * <p>
+	 * Every invocation returns a new view with an independent position and limit. Access to the view is not guarded.
+	 * Accessing it after this instance has been closed is unsafe and may crash the VM.
+	 * </p>
+	 *
+	 * @return a read-only {@linkplain ByteBuffer} view of the mapping.
+	 */
+	public ByteBuffer buffer() {
+		return access(ByteBuffer::asReadOnlyBuffer);
+	}
+
+	/**
+	 * Gets a {@linkplain de.carne.util.ByteString} like view of the mapping.
+	 *
+	 * @return a {@linkplain MappedByteString} view of the mapping.
+	 */
+	public MappedByteString byteString() {
+		return access(mapping0 -> new MappedByteString(this, 0, mapping0.capacity()));
+	}
+
+	/**
+	 * Checks whether this instance has been closed.
+	 *
+	 * @return {@code true} if this instance has been closed.
+	 */
+	public boolean isClosed() {
+		Lock readLock = this.lock.readLock();
+
+		readLock.lock();
+		try {
+			return this.closed;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/*
+	 * Runs the submitted function on the mapping while holding the read lock (hence the mapping cannot be released in
+	 * the meantime). The function must neither retain the mapping nor any view of it.
+	 */
+	<T> T access(Function<ByteBuffer, T> function) {
+		Lock readLock = this.lock.readLock();
+
+		readLock.lock();
+		try {
+			if (this.closed) {
+				throw new IllegalStateException("Mapping already closed: " + this.file);
+			}
+			return function.apply(this.mapping);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	byte get(int index) {
+		return access(mapping0 -> mapping0.get(index)).byteValue();
+	}
+
+	void get(int index, byte[] dst, int off, int len) {
+		access(mapping0 -> slice(mapping0, index, len).get(dst, off, len));
+	}
+
+	static ByteBuffer slice(ByteBuffer mapping, int index, int length) {
+		ByteBuffer view = mapping.asReadOnlyBuffer();
+
+		view.position(index);
+		view.limit(index + length);
+		return view.slice();
+	}
+
+	@Override
+	public void close() {
+		Lock writeLock = this.lock.writeLock();
+		boolean unmap;
+
+		writeLock.lock();
+		try {
+			unmap = !this.closed;
+			this.closed = true;
+			// Unmap while holding the write lock, as any guarded access may still be in progress otherwise
+			if (unmap && this.mapping instanceof MappedByteBuffer) {
+				MethodHandle unmapper = UNMAPPER.get();
+
+				if (unmapper != null) {
+					try {
+						unmapper.invokeExact(this.mapping);
+					} catch (Throwable e) {
+						LOG.warning(e, "Failed to unmap file ''{0}''", this.file);
+					}
+				}
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		if (unmap) {
+			this.leakRegistration.closed();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return this.file + " [" + this.mapping.capacity() + " bytes]";
+	}
+
+	private static @Nullable MethodHandle lookupUnmapper() {
+		MethodHandle unmapper = null;
+
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafeField = unsafeClass.getDeclaredField("theUnsafe");
+
+			theUnsafeField.setAccessible(true);
+
+			Object theUnsafe = theUnsafeField.get(null);
+
+			unmapper = MethodHandles.lookup()
+					.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(theUnsafe);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			LOG.debug(e, "Deterministic unmapping not available; falling back to garbage collection");
+		}
+		return unmapper;
+	}
+
+}
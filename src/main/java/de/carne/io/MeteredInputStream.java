@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain FilterInputStream} recording the read bytes and the time spent reading into an {@linkplain IOMeter}.
+ */
+public class MeteredInputStream extends FilterInputStream {
+
+	private final IOMeter meter;
+
+	/**
+	 * Constructs a new {@linkplain MeteredInputStream} instance.
+	 *
+	 * @param in the underlying {@linkplain InputStream}.
+	 * @param meter the {@linkplain IOMeter} to record into (may be shared).
+	 */
+	public MeteredInputStream(InputStream in, IOMeter meter) {
+		super(in);
+		this.meter = meter;
+	}
+
+	@Override
+	public int read() throws IOException {
+		long start = System.nanoTime();
+		int read = this.in.read();
+
+		this.meter.recordRead(read >= 0 ? 1 : 0, System.nanoTime() - start);
+		return read;
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public int read(byte @Nullable [] b, int off, int len) throws IOException {
+		long start = System.nanoTime();
+		int read = this.in.read(b, off, len);
+
+		this.meter.recordRead(Math.max(read, 0), System.nanoTime() - start);
+		return read;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain FilterOutputStream} recording the written bytes and the time spent writing into an
+ * {@linkplain IOMeter}.
+ */
+public class MeteredOutputStream extends FilterOutputStream {
+
+	private final IOMeter meter;
+
+	/**
+	 * Constructs a new {@linkplain MeteredOutputStream} instance.
+	 *
+	 * @param out the underlying {@linkplain OutputStream}.
+	 * @param meter the {@linkplain IOMeter} to record into (may be shared).
+	 */
+	public MeteredOutputStream(OutputStream out, IOMeter meter) {
+		super(out);
+		this.meter = meter;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		long start = System.nanoTime();
+
+		this.out.write(b);
+		this.meter.recordWrite(1, System.nanoTime() - start);
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public void write(byte @Nullable [] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public void write(byte @Nullable [] b, int off, int len) throws IOException {
+		long start = System.nanoTime();
+
+		this.out.write(b, off, len);
+		this.meter.recordWrite(len, System.nanoTime() - start);
+	}
+
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.util.Exceptions;
+
+/**
+ * Composite {@linkplain Checksum} feeding multiple checksum generators from a single data source.
+ * <p>
+ * Combined with {@linkplain ChecksumInputStream} or {@linkplain ChecksumOutputStream} this allows to calculate
+ * multiple checksums (e.g. MD5 and SHA-256) with a single read or write chain. If an {@linkplain Executor} is
+ * submitted during construction, the fed data is collected into blocks which are handed over to the executor. Every
+ * checksum generator then processes the blocks in order but concurrently to the other generators as well as to the
+ * feeding thread.
+ * </p>
+ * <p>
+ * Like the generators it combines, this class is not thread-safe.
+ * </p>
+ */
+public final class MultiChecksum implements Checksum {
+
+	private static final int PIPELINE_BLOCK_SIZE = Math.min(Defaults.DEFAULT_BUFFER_SIZE << 4,
+			Defaults.MAX_BUFFER_SIZE);
+	private static final int PIPELINE_BLOCK_COUNT = 4;
+
+	private final Checksum[] checksums;
+	private final @Nullable Pipeline pipeline;
+
+	/**
+	 * Constructs a new {@linkplain MultiChecksum} instance which feeds the submitted checksum generators sequentially
+	 * in the calling thread.
+	 *
+	 * @param checksums the {@linkplain Checksum} instances to feed.
+	 */
+	public MultiChecksum(Checksum... checksums) {
+		this.checksums = Arrays.copyOf(checksums, checksums.length);
+		this.pipeline = null;
+	}
+
+	/**
+	 * Constructs a new {@linkplain MultiChecksum} instance which feeds the submitted checksum generators concurrently
+	 * via the submitted {@linkplain Executor}.
+	 *
+	 * @param executor the {@linkplain Executor} to use for checksum calculation.
+	 * @param checksums the {@linkplain Checksum} instances to feed.
+	 */
+	public MultiChecksum(Executor executor, Checksum... checksums) {
+		this(executor, PIPELINE_BLOCK_SIZE, PIPELINE_BLOCK_COUNT, checksums);
+	}
+
+	/**
+	 * Constructs a new {@linkplain MultiChecksum} instance which feeds the submitted checksum generators concurrently
+	 * via the submitted {@linkplain Executor}.
+	 *
+	 * @param executor the {@linkplain Executor} to use for checksum calculation.
+	 * @param blockSize the size of the data blocks handed over to the {@linkplain Executor}.
+	 * @param blockCount the maximum number of data blocks in flight (the feeding thread blocks if this limit is
+	 * reached).
+	 * @param checksums the {@linkplain Checksum} instances to feed.
+	 */
+	public MultiChecksum(Executor executor, int blockSize, int blockCount, Checksum... checksums) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Invalid block size: " + blockSize);
+		}
+		if (blockCount <= 0) {
+			throw new IllegalArgumentException("Invalid block count: " + blockCount);
+		}
+		this.checksums = Arrays.copyOf(checksums, checksums.length);
+		this.pipeline = new Pipeline(executor, blockSize, blockCount, this.checksums);
+	}
+
+	/**
+	 * Gets the number of combined checksum generators.
+	 *
+	 * @return the number of combined checksum generators.
+	 */
+	public int size() {
+		return this.checksums.length;
+	}
+
+	@Override
+	public void reset() {
+		Pipeline checkedPipeline = this.pipeline;
+
+		if (checkedPipeline != null) {
+			checkedPipeline.reset();
+		}
+		for (Checksum checksum : this.checksums) {
+			checksum.reset();
+		}
+	}
+
+	@Override
+	public void update(byte b) {
+		Pipeline checkedPipeline = this.pipeline;
+
+		if (checkedPipeline != null) {
+			checkedPipeline.update(b);
+		} else {
+			for (Checksum checksum : this.checksums) {
+				checksum.update(b);
+			}
+		}
+	}
+
+	@Override
+	public void update(byte[] bs) {
+		update(bs, 0, bs.length);
+	}
+
+	@Override
+	public void update(byte[] bs, int off, int len) {
+		Pipeline checkedPipeline = this.pipeline;
+
+		if (checkedPipeline != null) {
+			checkedPipeline.update(bs, off, len);
+		} else {
+			for (Checksum checksum : this.checksums) {
+				checksum.update(bs, off, len);
+			}
+		}
+	}
+
+	@Override
+	public void update(ByteBuffer bs) {
+		Pipeline checkedPipeline = this.pipeline;
+
+		if (checkedPipeline != null) {
+			checkedPipeline.update(bs);
+		} else {
+			int position = bs.position();
+
+			for (Checksum checksum : this.checksums) {
+				bs.position(position);
+				checksum.update(bs);
+			}
+		}
+	}
+
+	/**
+	 * Finalizes the checksum generation, returns the results of all combined checksum generators and resets them.
+	 *
+	 * @return the generated checksums (in the order the generators have been submitted during construction).
+	 */
+	public byte[][] getValues() {
+		Pipeline checkedPipeline = this.pipeline;
+
+		if (checkedPipeline != null) {
+			checkedPipeline.sync();
+		}
+
+		byte[][] values = new byte[this.checksums.length][];
+
+		for (int checksumIndex = 0; checksumIndex < this.checksums.length; checksumIndex++) {
+			values[checksumIndex] = this.checksums[checksumIndex].getValue();
+		}
+		return values;
+	}
+
+	/**
+	 * Finalizes the checksum generation, returns the concatenated results of all combined checksum generators and
+	 * resets them.
+	 *
+	 * @return the concatenated checksums (in the order the generators have been submitted during construction).
+	 * @see #getValues()
+	 */
+	@Override
+	public byte[] getValue() {
+		byte[][] values = getValues();
+		int valueLength = 0;
+
+		for (byte[] value : values) {
+			valueLength += value.length;
+		}
+
+		byte[] concatenatedValue = new byte[valueLength];
+		int valueOffset = 0;
+
+		for (byte[] value : values) {
+			System.arraycopy(value, 0, concatenatedValue, valueOffset, value.length);
+			valueOffset += value.length;
+		}
+		return concatenatedValue;
+	}
+
+	private static final class Pipeline {
+
+		private final Executor executor;
+		private final int blockSize;
+		private final Checksum[] checksums;
+		private final Semaphore blockPermits;
+		private final ConcurrentLinkedQueue<byte[]> freeBlocks = new ConcurrentLinkedQueue<>();
+		private final CompletableFuture<?>[] tails;
+		private byte @Nullable [] block = null;
+		private int blockFill = 0;
+
+		Pipeline(Executor executor, int blockSize, int blockCount, Checksum[] checksums) {
+			this.executor = executor;
+			this.blockSize = blockSize;
+			this.checksums = checksums;
+			this.blockPermits = new Semaphore(blockCount);
+			this.tails = new CompletableFuture<?>[checksums.length];
+			resetTails();
+		}
+
+		void update(byte b) {
+			byte[] currentBlock = currentBlock();
+
+			currentBlock[this.blockFill++] = b;
+			if (this.blockFill == this.blockSize) {
+				submitBlock();
+			}
+		}
+
+		void update(byte[] bs, int off, int len) {
+			int remaining = len;
+			int currentOff = off;
+
+			while (remaining > 0) {
+				byte[] currentBlock = currentBlock();
+				int chunk = Math.min(remaining, this.blockSize - this.blockFill);
+
+				System.arraycopy(bs, currentOff, currentBlock, this.blockFill, chunk);
+				this.blockFill += chunk;
+				currentOff += chunk;
+				remaining -= chunk;
+				if (this.blockFill == this.blockSize) {
+					submitBlock();
+				}
+			}
+		}
+
+		void update(ByteBuffer bs) {
+			while (bs.hasRemaining()) {
+				byte[] currentBlock = currentBlock();
+				int chunk = Math.min(bs.remaining(), this.blockSize - this.blockFill);
+
+				bs.get(currentBlock, this.blockFill, chunk);
+				this.blockFill += chunk;
+				if (this.blockFill == this.blockSize) {
+					submitBlock();
+				}
+			}
+		}
+
+		void sync() {
+			if (this.blockFill > 0) {
+				submitBlock();
+			}
+			try {
+				CompletableFuture.allOf(this.tails).join();
+			} catch (CompletionException e) {
+				resetTails();
+
+				Throwable cause = e.getCause();
+
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw e;
+			}
+		}
+
+		void reset() {
+			byte[] currentBlock = this.block;
+
+			if (currentBlock != null) {
+				releaseBlock(currentBlock);
+				this.block = null;
+				this.blockFill = 0;
+			}
+			try {
+				CompletableFuture.allOf(this.tails).join();
+			} catch (CompletionException e) {
+				Exceptions.ignore(e);
+			}
+			resetTails();
+		}
+
+		private byte[] currentBlock() {
+			byte[] currentBlock = this.block;
+
+			if (currentBlock == null) {
+				this.blockPermits.acquireUninterruptibly();
+
+				byte[] freeBlock = this.freeBlocks.poll();
+
+				currentBlock = (freeBlock != null ? freeBlock : new byte[this.blockSize]);
+				this.block = currentBlock;
+			}
+			return currentBlock;
+		}
+
+		@SuppressWarnings("null")
+		private void submitBlock() {
+			byte[] submitBlock = this.block;
+			int submitBlockLength = this.blockFill;
+
+			this.block = null;
+			this.blockFill = 0;
+			for (int checksumIndex = 0; checksumIndex < this.checksums.length; checksumIndex++) {
+				Checksum checksum = this.checksums[checksumIndex];
+
+				this.tails[checksumIndex] = this.tails[checksumIndex]
+						.thenRunAsync(() -> checksum.update(submitBlock, 0, submitBlockLength), this.executor);
+			}
+			CompletableFuture.allOf(this.tails).whenComplete((result, exception) -> releaseBlock(submitBlock));
+		}
+
+		private void releaseBlock(byte[] releasedBlock) {
+			this.freeBlocks.offer(releasedBlock);
+			this.blockPermits.release();
+		}
+
+		private void resetTails() {
+			Arrays.fill(this.tails, CompletableFuture.completedFuture(null));
+		}
+
+	}
+
+}
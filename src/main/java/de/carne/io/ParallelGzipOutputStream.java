@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.util.LeakTracker;
+
+/**
+ * {@linkplain FilterOutputStream} implementation creating GZIP compressed output using multiple threads.
+ * <p>
+ * The written data is split into blocks which are compressed concurrently via the submitted {@linkplain Executor}.
+ * Every block is emitted as a complete GZIP member, hence the resulting output is a multi-member GZIP stream as
+ * defined by RFC 1952 (and as accepted by {@linkplain java.util.zip.GZIPInputStream} and the common gzip tools). The
+ * compressed members are written in order. A {@linkplain #flush()} call completes the current block and waits for
+ * all pending blocks to be written.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+
+	/**
+	 * The default block size.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = Defaults.DEFAULT_BUFFER_SIZE << 5;
+
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+	private static final int GZIP_TRAILER_SIZE = 8;
+
+	private final Executor executor;
+	private final int blockSize;
+	private final int level;
+	private final int maxPendingBlocks;
+	private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+	private final ArrayDeque<CompletableFuture<ByteBuffer>> pendingBlocks = new ArrayDeque<>();
+	private byte[] block;
+	private int blockLength = 0;
+	private boolean memberSubmitted = false;
+	private final LeakTracker.Registration leakRegistration = LeakTracker.track(this);
+	private boolean finished = false;
+
+	/**
+	 * Constructs a new {@linkplain ParallelGzipOutputStream} instance using the common {@linkplain ForkJoinPool}, the
+	 * default block size {@value #DEFAULT_BLOCK_SIZE} and the default compression level.
+	 *
+	 * @param out the {@linkplain OutputStream} to write the compressed data to.
+	 */
+	public ParallelGzipOutputStream(OutputStream out) {
+		this(out, ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Constructs a new {@linkplain ParallelGzipOutputStream} instance.
+	 *
+	 * @param out the {@linkplain OutputStream} to write the compressed data to.
+	 * @param executor the {@linkplain Executor} to use for block compression.
+	 * @param blockSize the block size to use.
+	 * @param level the compression level to use (see {@linkplain Deflater#setLevel(int)}).
+	 */
+	public ParallelGzipOutputStream(OutputStream out, Executor executor, int blockSize, int level) {
+		super(out);
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Invalid block size: " + blockSize);
+		}
+		if (level != Deflater.DEFAULT_COMPRESSION
+				&& (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+			throw new IllegalArgumentException("Invalid compression level: " + level);
+		}
+		this.executor = executor;
+		this.blockSize = blockSize;
+		this.level = level;
+		this.maxPendingBlocks = 2 * Runtime.getRuntime().availableProcessors();
+		this.block = new byte[blockSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureNotFinished();
+		this.block[this.blockLength++] = (byte) b;
+		if (this.blockLength == this.blockSize) {
+			submitBlock();
+		}
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public void write(byte @Nullable [] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+		ensureNotFinished();
+
+		int written = 0;
+
+		while (written < len) {
+			int written0 = Math.min(len - written, this.blockSize - this.blockLength);
+
+			System.arraycopy(checkedB, off + written, this.block, this.blockLength, written0);
+			this.blockLength += written0;
+			written += written0;
+			if (this.blockLength == this.blockSize) {
+				submitBlock();
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureNotFinished();
+		if (this.blockLength > 0) {
+			submitBlock();
+		}
+		writePendingBlocks(0);
+		this.out.flush();
+	}
+
+	/**
+	 * Finishes writing the compressed data to the underlying {@linkplain OutputStream} without closing it.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void finish() throws IOException {
+		if (!this.finished) {
+			try {
+				// An empty stream still requires a (empty) member
+				if (this.blockLength > 0 || !this.memberSubmitted) {
+					submitBlock();
+				}
+				writePendingBlocks(0);
+			} finally {
+				this.finished = true;
+				this.leakRegistration.closed();
+
+				// Wait for any still running compression (after a failure) to return its deflater
+				CompletableFuture<ByteBuffer> pendingBlock;
+
+				while ((pendingBlock = this.pendingBlocks.poll()) != null) {
+					try {
+						pendingBlock.join();
+					} catch (CompletionException e) {
+						// Already failing
+					}
+				}
+
+				Deflater deflater;
+
+				while ((deflater = this.deflaters.poll()) != null) {
+					deflater.end();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			this.out.close();
+		}
+	}
+
+	private void ensureNotFinished() throws IOException {
+		if (this.finished) {
+			throw new IOException("Stream already finished");
+		}
+	}
+
+	private void submitBlock() throws IOException {
+		byte[] data = this.block;
+		int length = this.blockLength;
+
+		this.pendingBlocks.add(CompletableFuture.supplyAsync(() -> compressMember(data, length), this.executor));
+		this.memberSubmitted = true;
+		this.block = new byte[this.blockSize];
+		this.blockLength = 0;
+		writePendingBlocks(this.maxPendingBlocks);
+	}
+
+	private void writePendingBlocks(int maxPending) throws IOException {
+		while (this.pendingBlocks.size() > maxPending) {
+			ByteBuffer member;
+
+			try {
+				member = this.pendingBlocks.remove().join();
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new IOException("Block compression failed", cause);
+			}
+			IOUtil.copyBuffer(this.out, member);
+		}
+	}
+
+	private ByteBuffer compressMember(byte[] data, int length) {
+		Deflater deflater = this.deflaters.poll();
+
+		if (deflater == null) {
+			deflater = new Deflater(this.level, true);
+		}
+
+		// Initial capacity according to zlib's deflateBound
+		int bound = length + (length >> 12) + (length >> 14) + (length >> 25) + 13;
+		byte[] member = new byte[GZIP_HEADER.length + bound + GZIP_TRAILER_SIZE];
+		int memberLength = GZIP_HEADER.length;
+
+		try {
+			System.arraycopy(GZIP_HEADER, 0, member, 0, GZIP_HEADER.length);
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			while (!deflater.finished()) {
+				int deflateLimit = member.length - GZIP_TRAILER_SIZE;
+
+				if (memberLength == deflateLimit) {
+					member = Arrays.copyOf(member, member.length + (member.length >> 1));
+					deflateLimit = member.length - GZIP_TRAILER_SIZE;
+				}
+				memberLength += deflater.deflate(member, memberLength, deflateLimit - memberLength);
+			}
+		} finally {
+			deflater.reset();
+			this.deflaters.add(deflater);
+		}
+
+		CRC32 crc = new CRC32();
+
+		crc.update(data, 0, length);
+		memberLength = putIntLE(member, memberLength, (int) crc.getValue());
+		memberLength = putIntLE(member, memberLength, length);
+		return ByteBuffer.wrap(member, 0, memberLength);
+	}
+
+	private static int putIntLE(byte[] buffer, int index, int value) {
+		buffer[index] = (byte) value;
+		buffer[index + 1] = (byte) (value >>> 8);
+		buffer[index + 2] = (byte) (value >>> 16);
+		buffer[index + 3] = (byte) (value >>> 24);
+		return index + 4;
+	}
+
+}
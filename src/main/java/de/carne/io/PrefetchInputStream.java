@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.util.Lazy;
+import de.carne.util.LeakTracker;
+
+/**
+ * {@linkplain InputStream} implementation reading the underlying stream ahead on a background thread.
+ * <p>
+ * The underlying stream is read in blocks of a fixed size. While the consumer processes the current block, up to the
+ * configured number of following blocks (the prefetch depth) are read in the background. This way processing and I/O
+ * overlap instead of alternating. Every block is filled completely (unless EOF is reached), hence reads of up to the
+ * block size (like {@linkplain IOUtil#readEager(InputStream, byte[], int, int)} does them) are usually served from a
+ * single block. Closing the stream stops the prefetch and closes the underlying stream. As the underlying stream is
+ * never accessed concurrently, closing waits for any read of the underlying stream currently in progress to complete.
+ * </p>
+ */
+public class PrefetchInputStream extends InputStream {
+
+	/**
+	 * The default prefetch depth.
+	 */
+	public static final int DEFAULT_DEPTH = 2;
+
+	private static final Lazy<ExecutorService> PREFETCHER = new Lazy<>(() -> Executors.newCachedThreadPool(runnable -> {
+		Thread prefetcher = new Thread(runnable, PrefetchInputStream.class.getSimpleName());
+
+		prefetcher.setDaemon(true);
+		return prefetcher;
+	}));
+
+	private static final class Block {
+
+		final byte[] data;
+		int length = 0;
+		@Nullable Exception exception = null;
+
+		Block(int size) {
+			this.data = new byte[size];
+		}
+
+		boolean isLast() {
+			return this.length < this.data.length;
+		}
+
+	}
+
+	// Runs the prefetch loop without any strong reference to the owning stream (which would otherwise stay reachable
+	// from the prefetch thread and hence never be reported as a leak once it is abandoned)
+	private static final class Prefetcher implements Runnable {
+
+		private static final long OWNER_CHECK_INTERVAL = 1000;
+
+		private final WeakReference<PrefetchInputStream> owner;
+		private final InputStream in;
+		final BlockingQueue<Block> freeBlocks;
+		final BlockingQueue<Block> filledBlocks;
+		final CountDownLatch done = new CountDownLatch(1);
+		volatile boolean stopped = false;
+
+		Prefetcher(PrefetchInputStream owner, InputStream in, int blockSize, int depth) {
+			this.owner = new WeakReference<>(owner);
+			this.in = in;
+			// One additional block is owned by the consumer
+			this.freeBlocks = new ArrayBlockingQueue<>(depth + 1);
+			this.filledBlocks = new ArrayBlockingQueue<>(depth + 1);
+			for (int blockIndex = 0; blockIndex <= depth; blockIndex++) {
+				this.freeBlocks.add(new Block(blockSize));
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				boolean last = false;
+
+				while (!last) {
+					Block block = nextFreeBlock();
+
+					if (block == null || this.stopped) {
+						break;
+					}
+					try {
+						block.length = IOUtil.readBlocking(this.in, block.data, 0, block.data.length);
+					} catch (IOException | RuntimeException e) {
+						// Failing blocks are terminal (and hence always published)
+						block.length = 0;
+						block.exception = e;
+					}
+					last = block.isLast();
+					this.filledBlocks.put(block);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				this.done.countDown();
+			}
+		}
+
+		private @Nullable Block nextFreeBlock() throws InterruptedException {
+			Block block = null;
+
+			// Give up as soon as the owning stream has been abandoned without close
+			while (block == null && this.owner.get() != null) {
+				block = this.freeBlocks.poll(OWNER_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+			}
+			return block;
+		}
+
+	}
+
+	private final InputStream in;
+	private final Prefetcher prefetcher;
+	private final LeakTracker.Registration leakRegistration = LeakTracker.track(this);
+	private volatile boolean closed = false;
+	private @Nullable Block currentBlock = null;
+	private int position = 0;
+
+	/**
+	 * Constructs a new {@linkplain PrefetchInputStream} instance using the default block size
+	 * {@linkplain Defaults#DEFAULT_BUFFER_SIZE} and the default prefetch depth {@value #DEFAULT_DEPTH}.
+	 *
+	 * @param in the {@linkplain InputStream} to read from.
+	 */
+	public PrefetchInputStream(InputStream in) {
+		this(in, Defaults.DEFAULT_BUFFER_SIZE, DEFAULT_DEPTH);
+	}
+
+	/**
+	 * Constructs a new {@linkplain PrefetchInputStream} instance.
+	 *
+	 * @param in the {@linkplain InputStream} to read from.
+	 * @param blockSize the block size to use.
+	 * @param depth the number of blocks to read ahead.
+	 */
+	public PrefetchInputStream(InputStream in, int blockSize, int depth) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Invalid block size: " + blockSize);
+		}
+		if (depth <= 0) {
+			throw new IllegalArgumentException("Invalid depth: " + depth);
+		}
+		this.in = in;
+		this.prefetcher = new Prefetcher(this, in, blockSize, depth);
+		PREFETCHER.get().execute(this.prefetcher);
+	}
+
+	@Override
+	public int read() throws IOException {
+		Block block = nextBlock();
+
+		return (this.position < block.length ? block.data[this.position++] & 0xff : -1);
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public int read(byte @Nullable [] b) throws IOException {
+		return read(b, 0, b.length);
+	}
+
+	@Override
+	public int read(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+
+		if (len == 0) {
+			return 0;
+		}
+
+		int read = 0;
+
+		while (read < len) {
+			// Only block for the first chunk
+			if (read > 0 && !isBlockAvailable()) {
+				break;
+			}
+
+			Block block = nextBlock();
+			int available = block.length - this.position;
+
+			if (available <= 0) {
+				break;
+			}
+
+			int read0 = Math.min(available, len - read);
+
+			System.arraycopy(block.data, this.position, checkedB, off + read, read0);
+			this.position += read0;
+			read += read0;
+		}
+		return (read > 0 ? read : -1);
+	}
+
+	@Override
+	public int readNBytes(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+
+		int read = 0;
+
+		while (read < len) {
+			Block block = nextBlock();
+			int available = block.length - this.position;
+
+			if (available <= 0) {
+				break;
+			}
+
+			int read0 = Math.min(available, len - read);
+
+			System.arraycopy(block.data, this.position, checkedB, off + read, read0);
+			this.position += read0;
+			read += read0;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+
+		while (skipped < n) {
+			Block block = nextBlock();
+			int available = block.length - this.position;
+
+			if (available <= 0) {
+				break;
+			}
+
+			int skipped0 = (int) Math.min(available, n - skipped);
+
+			this.position += skipped0;
+			skipped += skipped0;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		ensureOpen();
+
+		Block block = this.currentBlock;
+
+		return (block != null ? block.length - this.position : 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!this.closed) {
+			this.closed = true;
+			this.prefetcher.stopped = true;
+			this.leakRegistration.closed();
+
+			// Hand back all blocks to wake up a prefetch waiting for a free block
+			Block block = this.currentBlock;
+
+			if (block != null) {
+				this.prefetcher.freeBlocks.add(block);
+				this.currentBlock = null;
+			}
+			this.prefetcher.filledBlocks.drainTo(this.prefetcher.freeBlocks);
+
+			boolean interrupted = false;
+
+			while (this.prefetcher.done.getCount() > 0) {
+				try {
+					this.prefetcher.done.await();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			this.in.close();
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private boolean isBlockAvailable() {
+		Block block = this.currentBlock;
+
+		return block != null && (this.position < block.length || !this.prefetcher.filledBlocks.isEmpty());
+	}
+
+	private Block nextBlock() throws IOException {
+		ensureOpen();
+
+		Block block = this.currentBlock;
+
+		if (block == null || (this.position >= block.length && !block.isLast())) {
+			if (block != null) {
+				this.prefetcher.freeBlocks.add(block);
+			}
+			try {
+				block = this.prefetcher.filledBlocks.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			this.currentBlock = block;
+			this.position = 0;
+		}
+
+		Exception exception = block.exception;
+
+		if (exception instanceof RuntimeException) {
+			throw (RuntimeException) exception;
+		}
+		if (exception != null) {
+			throw (IOException) exception;
+		}
+		return block;
+	}
+
+}
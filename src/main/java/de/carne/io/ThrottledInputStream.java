@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain FilterInputStream} limiting the read rate via a {@linkplain TokenBucket}.
+ */
+public class ThrottledInputStream extends FilterInputStream {
+
+	private final TokenBucket bucket;
+
+	/**
+	 * Constructs a new {@linkplain ThrottledInputStream} instance.
+	 *
+	 * @param in the underlying {@linkplain InputStream}.
+	 * @param bucket the {@linkplain TokenBucket} to use for throttling (may be shared).
+	 */
+	public ThrottledInputStream(InputStream in, TokenBucket bucket) {
+		super(in);
+		this.bucket = bucket;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int read = this.in.read();
+
+		if (read >= 0) {
+			this.bucket.acquire(1);
+		}
+		return read;
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public int read(byte @Nullable [] b, int off, int len) throws IOException {
+		int read = this.in.read(b, off, Math.min(len, this.bucket.capacity()));
+
+		if (read > 0) {
+			this.bucket.acquire(read);
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = this.in.skip(Math.min(n, this.bucket.capacity()));
+
+		if (skipped > 0) {
+			this.bucket.acquire(skipped);
+		}
+		return skipped;
+	}
+
+}
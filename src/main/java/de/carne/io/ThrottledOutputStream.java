@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain FilterOutputStream} limiting the write rate via a {@linkplain TokenBucket}.
+ */
+public class ThrottledOutputStream extends FilterOutputStream {
+
+	private final TokenBucket bucket;
+
+	/**
+	 * Constructs a new {@linkplain ThrottledOutputStream} instance.
+	 *
+	 * @param out the underlying {@linkplain OutputStream}.
+	 * @param bucket the {@linkplain TokenBucket} to use for throttling (may be shared).
+	 */
+	public ThrottledOutputStream(OutputStream out, TokenBucket bucket) {
+		super(out);
+		this.bucket = bucket;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		this.bucket.acquire(1);
+		this.out.write(b);
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public void write(byte @Nullable [] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+
+		int written = 0;
+
+		while (written < len) {
+			int written0 = Math.min(len - written, this.bucket.capacity());
+
+			this.bucket.acquire(written0);
+			this.out.write(checkedB, off + written, written0);
+			written += written0;
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain ReadableByteChannel} limiting the read rate of an underlying channel via a {@linkplain TokenBucket}.
+ */
+public class ThrottledReadableByteChannel implements ReadableByteChannel {
+
+	private final ReadableByteChannel channel;
+	private final TokenBucket bucket;
+
+	/**
+	 * Constructs a new {@linkplain ThrottledReadableByteChannel} instance.
+	 *
+	 * @param channel the underlying {@linkplain ReadableByteChannel}.
+	 * @param bucket the {@linkplain TokenBucket} to use for throttling (may be shared).
+	 */
+	public ThrottledReadableByteChannel(ReadableByteChannel channel, TokenBucket bucket) {
+		this.channel = channel;
+		this.bucket = bucket;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return this.channel.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public int read(@Nullable ByteBuffer dst) throws IOException {
+		int limit = dst.limit();
+		int read;
+
+		dst.limit(dst.position() + Math.min(dst.remaining(), this.bucket.capacity()));
+		try {
+			read = this.channel.read(dst);
+		} finally {
+			dst.limit(limit);
+		}
+		if (read > 0) {
+			this.bucket.acquire(read);
+		}
+		return read;
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket used to limit the I/O rate of one or more streams or channels.
+ * <p>
+ * The bucket is refilled with the configured rate (bytes per second) up to its capacity (the maximum burst size).
+ * Acquiring more tokens than available puts the bucket into debt and blocks the caller until the debt has been paid
+ * off. A single instance may be shared by any number of threads to enforce a common limit. Used as a
+ * {@linkplain IOCopyOption} the bucket throttles the source of the copy operation.
+ * </p>
+ *
+ * @see ThrottledInputStream
+ * @see ThrottledOutputStream
+ * @see ThrottledReadableByteChannel
+ */
+public final class TokenBucket implements IOCopyOption {
+
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final long rate;
+	private final int capacity;
+	private double tokens;
+	private long lastRefill;
+
+	/**
+	 * Constructs a new {@linkplain TokenBucket} instance with a capacity of one second's worth of tokens (limited to
+	 * {@linkplain Defaults#MAX_BUFFER_SIZE}).
+	 *
+	 * @param rate the rate in bytes per second.
+	 */
+	public TokenBucket(long rate) {
+		this(rate, (int) Math.max(1, Math.min(rate, Defaults.MAX_BUFFER_SIZE)));
+	}
+
+	/**
+	 * Constructs a new {@linkplain TokenBucket} instance.
+	 *
+	 * @param rate the rate in bytes per second.
+	 * @param capacity the maximum number of tokens the bucket can hold (the maximum burst size).
+	 */
+	public TokenBucket(long rate, int capacity) {
+		if (rate <= 0) {
+			throw new IllegalArgumentException("Invalid rate: " + rate);
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		this.rate = rate;
+		this.capacity = capacity;
+		this.tokens = capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Gets the rate of this bucket.
+	 *
+	 * @return the rate in bytes per second.
+	 */
+	public long rate() {
+		return this.rate;
+	}
+
+	/**
+	 * Gets the capacity of this bucket.
+	 * <p>
+	 * The throttling wrappers never transfer more than this number of bytes at once.
+	 * </p>
+	 *
+	 * @return the capacity of this bucket.
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Acquires tokens and blocks until they are available.
+	 *
+	 * @param count the number of tokens to acquire.
+	 * @throws InterruptedIOException if the calling thread has been interrupted while waiting.
+	 */
+	public void acquire(long count) throws InterruptedIOException {
+		long waitNanos = reserve(count);
+
+		if (waitNanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+		}
+	}
+
+	private synchronized long reserve(long count) {
+		long now = System.nanoTime();
+
+		this.tokens = Math.min(this.capacity, this.tokens + ((now - this.lastRefill) * this.rate) / NANOS_PER_SECOND);
+		this.lastRefill = now;
+		this.tokens -= count;
+		return (this.tokens >= 0 ? 0 : (long) Math.ceil((-this.tokens * NANOS_PER_SECOND) / this.rate));
+	}
+
+	@Override
+	public InputStream applySource(InputStream src) {
+		return new ThrottledInputStream(src, this);
+	}
+
+	@Override
+	public String toString() {
+		return this.rate + " byte/s (" + this.capacity + " byte burst)";
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.io;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * xxHash64 based checksum generator.
+ * <p>
+ * xxHash64 is a fast non-cryptographic hash algorithm suitable for integrity checks where cryptographic strength is
+ * not required. The generated checksum is the 64 bit hash value in big endian byte order (the canonical xxHash
+ * representation).
+ * </p>
+ */
+public final class XXHash64Checksum implements Checksum {
+
+	private static final long PRIME1 = 0x9e3779b185ebca87l;
+	private static final long PRIME2 = 0xc2b2ae3d27d4eb4fl;
+	private static final long PRIME3 = 0x165667b19e3779f9l;
+	private static final long PRIME4 = 0x85ebca77c2b2ae63l;
+	private static final long PRIME5 = 0x27d4eb2f165667c5l;
+
+	private static final int STRIPE_SIZE = 32;
+
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class,
+			ByteOrder.LITTLE_ENDIAN);
+
+	private final long seed;
+	private final byte[] stripe = new byte[STRIPE_SIZE];
+	private int stripeFill;
+	private long totalLength;
+	private long v1;
+	private long v2;
+	private long v3;
+	private long v4;
+
+	private XXHash64Checksum(long seed) {
+		this.seed = seed;
+		reset();
+	}
+
+	/**
+	 * Gets a {@linkplain XXHash64Checksum} instance for checksum generation.
+	 *
+	 * @return a {@linkplain XXHash64Checksum} instance for checksum generation.
+	 */
+	public static XXHash64Checksum getInstance() {
+		return getInstance(0);
+	}
+
+	/**
+	 * Gets a {@linkplain XXHash64Checksum} instance for checksum generation.
+	 *
+	 * @param seed the seed to use for hashing.
+	 * @return a {@linkplain XXHash64Checksum} instance for checksum generation.
+	 */
+	public static XXHash64Checksum getInstance(long seed) {
+		return new XXHash64Checksum(seed);
+	}
+
+	@Override
+	public void reset() {
+		this.stripeFill = 0;
+		this.totalLength = 0;
+		this.v1 = this.seed + PRIME1 + PRIME2;
+		this.v2 = this.seed + PRIME2;
+		this.v3 = this.seed;
+		this.v4 = this.seed - PRIME1;
+	}
+
+	@Override
+	public void update(byte b) {
+		this.stripe[this.stripeFill++] = b;
+		this.totalLength++;
+		if (this.stripeFill == STRIPE_SIZE) {
+			processStripes(this.stripe, 0, STRIPE_SIZE);
+			this.stripeFill = 0;
+		}
+	}
+
+	@Override
+	public void update(byte[] bs) {
+		update(bs, 0, bs.length);
+	}
+
+	@Override
+	public void update(byte[] bs, int off, int len) {
+		int currentOff = off;
+		int remaining = len;
+
+		this.totalLength += len;
+		if (this.stripeFill > 0) {
+			int chunk = Math.min(remaining, STRIPE_SIZE - this.stripeFill);
+
+			System.arraycopy(bs, currentOff, this.stripe, this.stripeFill, chunk);
+			this.stripeFill += chunk;
+			currentOff += chunk;
+			remaining -= chunk;
+			if (this.stripeFill < STRIPE_SIZE) {
+				return;
+			}
+			processStripes(this.stripe, 0, STRIPE_SIZE);
+			this.stripeFill = 0;
+		}
+
+		int stripesLength = remaining - (remaining % STRIPE_SIZE);
+
+		processStripes(bs, currentOff, stripesLength);
+		currentOff += stripesLength;
+		remaining -= stripesLength;
+		System.arraycopy(bs, currentOff, this.stripe, 0, remaining);
+		this.stripeFill = remaining;
+	}
+
+	@Override
+	public void update(ByteBuffer bs) {
+		if (bs.hasArray()) {
+			int position = bs.position();
+			int remaining = bs.remaining();
+
+			update(bs.array(), bs.arrayOffset() + position, remaining);
+			bs.position(position + remaining);
+		} else {
+			ByteBuffer leBuffer = bs.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+			while (this.stripeFill > 0 && leBuffer.hasRemaining()) {
+				update(leBuffer.get());
+			}
+
+			long stripesLength = leBuffer.remaining() - (leBuffer.remaining() % STRIPE_SIZE);
+
+			this.totalLength += stripesLength;
+			for (long stripeIndex = 0; stripeIndex < stripesLength; stripeIndex += STRIPE_SIZE) {
+				this.v1 = round(this.v1, leBuffer.getLong());
+				this.v2 = round(this.v2, leBuffer.getLong());
+				this.v3 = round(this.v3, leBuffer.getLong());
+				this.v4 = round(this.v4, leBuffer.getLong());
+			}
+
+			int remaining = leBuffer.remaining();
+
+			leBuffer.get(this.stripe, 0, remaining);
+			this.stripeFill = remaining;
+			this.totalLength += remaining;
+			bs.position(leBuffer.position());
+		}
+	}
+
+	@Override
+	public byte[] getValue() {
+		long h;
+
+		if (this.totalLength >= STRIPE_SIZE) {
+			h = Long.rotateLeft(this.v1, 1) + Long.rotateLeft(this.v2, 7) + Long.rotateLeft(this.v3, 12)
+					+ Long.rotateLeft(this.v4, 18);
+			h = mergeRound(h, this.v1);
+			h = mergeRound(h, this.v2);
+			h = mergeRound(h, this.v3);
+			h = mergeRound(h, this.v4);
+		} else {
+			h = this.seed + PRIME5;
+		}
+		h += this.totalLength;
+
+		int stripeIndex = 0;
+
+		while (stripeIndex + Long.BYTES <= this.stripeFill) {
+			h ^= round(0, (long) LONG_LE.get(this.stripe, stripeIndex));
+			h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+			stripeIndex += Long.BYTES;
+		}
+		if (stripeIndex + Integer.BYTES <= this.stripeFill) {
+			h ^= (Integer.toUnsignedLong((int) INT_LE.get(this.stripe, stripeIndex))) * PRIME1;
+			h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+			stripeIndex += Integer.BYTES;
+		}
+		while (stripeIndex < this.stripeFill) {
+			h ^= (this.stripe[stripeIndex] & 0xffl) * PRIME5;
+			h = Long.rotateLeft(h, 11) * PRIME1;
+			stripeIndex++;
+		}
+		h ^= h >>> 33;
+		h *= PRIME2;
+		h ^= h >>> 29;
+		h *= PRIME3;
+		h ^= h >>> 32;
+		reset();
+		return new byte[] { (byte) (h >>> 56), (byte) (h >>> 48), (byte) (h >>> 40), (byte) (h >>> 32),
+				(byte) (h >>> 24), (byte) (h >>> 16), (byte) (h >>> 8), (byte) h };
+	}
+
+	private void processStripes(byte[] bs, int off, int len) {
+		long acc1 = this.v1;
+		long acc2 = this.v2;
+		long acc3 = this.v3;
+		long acc4 = this.v4;
+		int offLimit = off + len;
+
+		for (int stripeOff = off; stripeOff < offLimit; stripeOff += STRIPE_SIZE) {
+			acc1 = round(acc1, (long) LONG_LE.get(bs, stripeOff));
+			acc2 = round(acc2, (long) LONG_LE.get(bs, stripeOff + 8));
+			acc3 = round(acc3, (long) LONG_LE.get(bs, stripeOff + 16));
+			acc4 = round(acc4, (long) LONG_LE.get(bs, stripeOff + 24));
+		}
+		this.v1 = acc1;
+		this.v2 = acc2;
+		this.v3 = acc3;
+		this.v4 = acc4;
+	}
+
+	private static long round(long acc, long input) {
+		return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+	}
+
+	private static long mergeRound(long acc, long val) {
+		return (acc ^ round(0, val)) * PRIME1 + PRIME4;
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+/**
+ * Base32 codec as defined in <a href="https://www.rfc-editor.org/rfc/rfc4648">RFC 4648</a>.
+ * <p>
+ * Every group of 5 bytes is encoded to 8 chars. A trailing partial group of 1 to 4 bytes is encoded to 2, 4, 5 or 7
+ * chars. Line breaks or other whitespace are not supported.
+ * </p>
+ */
+public final class Base32Codec extends BinaryTextCodec {
+
+	private static final int[] PARTIAL_CHARS = { 0, 2, 4, 5, 7 };
+
+	/**
+	 * Base32 codec using the standard alphabet and padding.
+	 */
+	public static final Base32Codec STANDARD = new Base32Codec("ABCDEFGHIJKLMNOPQRSTUVWXYZ234567", true);
+
+	private Base32Codec(String alphabet, boolean padding) {
+		super("Base32", 5, 8, PARTIAL_CHARS, alphabet, '=', padding, 0);
+	}
+
+	@Override
+	void encodeGroups(byte[] bs, int off, int groups, byte[] dst, int dstOff) {
+		byte[] chars = this.alphabet;
+		int end = off + groups * 5;
+		int dstIndex = dstOff;
+
+		for (int byteIndex = off; byteIndex < end; byteIndex += 5) {
+			long bits = ((bs[byteIndex] & 0xffl) << 32) | ((bs[byteIndex + 1] & 0xffl) << 24)
+					| ((bs[byteIndex + 2] & 0xffl) << 16) | ((bs[byteIndex + 3] & 0xffl) << 8)
+					| (bs[byteIndex + 4] & 0xffl);
+
+			dst[dstIndex] = chars[(int) (bits >>> 35)];
+			dst[dstIndex + 1] = chars[(int) (bits >>> 30) & 0x1f];
+			dst[dstIndex + 2] = chars[(int) (bits >>> 25) & 0x1f];
+			dst[dstIndex + 3] = chars[(int) (bits >>> 20) & 0x1f];
+			dst[dstIndex + 4] = chars[(int) (bits >>> 15) & 0x1f];
+			dst[dstIndex + 5] = chars[(int) (bits >>> 10) & 0x1f];
+			dst[dstIndex + 6] = chars[(int) (bits >>> 5) & 0x1f];
+			dst[dstIndex + 7] = chars[(int) bits & 0x1f];
+			dstIndex += 8;
+		}
+	}
+
+	@Override
+	int decodeGroups(byte[] chars, int off, int groups, byte[] dst, int dstOff) {
+		int[] charValues = this.values;
+		int end = off + groups * 8;
+		int failedIndex = -1;
+		int dstIndex = dstOff;
+
+		for (int cIndex = off; cIndex < end && failedIndex < 0; cIndex += 8) {
+			// Any invalid char (-1) yields a negative result
+			long bits = ((long) charValues[chars[cIndex] & 0xff] << 35)
+					| ((long) charValues[chars[cIndex + 1] & 0xff] << 30)
+					| ((long) charValues[chars[cIndex + 2] & 0xff] << 25)
+					| ((long) charValues[chars[cIndex + 3] & 0xff] << 20)
+					| ((long) charValues[chars[cIndex + 4] & 0xff] << 15)
+					| ((long) charValues[chars[cIndex + 5] & 0xff] << 10)
+					| ((long) charValues[chars[cIndex + 6] & 0xff] << 5) | charValues[chars[cIndex + 7] & 0xff];
+
+			if (bits >= 0) {
+				dst[dstIndex] = (byte) (bits >>> 32);
+				dst[dstIndex + 1] = (byte) (bits >>> 24);
+				dst[dstIndex + 2] = (byte) (bits >>> 16);
+				dst[dstIndex + 3] = (byte) (bits >>> 8);
+				dst[dstIndex + 4] = (byte) bits;
+				dstIndex += 5;
+			} else {
+				failedIndex = cIndex;
+			}
+		}
+		return failedIndex;
+	}
+
+}
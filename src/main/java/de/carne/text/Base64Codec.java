@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+/**
+ * Base64 codec as defined in <a href="https://www.rfc-editor.org/rfc/rfc4648">RFC 4648</a>.
+ * <p>
+ * Every group of 3 bytes is encoded to 4 chars. A trailing partial group of 1 or 2 bytes is encoded to 2 or 3 chars.
+ * Line breaks or other whitespace are not supported.
+ * </p>
+ */
+public final class Base64Codec extends BinaryTextCodec {
+
+	private static final int[] PARTIAL_CHARS = { 0, 2, 3 };
+
+	/**
+	 * Base64 codec using the standard alphabet and padding.
+	 */
+	public static final Base64Codec STANDARD = new Base64Codec(
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/", true);
+
+	/**
+	 * Base64 codec using the URL and filename safe alphabet without padding (padded input is still accepted when
+	 * decoding).
+	 */
+	public static final Base64Codec URL = new Base64Codec(
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_", false);
+
+	private Base64Codec(String alphabet, boolean padding) {
+		super("Base64", 3, 4, PARTIAL_CHARS, alphabet, '=', padding, 0);
+	}
+
+	@Override
+	void encodeGroups(byte[] bs, int off, int groups, byte[] dst, int dstOff) {
+		byte[] chars = this.alphabet;
+		int end = off + groups * 3;
+		int dstIndex = dstOff;
+
+		for (int byteIndex = off; byteIndex < end; byteIndex += 3) {
+			int bits = ((bs[byteIndex] & 0xff) << 16) | ((bs[byteIndex + 1] & 0xff) << 8) | (bs[byteIndex + 2] & 0xff);
+
+			dst[dstIndex] = chars[bits >>> 18];
+			dst[dstIndex + 1] = chars[(bits >>> 12) & 0x3f];
+			dst[dstIndex + 2] = chars[(bits >>> 6) & 0x3f];
+			dst[dstIndex + 3] = chars[bits & 0x3f];
+			dstIndex += 4;
+		}
+	}
+
+	@Override
+	int decodeGroups(byte[] chars, int off, int groups, byte[] dst, int dstOff) {
+		int[] charValues = this.values;
+		int end = off + groups * 4;
+		int failedIndex = -1;
+		int dstIndex = dstOff;
+
+		for (int cIndex = off; cIndex < end && failedIndex < 0; cIndex += 4) {
+			// Any invalid char (-1) yields a negative result
+			int bits = (charValues[chars[cIndex] & 0xff] << 18) | (charValues[chars[cIndex + 1] & 0xff] << 12)
+					| (charValues[chars[cIndex + 2] & 0xff] << 6) | charValues[chars[cIndex + 3] & 0xff];
+
+			if (bits >= 0) {
+				dst[dstIndex] = (byte) (bits >>> 16);
+				dst[dstIndex + 1] = (byte) (bits >>> 8);
+				dst[dstIndex + 2] = (byte) bits;
+				dstIndex += 3;
+			} else {
+				failedIndex = cIndex;
+			}
+		}
+		return failedIndex;
+	}
+
+}
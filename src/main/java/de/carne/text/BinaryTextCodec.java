@@ -0,0 +1,679 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Base class for group based binary-to-text codecs (like {@linkplain Base64Codec}).
+ * <p>
+ * A codec maps every group of binary bytes to a group of ASCII chars. A trailing partial byte group is encoded to the
+ * minimum number of chars needed and, depending on the codec, padded to a full char group. Decoding accepts padded as
+ * well as unpadded input. Both directions are table driven and process whole groups at a time. Besides the
+ * {@linkplain String} based functions, encode and decode functions operating on caller provided buffers as well as
+ * streaming wrappers are available.
+ * </p>
+ */
+public abstract class BinaryTextCodec {
+
+	// Number of groups to process per chunk if an intermediate buffer is needed
+	private static final int CHUNK_GROUPS = 256;
+
+	private final String name;
+	private final int groupBytes;
+	private final int groupChars;
+	private final int[] partialChars;
+	// Padding char stripped and validated when decoding (0 if the codec does not support padding)
+	private final byte padChar;
+	// Whether encoding emits padding
+	private final boolean padding;
+	private final byte fillChar;
+
+	// Encode table (value to ASCII char)
+	final byte[] alphabet;
+
+	// Decode table (ASCII char to value, -1 if the char is not part of the alphabet)
+	final int[] values;
+
+	BinaryTextCodec(String name, int groupBytes, int groupChars, int[] partialChars, String alphabet, char padChar,
+			boolean padding, int fillValue) {
+		this.name = name;
+		this.groupBytes = groupBytes;
+		this.groupChars = groupChars;
+		this.partialChars = partialChars;
+		this.padChar = (byte) padChar;
+		this.padding = padding;
+		this.alphabet = alphabet.getBytes(StandardCharsets.US_ASCII);
+		this.fillChar = this.alphabet[fillValue];
+		this.values = new int[256];
+		Arrays.fill(this.values, -1);
+		for (int value = 0; value < this.alphabet.length; value++) {
+			this.values[this.alphabet[value]] = value;
+		}
+	}
+
+	/*
+	 * Encodes the given number of full byte groups.
+	 */
+	abstract void encodeGroups(byte[] bs, int off, int groups, byte[] dst, int dstOff);
+
+	/*
+	 * Decodes the given number of full char groups (returns -1 on success or the position of the first invalid group).
+	 */
+	abstract int decodeGroups(byte[] chars, int off, int groups, byte[] dst, int dstOff);
+
+	/**
+	 * Gets the number of chars needed to encode the given number of bytes.
+	 *
+	 * @param len the number of bytes to encode.
+	 * @return the number of chars needed to encode the given number of bytes.
+	 */
+	public int encodedLength(int len) {
+		int groups = len / this.groupBytes;
+		int remaining = len - groups * this.groupBytes;
+		long encodedLength = (long) groups * this.groupChars;
+
+		if (remaining > 0) {
+			encodedLength += (this.padding ? this.groupChars : this.partialChars[remaining]);
+		}
+		return Math.toIntExact(encodedLength);
+	}
+
+	/**
+	 * Gets the number of bytes represented by an encoded sequence.
+	 * <p>
+	 * Only the length and the padding of the sequence are validated.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} containing the encoded sequence.
+	 * @param start the position of the first char of the sequence.
+	 * @param end the position following the last char of the sequence.
+	 * @return the number of bytes represented by the encoded sequence.
+	 * @throws NumberFormatException if the sequence length or padding is invalid.
+	 */
+	public int decodedLength(CharSequence s, int start, int end) {
+		Objects.checkFromToIndex(start, end, s.length());
+
+		int dataLength = dataLength(s, start, end);
+
+		if (dataLength < 0) {
+			throw invalidSequence(s.subSequence(start, end));
+		}
+		return decodedLength(dataLength);
+	}
+
+	private int decodedLength(int dataLength) {
+		int groups = dataLength / this.groupChars;
+
+		return groups * this.groupBytes + partialBytes(dataLength - groups * this.groupChars);
+	}
+
+	private int partialBytes(int chars) {
+		int partialBytes = -1;
+
+		for (int bytes = 0; bytes < this.partialChars.length && partialBytes < 0; bytes++) {
+			if (this.partialChars[bytes] == chars) {
+				partialBytes = bytes;
+			}
+		}
+		return partialBytes;
+	}
+
+	/*
+	 * Gets the number of chars excluding any padding (-1 if the length or the padding is invalid).
+	 */
+	private int dataLength(int length, int padding) {
+		int dataLength = length - padding;
+		int remaining = dataLength % this.groupChars;
+
+		if (padding > 0 && (remaining == 0 || length % this.groupChars != 0)) {
+			dataLength = -1;
+		} else if (partialBytes(remaining) < 0) {
+			dataLength = -1;
+		}
+		return dataLength;
+	}
+
+	private int dataLength(CharSequence s, int start, int end) {
+		int dataEnd = end;
+
+		while (this.padChar != 0 && dataEnd > start && s.charAt(dataEnd - 1) == this.padChar) {
+			dataEnd--;
+		}
+		return dataLength(end - start, end - dataEnd);
+	}
+
+	private int dataLength(byte[] chars, int off, int len) {
+		int dataEnd = off + len;
+
+		while (this.padChar != 0 && dataEnd > off && chars[dataEnd - 1] == this.padChar) {
+			dataEnd--;
+		}
+		return dataLength(len, off + len - dataEnd);
+	}
+
+	/**
+	 * Converts a byte array to an encoded sequence.
+	 *
+	 * @param bs the byte array to convert.
+	 * @return the encoded sequence representing the byte array.
+	 */
+	public String toString(byte[] bs) {
+		return toString(bs, 0, bs.length);
+	}
+
+	/**
+	 * Converts a byte array to an encoded sequence.
+	 *
+	 * @param bs the byte array to convert.
+	 * @param off the first byte to convert.
+	 * @param len the number of bytes to convert.
+	 * @return the encoded sequence representing the byte array.
+	 */
+	public String toString(byte[] bs, int off, int len) {
+		Objects.checkFromIndexSize(off, len, bs.length);
+
+		byte[] chars = new byte[encodedLength(len)];
+
+		encode0(bs, off, len, chars, 0);
+		// ASCII chars are taken over by the String without any further decoding
+		return new String(chars, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Encodes a byte array to an encoded sequence stored in a char array.
+	 *
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @param dst the char array to store the encoded sequence into (must provide space for
+	 * {@linkplain #encodedLength(int)} chars).
+	 * @param dstOff the position of the first char to store.
+	 * @return the position following the last stored char.
+	 */
+	public int encode(byte[] bs, int off, int len, char[] dst, int dstOff) {
+		Objects.checkFromIndexSize(off, len, bs.length);
+		Objects.checkFromIndexSize(dstOff, encodedLength(len), dst.length);
+
+		byte[] chunk = new byte[encodedLength(Math.min(len, CHUNK_GROUPS * this.groupBytes))];
+		int byteIndex = off;
+		int remaining = len;
+		int dstIndex = dstOff;
+
+		while (remaining > 0) {
+			int chunkLen = Math.min(remaining, CHUNK_GROUPS * this.groupBytes);
+			int chunkChars = encode0(bs, byteIndex, chunkLen, chunk, 0);
+
+			for (int charIndex = 0; charIndex < chunkChars; charIndex++) {
+				dst[dstIndex++] = (char) chunk[charIndex];
+			}
+			byteIndex += chunkLen;
+			remaining -= chunkLen;
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Encodes a byte array to an encoded sequence stored as ASCII chars in a byte array.
+	 *
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @param dst the byte array to store the encoded sequence into (must provide space for
+	 * {@linkplain #encodedLength(int)} chars).
+	 * @param dstOff the position of the first char to store.
+	 * @return the position following the last stored char.
+	 */
+	public int encode(byte[] bs, int off, int len, byte[] dst, int dstOff) {
+		Objects.checkFromIndexSize(off, len, bs.length);
+		Objects.checkFromIndexSize(dstOff, encodedLength(len), dst.length);
+		return encode0(bs, off, len, dst, dstOff);
+	}
+
+	private int encode0(byte[] bs, int off, int len, byte[] dst, int dstOff) {
+		int groups = len / this.groupBytes;
+		int remaining = len - groups * this.groupBytes;
+		int dstIndex = dstOff + groups * this.groupChars;
+
+		encodeGroups(bs, off, groups, dst, dstOff);
+		if (remaining > 0) {
+			// Encode the zero filled partial group and keep only the chars needed
+			byte[] group = new byte[this.groupBytes];
+			byte[] groupChars = new byte[this.groupChars];
+			int partialChars = this.partialChars[remaining];
+
+			System.arraycopy(bs, off + groups * this.groupBytes, group, 0, remaining);
+			encodeGroups(group, 0, 1, groupChars, 0);
+			System.arraycopy(groupChars, 0, dst, dstIndex, partialChars);
+			dstIndex += partialChars;
+			if (this.padding) {
+				Arrays.fill(dst, dstIndex, dstIndex + this.groupChars - partialChars, this.padChar);
+				dstIndex += this.groupChars - partialChars;
+			}
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Appends the encoded sequence of a byte array to an {@linkplain Appendable}.
+	 *
+	 * @param a the {@linkplain Appendable} to append to.
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @throws IOException if an I/O error occurs while appending.
+	 */
+	public void append(Appendable a, byte[] bs, int off, int len) throws IOException {
+		Objects.checkFromIndexSize(off, len, bs.length);
+
+		byte[] encodedChunk = new byte[encodedLength(Math.min(len, CHUNK_GROUPS * this.groupBytes))];
+		char[] chunk = new char[encodedChunk.length];
+		int byteIndex = off;
+		int remaining = len;
+
+		if (a instanceof StringBuilder) {
+			((StringBuilder) a).ensureCapacity(((StringBuilder) a).length() + encodedLength(len));
+		}
+		while (remaining > 0) {
+			int chunkLen = Math.min(remaining, CHUNK_GROUPS * this.groupBytes);
+			int chunkChars = encode0(bs, byteIndex, chunkLen, encodedChunk, 0);
+
+			for (int charIndex = 0; charIndex < chunkChars; charIndex++) {
+				chunk[charIndex] = (char) encodedChunk[charIndex];
+			}
+
+			// Avoid the char by char append of a generic CharSequence where possible
+			if (a instanceof StringBuilder) {
+				((StringBuilder) a).append(chunk, 0, chunkChars);
+			} else if (a instanceof Writer) {
+				((Writer) a).write(chunk, 0, chunkChars);
+			} else {
+				a.append(CharBuffer.wrap(chunk, 0, chunkChars));
+			}
+			byteIndex += chunkLen;
+			remaining -= chunkLen;
+		}
+	}
+
+	/**
+	 * Converts an encoded sequence to a byte array.
+	 *
+	 * @param s the encoded sequence to convert.
+	 * @return the byte array represented by the submitted sequence.
+	 * @throws NumberFormatException if the sequence is invalid.
+	 */
+	public byte[] valueOf(String s) {
+		int sLength = s.length();
+		byte[] value = new byte[decodedLength(s, 0, sLength)];
+
+		decode(s, 0, sLength, value, 0);
+		return value;
+	}
+
+	/**
+	 * Decodes an encoded sequence into a byte array.
+	 *
+	 * @param s the {@linkplain CharSequence} containing the sequence to decode.
+	 * @param start the position of the first char to decode.
+	 * @param end the position following the last char to decode.
+	 * @param dst the byte array to store the decoded bytes into (must provide space for
+	 * {@linkplain #decodedLength(CharSequence, int, int)} bytes).
+	 * @param dstOff the position of the first byte to store.
+	 * @return the position following the last stored byte.
+	 * @throws NumberFormatException if the sequence is invalid.
+	 */
+	public int decode(CharSequence s, int start, int end, byte[] dst, int dstOff) {
+		Objects.checkFromToIndex(start, end, s.length());
+
+		int dataLength = dataLength(s, start, end);
+
+		if (dataLength < 0) {
+			throw invalidSequence(s.subSequence(start, end));
+		}
+		Objects.checkFromIndexSize(dstOff, decodedLength(dataLength), dst.length);
+
+		byte[] chunk = new byte[Math.min(dataLength, CHUNK_GROUPS * this.groupChars)];
+		int cIndex = start;
+		int remaining = dataLength;
+		int dstIndex = dstOff;
+
+		while (remaining > 0) {
+			int chunkLen = Math.min(remaining, CHUNK_GROUPS * this.groupChars);
+
+			for (int chunkIndex = 0; chunkIndex < chunkLen; chunkIndex++) {
+				char c = s.charAt(cIndex + chunkIndex);
+
+				if (c >= 0x80) {
+					throw invalidChar(c);
+				}
+				chunk[chunkIndex] = (byte) c;
+			}
+			dstIndex = decode0(chunk, 0, chunkLen, dst, dstIndex);
+			cIndex += chunkLen;
+			remaining -= chunkLen;
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Decodes an encoded sequence stored as ASCII chars in a byte array.
+	 *
+	 * @param chars the byte array containing the sequence to decode.
+	 * @param off the position of the first char to decode.
+	 * @param len the number of chars to decode.
+	 * @param dst the byte array to store the decoded bytes into (must provide space for the number of bytes
+	 * represented by the sequence).
+	 * @param dstOff the position of the first byte to store.
+	 * @return the position following the last stored byte.
+	 * @throws NumberFormatException if the sequence is invalid.
+	 */
+	public int decode(byte[] chars, int off, int len, byte[] dst, int dstOff) {
+		Objects.checkFromIndexSize(off, len, chars.length);
+
+		int dataLength = dataLength(chars, off, len);
+
+		if (dataLength < 0) {
+			throw invalidSequence(new String(chars, off, len, StandardCharsets.ISO_8859_1));
+		}
+		Objects.checkFromIndexSize(dstOff, decodedLength(dataLength), dst.length);
+		return decode0(chars, off, dataLength, dst, dstOff);
+	}
+
+	private int decode0(byte[] chars, int off, int len, byte[] dst, int dstOff) {
+		int groups = len / this.groupChars;
+		int remaining = len - groups * this.groupChars;
+		int failedIndex = decodeGroups(chars, off, groups, dst, dstOff);
+
+		if (failedIndex >= 0) {
+			throw invalidGroup(chars, failedIndex, this.groupChars);
+		}
+
+		int dstIndex = dstOff + groups * this.groupBytes;
+
+		if (remaining > 0) {
+			// Decode the partial group filled up to a full group and keep only the bytes represented
+			int cIndex = off + groups * this.groupChars;
+			byte[] groupChars = new byte[this.groupChars];
+			byte[] group = new byte[this.groupBytes];
+			int partialBytes = partialBytes(remaining);
+
+			System.arraycopy(chars, cIndex, groupChars, 0, remaining);
+			Arrays.fill(groupChars, remaining, this.groupChars, this.fillChar);
+			if (decodeGroups(groupChars, 0, 1, group, 0) >= 0) {
+				throw invalidGroup(chars, cIndex, remaining);
+			}
+			System.arraycopy(group, 0, dst, dstIndex, partialBytes);
+			dstIndex += partialBytes;
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Wraps an {@linkplain OutputStream} for encoding.
+	 * <p>
+	 * All bytes written to the returned stream are encoded and written as ASCII chars to the wrapped stream. As the
+	 * final partial group can only be encoded once all data has been written, the returned stream must be closed to
+	 * complete the encoded sequence. Closing the returned stream also closes the wrapped stream.
+	 * </p>
+	 *
+	 * @param out the {@linkplain OutputStream} to write the encoded sequence to.
+	 * @return the encoding {@linkplain OutputStream}.
+	 */
+	public OutputStream wrap(OutputStream out) {
+		return new EncodingOutputStream(this, out);
+	}
+
+	/**
+	 * Wraps an {@linkplain InputStream} for decoding.
+	 * <p>
+	 * All ASCII chars read from the wrapped stream are decoded and returned by the returned stream. An invalid encoded
+	 * sequence is reported via an {@linkplain IOException}. Closing the returned stream also closes the wrapped stream.
+	 * </p>
+	 *
+	 * @param in the {@linkplain InputStream} to read the encoded sequence from.
+	 * @return the decoding {@linkplain InputStream}.
+	 */
+	public InputStream wrap(InputStream in) {
+		return new DecodingInputStream(this, in);
+	}
+
+	private NumberFormatException invalidGroup(byte[] chars, int off, int len) {
+		NumberFormatException exception = null;
+
+		for (int cIndex = off; cIndex < off + len && exception == null; cIndex++) {
+			int c = chars[cIndex] & 0xff;
+
+			if (this.values[c] < 0) {
+				exception = invalidChar((char) c);
+			}
+		}
+		// All chars are valid, but the group itself is not (e.g. exceeds the group's value range)
+		return (exception != null ? exception
+				: invalidSequence(new String(chars, off, len, StandardCharsets.ISO_8859_1)));
+	}
+
+	private NumberFormatException invalidSequence(CharSequence s) {
+		return new NumberFormatException("Invalid " + this.name + " sequence: " + s);
+	}
+
+	private NumberFormatException invalidChar(char c) {
+		return new NumberFormatException("Invalid " + this.name + " char: " + c);
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+
+	private static final class EncodingOutputStream extends FilterOutputStream {
+
+		private final BinaryTextCodec codec;
+		private final byte[] pending;
+		private int pendingLength = 0;
+		private final byte[] chunk;
+		private boolean closed = false;
+
+		EncodingOutputStream(BinaryTextCodec codec, OutputStream out) {
+			super(out);
+			this.codec = codec;
+			this.pending = new byte[codec.groupBytes];
+			this.chunk = new byte[CHUNK_GROUPS * codec.groupChars];
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			ensureOpen();
+			this.pending[this.pendingLength++] = (byte) b;
+			if (this.pendingLength == this.pending.length) {
+				this.codec.encodeGroups(this.pending, 0, 1, this.chunk, 0);
+				this.out.write(this.chunk, 0, this.codec.groupChars);
+				this.pendingLength = 0;
+			}
+		}
+
+		@SuppressWarnings("null")
+		@Override
+		public void write(byte @Nullable [] b) throws IOException {
+			write(b, 0, b.length);
+		}
+
+		@Override
+		public void write(byte @Nullable [] b, int off, int len) throws IOException {
+			byte[] checkedB = Objects.requireNonNull(b);
+
+			Objects.checkFromIndexSize(off, len, checkedB.length);
+			ensureOpen();
+
+			int byteIndex = off;
+			int remaining = len;
+
+			// Complete any pending group first
+			while (this.pendingLength > 0 && remaining > 0) {
+				write(checkedB[byteIndex++]);
+				remaining--;
+			}
+
+			int groupBytes = this.codec.groupBytes;
+			int groupChars = this.codec.groupChars;
+
+			while (remaining >= groupBytes) {
+				int groups = Math.min(remaining / groupBytes, CHUNK_GROUPS);
+
+				this.codec.encodeGroups(checkedB, byteIndex, groups, this.chunk, 0);
+				this.out.write(this.chunk, 0, groups * groupChars);
+				byteIndex += groups * groupBytes;
+				remaining -= groups * groupBytes;
+			}
+			System.arraycopy(checkedB, byteIndex, this.pending, this.pendingLength, remaining);
+			this.pendingLength += remaining;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				this.closed = true;
+				try {
+					int chunkChars = this.codec.encode0(this.pending, 0, this.pendingLength, this.chunk, 0);
+
+					this.out.write(this.chunk, 0, chunkChars);
+				} finally {
+					super.close();
+				}
+			}
+		}
+
+		private void ensureOpen() throws IOException {
+			if (this.closed) {
+				throw new IOException("Stream closed");
+			}
+		}
+
+	}
+
+	private static final class DecodingInputStream extends InputStream {
+
+		private final BinaryTextCodec codec;
+		private final InputStream in;
+		private final byte[] chars;
+		private int charsLength = 0;
+		private final byte[] decoded;
+		private int decodedPosition = 0;
+		private int decodedLength = 0;
+		private boolean eof = false;
+
+		DecodingInputStream(BinaryTextCodec codec, InputStream in) {
+			this.codec = codec;
+			this.in = in;
+			this.chars = new byte[(CHUNK_GROUPS + 1) * codec.groupChars];
+			this.decoded = new byte[(CHUNK_GROUPS + 1) * codec.groupBytes];
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = -1;
+
+			if (this.decodedPosition < this.decodedLength || fill()) {
+				b = this.decoded[this.decodedPosition++] & 0xff;
+			}
+			return b;
+		}
+
+		@SuppressWarnings("null")
+		@Override
+		public int read(byte @Nullable [] b) throws IOException {
+			return read(b, 0, b.length);
+		}
+
+		@Override
+		public int read(byte @Nullable [] b, int off, int len) throws IOException {
+			byte[] checkedB = Objects.requireNonNull(b);
+
+			Objects.checkFromIndexSize(off, len, checkedB.length);
+
+			int read = 0;
+
+			if (len > 0) {
+				if (this.decodedPosition < this.decodedLength || fill()) {
+					read = Math.min(len, this.decodedLength - this.decodedPosition);
+					System.arraycopy(this.decoded, this.decodedPosition, checkedB, off, read);
+					this.decodedPosition += read;
+				} else {
+					read = -1;
+				}
+			}
+			return read;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return this.decodedLength - this.decodedPosition;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
+		}
+
+		private boolean fill() throws IOException {
+			int groupChars = this.codec.groupChars;
+
+			this.decodedPosition = 0;
+			this.decodedLength = 0;
+			while (this.decodedLength == 0 && !this.eof) {
+				int read = this.in.read(this.chars, this.charsLength, this.chars.length - this.charsLength);
+
+				try {
+					if (read < 0) {
+						this.eof = true;
+						// The final group may be partial and padded
+						this.decodedLength = this.codec.decode(this.chars, 0, this.charsLength, this.decoded, 0);
+						this.charsLength = 0;
+					} else {
+						this.charsLength += read;
+
+						// Always keep back the final chars as they may belong to the final (padded) group
+						int groups = (this.charsLength - 1) / groupChars;
+
+						if (groups > 0) {
+							int groupsLength = groups * groupChars;
+
+							this.decodedLength = this.codec.decode0(this.chars, 0, groupsLength, this.decoded, 0);
+							System.arraycopy(this.chars, groupsLength, this.chars, 0,
+									this.charsLength - groupsLength);
+							this.charsLength -= groupsLength;
+						}
+					}
+				} catch (NumberFormatException e) {
+					throw new IOException(e.getMessage(), e);
+				}
+			}
+			return this.decodedLength > 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Allocation-free decimal number parsing shared by {@linkplain IntegerParser} and {@linkplain LongParser}.
+ * <p>
+ * Numbers consist of an optional sign followed by at least one ASCII digit. Failures are either reported via a
+ * {@linkplain RuntimeException} or, if a {@linkplain ParsePosition} is submitted, via its error index. In the latter
+ * case no exception or message is created at all. Like values out of range, a {@code long} overflow is reported at
+ * the number's start index.
+ * </p>
+ * <p>
+ * ASCII encoded input is processed 8 digits at a time via {@linkplain SwarDigits} as long as the accumulated value
+ * cannot overflow. The remaining digits as well as any invalid chunk are handled by the scalar loop, which also
+ * determines the exact error index.
+ * </p>
+ */
+final class DecimalNumbers {
+
+	private static final long SWAR_FACTOR = 100000000L;
+
+	// Accumulated (negative) results for which another 8 digits can be added without any overflow check
+	private static final long SWAR_RESULT_LIMIT = -((Long.MAX_VALUE - (SWAR_FACTOR - 1)) / SWAR_FACTOR);
+
+	private DecimalNumbers() {
+		// Prevent instantiation
+	}
+
+	static long parse(CharSequence s, int start, int end, long min, long max, @Nullable ParsePosition status) {
+		Objects.checkFromToIndex(start, end, s.length());
+
+		int index = start;
+		boolean negative = false;
+		long limit = -Long.MAX_VALUE;
+
+		if (index < end) {
+			char first = s.charAt(index);
+
+			if (first == '-') {
+				negative = true;
+				limit = Long.MIN_VALUE;
+				index++;
+			} else if (first == '+') {
+				index++;
+			}
+		}
+		if (index == end) {
+			return syntaxError(s, start, end, index, status);
+		}
+
+		// Accumulate negatively to cover Long.MIN_VALUE (see Long#parseLong)
+		long multiplyLimit = limit / 10;
+		long result = 0;
+
+		while (index < end) {
+			int digit = s.charAt(index) - '0';
+
+			if (digit < 0 || digit > 9) {
+				return syntaxError(s, start, end, index, status);
+			}
+			if (result < multiplyLimit || result * 10 < limit + digit) {
+				return syntaxError(s, start, end, start, status);
+			}
+			result *= 10;
+			result -= digit;
+			index++;
+		}
+		return checkRange(negative ? result : -result, min, max, start, end, status);
+	}
+
+	static long parse(byte[] bs, int start, int end, long min, long max, @Nullable ParsePosition status) {
+		Objects.checkFromToIndex(start, end, bs.length);
+
+		int index = start;
+		boolean negative = false;
+		long limit = -Long.MAX_VALUE;
+
+		if (index < end) {
+			byte first = bs[index];
+
+			if (first == '-') {
+				negative = true;
+				limit = Long.MIN_VALUE;
+				index++;
+			} else if (first == '+') {
+				index++;
+			}
+		}
+		if (index == end) {
+			return syntaxError(bs, start, end, index, status);
+		}
+
+		long multiplyLimit = limit / 10;
+		long result = 0;
+
+		while (index < end) {
+			// 0 is no valid chunk and triggers the scalar fallback
+			long chunk = (end - index >= SwarDigits.DIGITS && result >= SWAR_RESULT_LIMIT
+					? SwarDigits.load(bs, index)
+					: 0);
+
+			if (SwarDigits.isDecimal(chunk)) {
+				result = result * SWAR_FACTOR - SwarDigits.decimalValue(chunk);
+				index += SwarDigits.DIGITS;
+			} else {
+				int digit = bs[index] - '0';
+
+				if (digit < 0 || digit > 9) {
+					return syntaxError(bs, start, end, index, status);
+				}
+				if (result < multiplyLimit || result * 10 < limit + digit) {
+					return syntaxError(bs, start, end, start, status);
+				}
+				result *= 10;
+				result -= digit;
+				index++;
+			}
+		}
+		return checkRange(negative ? result : -result, min, max, start, end, status);
+	}
+
+	static long parse(ByteBuffer buffer, int start, int end, long min, long max, @Nullable ParsePosition status) {
+		if (buffer.hasArray()) {
+			int offset = buffer.arrayOffset();
+
+			Objects.checkFromToIndex(start, end, buffer.limit());
+			return rebase(parse(buffer.array(), offset + start, offset + end, min, max, status), offset, status);
+		}
+		Objects.checkFromToIndex(start, end, buffer.limit());
+
+		int index = start;
+		boolean negative = false;
+		long limit = -Long.MAX_VALUE;
+
+		if (index < end) {
+			byte first = buffer.get(index);
+
+			if (first == '-') {
+				negative = true;
+				limit = Long.MIN_VALUE;
+				index++;
+			} else if (first == '+') {
+				index++;
+			}
+		}
+		if (index == end) {
+			return syntaxError(buffer, start, end, index, status);
+		}
+
+		long multiplyLimit = limit / 10;
+		long result = 0;
+
+		while (index < end) {
+			// 0 is no valid chunk and triggers the scalar fallback
+			long chunk = (end - index >= SwarDigits.DIGITS && result >= SWAR_RESULT_LIMIT
+					? SwarDigits.load(buffer, index)
+					: 0);
+
+			if (SwarDigits.isDecimal(chunk)) {
+				result = result * SWAR_FACTOR - SwarDigits.decimalValue(chunk);
+				index += SwarDigits.DIGITS;
+			} else {
+				int digit = buffer.get(index) - '0';
+
+				if (digit < 0 || digit > 9) {
+					return syntaxError(buffer, start, end, index, status);
+				}
+				if (result < multiplyLimit || result * 10 < limit + digit) {
+					return syntaxError(buffer, start, end, start, status);
+				}
+				result *= 10;
+				result -= digit;
+				index++;
+			}
+		}
+		return checkRange(negative ? result : -result, min, max, start, end, status);
+	}
+
+	private static long rebase(long value, int offset, @Nullable ParsePosition status) {
+		// Map array indices back to buffer indices
+		if (status != null) {
+			if (status.getErrorIndex() >= 0) {
+				status.setErrorIndex(status.getErrorIndex() - offset);
+			} else {
+				status.setIndex(status.getIndex() - offset);
+			}
+		}
+		return value;
+	}
+
+	private static long checkRange(long value, long min, long max, int start, int end,
+			@Nullable ParsePosition status) {
+		if (value < min || max < value) {
+			if (status == null) {
+				throw new IllegalArgumentException(
+						"Integer value " + value + " out of range [" + min + ", " + max + "]");
+			}
+			status.setErrorIndex(start);
+			return 0;
+		}
+		if (status != null) {
+			status.setIndex(end);
+			status.setErrorIndex(-1);
+		}
+		return value;
+	}
+
+	private static long syntaxError(CharSequence s, int start, int end, int errorIndex,
+			@Nullable ParsePosition status) {
+		if (status == null) {
+			throw invalidNumber(s.subSequence(start, end));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
+	private static long syntaxError(byte[] bs, int start, int end, int errorIndex, @Nullable ParsePosition status) {
+		if (status == null) {
+			throw invalidNumber(new String(bs, start, end - start, StandardCharsets.ISO_8859_1));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
+	private static long syntaxError(ByteBuffer buffer, int start, int end, int errorIndex,
+			@Nullable ParsePosition status) {
+		if (status == null) {
+			byte[] bs = new byte[end - start];
+
+			for (int index = start; index < end; index++) {
+				bs[index - start] = buffer.get(index);
+			}
+			throw invalidNumber(new String(bs, StandardCharsets.ISO_8859_1));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
+	private static NumberFormatException invalidNumber(CharSequence s) {
+		return new NumberFormatException("Invalid decimal number: " + s);
+	}
+
+}
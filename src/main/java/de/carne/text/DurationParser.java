@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.text.ParsePosition;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Parser for durations (e.g. {@code "250ms"} or {@code "1h 30m"}).
+ * <p>
+ * A duration consists of one or more components, each made up of a non-negative decimal integer, optional spaces and
+ * one of the units {@code d}, {@code h}, {@code m}, {@code s}, {@code ms}, {@code us} (or <code>&micro;s</code>) and
+ * {@code ns}. Components are separated by optional spaces and have to be given in descending unit order with every
+ * unit used at most once. A single number without any unit is interpreted in the parser's target
+ * {@linkplain TimeUnit}, hence plain values like {@code "250"} stay valid for millisecond based settings.
+ * </p>
+ * <p>
+ * The parse result is returned in the parser's target {@linkplain TimeUnit} (truncating any finer component).
+ * Durations exceeding {@linkplain Long#MAX_VALUE} nanoseconds (about 292 years) are reported as being out of range.
+ * </p>
+ */
+public class DurationParser implements Parser<Duration> {
+
+	private static final String[] UNITS = { "d", "h", "m", "s", "ms", "us", "\u00b5s", "ns" };
+
+	private static final long[] UNIT_NANOS = { TimeUnit.DAYS.toNanos(1), TimeUnit.HOURS.toNanos(1),
+			TimeUnit.MINUTES.toNanos(1), TimeUnit.SECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1),
+			TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MICROSECONDS.toNanos(1), 1l };
+
+	// Components have to be ordered by strictly ascending rank
+	private static final int[] UNIT_RANKS = { 0, 1, 2, 3, 4, 5, 5, 6 };
+
+	/**
+	 * Standard parser for any non-negative duration in milliseconds.
+	 */
+	public static final DurationParser MILLIS = new DurationParser(TimeUnit.MILLISECONDS);
+
+	/**
+	 * Standard parser for any non-negative duration in nanoseconds.
+	 */
+	public static final DurationParser NANOS = new DurationParser(TimeUnit.NANOSECONDS);
+
+	private final TimeUnit unit;
+	private final long min;
+	private final long max;
+
+	/**
+	 * Constructs a new {@linkplain DurationParser} accepting any non-negative duration.
+	 *
+	 * @param unit the {@linkplain TimeUnit} to return parse results in.
+	 */
+	public DurationParser(TimeUnit unit) {
+		this(unit, 0, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Constructs a new {@linkplain DurationParser} accepting durations of the given range.
+	 *
+	 * @param unit the {@linkplain TimeUnit} to return parse results and to define the range in.
+	 * @param min the minimum duration to accept.
+	 * @param max the maximum duration to accept.
+	 */
+	public DurationParser(TimeUnit unit, long min, long max) {
+		this.unit = unit;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Gets the {@linkplain TimeUnit} this parser returns its parse results in.
+	 *
+	 * @return the {@linkplain TimeUnit} this parser returns its parse results in.
+	 */
+	public TimeUnit getUnit() {
+		return this.unit;
+	}
+
+	@Override
+	public Duration parse(String s) {
+		return Duration.of(parseDuration(s), this.unit.toChronoUnit());
+	}
+
+	/**
+	 * Parses the submitted string.
+	 *
+	 * @param s the {@linkplain String} to parse.
+	 * @return the parsed duration (in this parser's {@linkplain TimeUnit}).
+	 * @throws NumberFormatException if the submitted string does not represent a valid duration.
+	 * @throws IllegalArgumentException if the parsed duration is out of range.
+	 */
+	public long parseDuration(String s) {
+		return parseDuration(s, 0, s.length());
+	}
+
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range.
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @return the parsed duration (in this parser's {@linkplain TimeUnit}).
+	 * @throws NumberFormatException if the submitted range does not represent a valid duration.
+	 * @throws IllegalArgumentException if the parsed duration is out of range.
+	 */
+	public long parseDuration(CharSequence s, int start, int end) {
+		return parseDuration0(s, start, end, null);
+	}
+
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range without throwing an exception on failure.
+	 * <p>
+	 * On success the status' index is set to {@code end} and its error index is reset to {@code -1}. On failure the
+	 * status' error index is set to the index of the offending character (or to {@code start}, if the parsed duration
+	 * is out of range) and {@code 0} is returned.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parsed duration (or {@code 0} if the parse operation failed).
+	 */
+	public long parseDuration(CharSequence s, int start, int end, ParsePosition status) {
+		return parseDuration0(s, start, end, status);
+	}
+
+	private long parseDuration0(CharSequence s, int start, int end, @Nullable ParsePosition status) {
+		Objects.checkFromToIndex(start, end, s.length());
+
+		long nanos = 0;
+		boolean overflow = false;
+		int lastRank = -1;
+		int index = start;
+
+		do {
+			int numberStart = index;
+			long value = 0;
+
+			while (index < end && isDigit(s.charAt(index))) {
+				int digit = s.charAt(index) - '0';
+
+				overflow = overflow || value > (Long.MAX_VALUE - digit) / 10;
+				value = value * 10 + digit;
+				index++;
+			}
+			if (index == numberStart) {
+				return syntaxError(s, start, end, index, status);
+			}
+			if (index == end && numberStart == start) {
+				// A single number without unit
+				return checkRange(s, start, end, value, overflow, status);
+			}
+			index = skipSpaces(s, index, end);
+
+			int unitEnd = unitEnd(s, index, end);
+			int unitIndex = TextParsing.match(UNITS, s, index, unitEnd);
+
+			if (unitIndex < 0 || UNIT_RANKS[unitIndex] <= lastRank) {
+				return syntaxError(s, start, end, index, status);
+			}
+			lastRank = UNIT_RANKS[unitIndex];
+			overflow = overflow || value > (Long.MAX_VALUE - nanos) / UNIT_NANOS[unitIndex];
+			nanos += value * UNIT_NANOS[unitIndex];
+			index = skipSpaces(s, unitEnd, end);
+			if (index == end && index > unitEnd) {
+				return syntaxError(s, start, end, unitEnd, status);
+			}
+		} while (index < end);
+		return checkRange(s, start, end, this.unit.convert(nanos, TimeUnit.NANOSECONDS), overflow, status);
+	}
+
+	private static boolean isDigit(char c) {
+		return '0' <= c && c <= '9';
+	}
+
+	private static int skipSpaces(CharSequence s, int start, int end) {
+		int index = start;
+
+		while (index < end && s.charAt(index) == ' ') {
+			index++;
+		}
+		return index;
+	}
+
+	private static int unitEnd(CharSequence s, int start, int end) {
+		int index = start;
+
+		while (index < end && s.charAt(index) != ' ' && !isDigit(s.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	private long checkRange(CharSequence s, int start, int end, long value, boolean overflow,
+			@Nullable ParsePosition status) {
+		if (overflow || value < this.min || this.max < value) {
+			if (status == null) {
+				throw new IllegalArgumentException("Duration " + s.subSequence(start, end) + " out of range ["
+						+ this.min + ", " + this.max + "] " + this.unit);
+			}
+			status.setErrorIndex(start);
+			return 0;
+		}
+		if (status != null) {
+			status.setIndex(end);
+			status.setErrorIndex(-1);
+		}
+		return value;
+	}
+
+	private static long syntaxError(CharSequence s, int start, int end, int errorIndex,
+			@Nullable ParsePosition status) {
+		if (status == null) {
+			throw new NumberFormatException("Invalid duration: " + s.subSequence(start, end));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
+}
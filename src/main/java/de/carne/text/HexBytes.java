@@ -16,11 +16,30 @@
  */
 package de.carne.text;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  * Utility class providing hex sequence conversion functions.
+ * <p>
+ * Conversion is table driven: every byte is encoded via a single lookup of its two hex chars and every pair of hex
+ * chars is decoded via two lookups followed by a single validity check. Besides the {@linkplain String} based
+ * functions, encode and decode functions operating on caller provided buffers are available to avoid any intermediate
+ * allocation.
+ * </p>
  */
 public final class HexBytes {
 
+	private static final int APPEND_CHUNK_SIZE = 256;
+
 	private HexBytes() {
 		// Prevent instantiation
 	}
@@ -44,13 +63,7 @@ public final class HexBytes {
 	 * @return the hex sequence representing the byte array.
 	 */
 	public static String toStringL(byte[] bs, int off, int len) {
-		StringBuilder buffer = new StringBuilder(len);
-
-		for (int byteIndex = 0; byteIndex < len; byteIndex++) {
-			buffer.append(HexChars.LOWER_CASE[((bs[off + byteIndex] >> 4) & 0xf)]);
-			buffer.append(HexChars.LOWER_CASE[(bs[off + byteIndex] & 0xf)]);
-		}
-		return buffer.toString();
+		return toString(HexChars.LOWER_CASE_PAIRS, bs, off, len);
 	}
 
 	/**
@@ -72,13 +85,214 @@ public final class HexBytes {
 	 * @return the hex sequence representing the byte array.
 	 */
 	public static String toStringU(byte[] bs, int off, int len) {
-		StringBuilder buffer = new StringBuilder(len);
+		return toString(HexChars.UPPER_CASE_PAIRS, bs, off, len);
+	}
+
+	private static String toString(byte[] pairs, byte[] bs, int off, int len) {
+		Objects.checkFromIndexSize(off, len, bs.length);
+
+		byte[] chars = new byte[2 * len];
+
+		encode(pairs, bs, off, len, chars, 0);
+		// Latin-1 chars are taken over by the String without any further decoding
+		return new String(chars, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Encodes a byte array to a lower case hex sequence stored in a char array.
+	 *
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @param dst the char array to store the hex sequence into (must provide space for {@code 2 * len} chars).
+	 * @param dstOff the position of the first char to store.
+	 * @return the position following the last stored char.
+	 */
+	public static int encodeL(byte[] bs, int off, int len, char[] dst, int dstOff) {
+		return encode(HexChars.LOWER_CASE_PAIRS, bs, off, len, dst, dstOff);
+	}
+
+	/**
+	 * Encodes a byte array to an upper case hex sequence stored in a char array.
+	 *
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @param dst the char array to store the hex sequence into (must provide space for {@code 2 * len} chars).
+	 * @param dstOff the position of the first char to store.
+	 * @return the position following the last stored char.
+	 */
+	public static int encodeU(byte[] bs, int off, int len, char[] dst, int dstOff) {
+		return encode(HexChars.UPPER_CASE_PAIRS, bs, off, len, dst, dstOff);
+	}
+
+	private static int encode(byte[] pairs, byte[] bs, int off, int len, char[] dst, int dstOff) {
+		Objects.checkFromIndexSize(off, len, bs.length);
+		Objects.checkFromIndexSize(dstOff, 2 * len, dst.length);
+
+		int dstIndex = dstOff;
+
+		for (int byteIndex = off; byteIndex < off + len; byteIndex++) {
+			int pairIndex = (bs[byteIndex] & 0xff) << 1;
+
+			dst[dstIndex++] = (char) pairs[pairIndex];
+			dst[dstIndex++] = (char) pairs[pairIndex + 1];
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Encodes a byte array to a lower case hex sequence stored as ASCII (Latin-1) chars in a byte array.
+	 *
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @param dst the byte array to store the hex sequence into (must provide space for {@code 2 * len} chars).
+	 * @param dstOff the position of the first char to store.
+	 * @return the position following the last stored char.
+	 */
+	public static int encodeL(byte[] bs, int off, int len, byte[] dst, int dstOff) {
+		return encode(HexChars.LOWER_CASE_PAIRS, bs, off, len, dst, dstOff);
+	}
+
+	/**
+	 * Encodes a byte array to an upper case hex sequence stored as ASCII (Latin-1) chars in a byte array.
+	 *
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @param dst the byte array to store the hex sequence into (must provide space for {@code 2 * len} chars).
+	 * @param dstOff the position of the first char to store.
+	 * @return the position following the last stored char.
+	 */
+	public static int encodeU(byte[] bs, int off, int len, byte[] dst, int dstOff) {
+		return encode(HexChars.UPPER_CASE_PAIRS, bs, off, len, dst, dstOff);
+	}
+
+	private static int encode(byte[] pairs, byte[] bs, int off, int len, byte[] dst, int dstOff) {
+		Objects.checkFromIndexSize(off, len, bs.length);
+		Objects.checkFromIndexSize(dstOff, 2 * len, dst.length);
+
+		int dstIndex = dstOff;
+
+		for (int byteIndex = off; byteIndex < off + len; byteIndex++) {
+			int pairIndex = (bs[byteIndex] & 0xff) << 1;
+
+			dst[dstIndex++] = pairs[pairIndex];
+			dst[dstIndex++] = pairs[pairIndex + 1];
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Encodes the remaining bytes of a {@linkplain ByteBuffer} to a lower case hex sequence stored as ASCII (Latin-1)
+	 * chars in another {@linkplain ByteBuffer}.
+	 * <p>
+	 * On return the source buffer's position is equal to its limit and the destination buffer's position has been
+	 * advanced by the number of stored chars.
+	 * </p>
+	 *
+	 * @param src the {@linkplain ByteBuffer} to encode.
+	 * @param dst the {@linkplain ByteBuffer} to store the hex sequence into.
+	 * @throws BufferOverflowException if the destination buffer provides not enough space (in which case neither
+	 * buffer is modified).
+	 */
+	public static void encodeL(ByteBuffer src, ByteBuffer dst) {
+		encode(HexChars.LOWER_CASE_PAIRS, src, dst);
+	}
+
+	/**
+	 * Encodes the remaining bytes of a {@linkplain ByteBuffer} to an upper case hex sequence stored as ASCII (Latin-1)
+	 * chars in another {@linkplain ByteBuffer}.
+	 * <p>
+	 * On return the source buffer's position is equal to its limit and the destination buffer's position has been
+	 * advanced by the number of stored chars.
+	 * </p>
+	 *
+	 * @param src the {@linkplain ByteBuffer} to encode.
+	 * @param dst the {@linkplain ByteBuffer} to store the hex sequence into.
+	 * @throws BufferOverflowException if the destination buffer provides not enough space (in which case neither
+	 * buffer is modified).
+	 */
+	public static void encodeU(ByteBuffer src, ByteBuffer dst) {
+		encode(HexChars.UPPER_CASE_PAIRS, src, dst);
+	}
+
+	private static void encode(byte[] pairs, ByteBuffer src, ByteBuffer dst) {
+		int len = src.remaining();
+
+		if (dst.remaining() < 2 * len) {
+			throw new BufferOverflowException();
+		}
+		if (src.hasArray() && dst.hasArray()) {
+			int srcPosition = src.position();
+			int dstPosition = dst.position();
+
+			encode(pairs, src.array(), src.arrayOffset() + srcPosition, len, dst.array(),
+					dst.arrayOffset() + dstPosition);
+			src.position(srcPosition + len);
+			dst.position(dstPosition + 2 * len);
+		} else {
+			while (src.hasRemaining()) {
+				int pairIndex = (src.get() & 0xff) << 1;
+
+				dst.put(pairs[pairIndex]);
+				dst.put(pairs[pairIndex + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Appends the lower case hex sequence of a byte array to an {@linkplain Appendable}.
+	 *
+	 * @param a the {@linkplain Appendable} to append to.
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @throws IOException if an I/O error occurs while appending.
+	 */
+	public static void appendL(Appendable a, byte[] bs, int off, int len) throws IOException {
+		append(HexChars.LOWER_CASE_PAIRS, a, bs, off, len);
+	}
+
+	/**
+	 * Appends the upper case hex sequence of a byte array to an {@linkplain Appendable}.
+	 *
+	 * @param a the {@linkplain Appendable} to append to.
+	 * @param bs the byte array to encode.
+	 * @param off the first byte to encode.
+	 * @param len the number of bytes to encode.
+	 * @throws IOException if an I/O error occurs while appending.
+	 */
+	public static void appendU(Appendable a, byte[] bs, int off, int len) throws IOException {
+		append(HexChars.UPPER_CASE_PAIRS, a, bs, off, len);
+	}
+
+	private static void append(byte[] pairs, Appendable a, byte[] bs, int off, int len) throws IOException {
+		Objects.checkFromIndexSize(off, len, bs.length);
+
+		char[] chunk = new char[2 * Math.min(len, APPEND_CHUNK_SIZE)];
+		int byteIndex = off;
+		int remaining = len;
+
+		if (a instanceof StringBuilder) {
+			((StringBuilder) a).ensureCapacity(((StringBuilder) a).length() + 2 * len);
+		}
+		while (remaining > 0) {
+			int chunkLen = Math.min(remaining, APPEND_CHUNK_SIZE);
+			int chunkChars = encode(pairs, bs, byteIndex, chunkLen, chunk, 0);
 
-		for (int byteIndex = 0; byteIndex < len; byteIndex++) {
-			buffer.append(HexChars.UPPER_CASE[((bs[off + byteIndex] >> 4) & 0xf)]);
-			buffer.append(HexChars.UPPER_CASE[(bs[off + byteIndex] & 0xf)]);
+			// Avoid the char by char append of a generic CharSequence where possible
+			if (a instanceof StringBuilder) {
+				((StringBuilder) a).append(chunk, 0, chunkChars);
+			} else if (a instanceof Writer) {
+				((Writer) a).write(chunk, 0, chunkChars);
+			} else {
+				a.append(CharBuffer.wrap(chunk, 0, chunkChars));
+			}
+			byteIndex += chunkLen;
+			remaining -= chunkLen;
 		}
-		return buffer.toString();
 	}
 
 	/**
@@ -96,18 +310,250 @@ public final class HexBytes {
 		}
 
 		byte[] value = new byte[sLength / 2];
-		int cIndex = 0;
 
-		while (cIndex < sLength) {
-			int bIndex = cIndex / 2;
-			int valueH = valueOf(s.charAt(cIndex++));
-			int valueL = valueOf(s.charAt(cIndex++));
+		decode(s, 0, sLength, value, 0);
+		return value;
+	}
+
+	/**
+	 * Decodes a hex sequence into a byte array.
+	 *
+	 * @param s the {@linkplain CharSequence} containing the hex sequence to decode.
+	 * @param start the position of the first char to decode.
+	 * @param end the position following the last char to decode.
+	 * @param dst the byte array to store the decoded bytes into (must provide space for {@code (end - start) / 2}
+	 * bytes).
+	 * @param dstOff the position of the first byte to store.
+	 * @return the position following the last stored byte.
+	 * @throws NumberFormatException if the hex sequence is invalid.
+	 */
+	public static int decode(CharSequence s, int start, int end, byte[] dst, int dstOff) {
+		Objects.checkFromToIndex(start, end, s.length());
+		if (((end - start) % 2) != 0) {
+			throw new NumberFormatException("Invalid hex sequence: " + s.subSequence(start, end));
+		}
+		Objects.checkFromIndexSize(dstOff, (end - start) / 2, dst.length);
+
+		int dstIndex = dstOff;
+
+		for (int cIndex = start; cIndex < end; cIndex += 2) {
+			char hiChar = s.charAt(cIndex);
+			char loChar = s.charAt(cIndex + 1);
+			int value = HexChars.value(hiChar, loChar);
 
-			value[bIndex] = (byte) ((valueH << 4) | valueL);
+			if (value < 0) {
+				throw invalidHexChar(valueOf0(hiChar) < 0 ? hiChar : loChar);
+			}
+			dst[dstIndex++] = (byte) value;
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Decodes a hex sequence stored as ASCII (Latin-1) chars in a byte array.
+	 * <p>
+	 * The sequence is decoded 8 chars at a time as long as possible.
+	 * </p>
+	 *
+	 * @param chars the byte array containing the hex sequence to decode.
+	 * @param off the position of the first char to decode.
+	 * @param len the number of chars to decode.
+	 * @param dst the byte array to store the decoded bytes into (must provide space for {@code len / 2} bytes).
+	 * @param dstOff the position of the first byte to store.
+	 * @return the position following the last stored byte.
+	 * @throws NumberFormatException if the hex sequence is invalid.
+	 */
+	public static int decode(byte[] chars, int off, int len, byte[] dst, int dstOff) {
+		Objects.checkFromIndexSize(off, len, chars.length);
+		if ((len % 2) != 0) {
+			throw new NumberFormatException(
+					"Invalid hex sequence: " + new String(chars, off, len, StandardCharsets.ISO_8859_1));
+		}
+		Objects.checkFromIndexSize(dstOff, len / 2, dst.length);
+
+		int end = off + len;
+		int dstIndex = dstOff;
+		int cIndex = off;
+
+		while (cIndex < end) {
+			// 0 is no valid chunk and triggers the scalar fallback
+			long chunk = (end - cIndex >= SwarDigits.DIGITS ? SwarDigits.load(chars, cIndex) : 0);
+
+			if (SwarDigits.isHex(chunk)) {
+				int value = SwarDigits.hexValue(chunk);
+
+				dst[dstIndex++] = (byte) (value >>> 24);
+				dst[dstIndex++] = (byte) (value >>> 16);
+				dst[dstIndex++] = (byte) (value >>> 8);
+				dst[dstIndex++] = (byte) value;
+				cIndex += SwarDigits.DIGITS;
+			} else {
+				int hiChar = chars[cIndex] & 0xff;
+				int loChar = chars[cIndex + 1] & 0xff;
+				int value = HexChars.value(hiChar, loChar);
+
+				if (value < 0) {
+					throw invalidHexChar((char) (valueOf0(hiChar) < 0 ? hiChar : loChar));
+				}
+				dst[dstIndex++] = (byte) value;
+				cIndex += 2;
+			}
+		}
+		return dstIndex;
+	}
+
+	/**
+	 * Parses an unsigned hex number.
+	 * <p>
+	 * The number may consist of any number of leading zeros followed by up to 16 significant hex chars of any case.
+	 * Neither a sign nor a prefix is accepted.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} containing the hex number to parse.
+	 * @param start the index of the first char to parse.
+	 * @param end the index following the last char to parse.
+	 * @return the parsed number (numbers above {@linkplain Long#MAX_VALUE} are returned as negative values).
+	 * @throws NumberFormatException if the hex number is invalid or exceeds 64 bit.
+	 */
+	public static long parseLong(CharSequence s, int start, int end) {
+		return parseLong0(s, start, end, null);
+	}
+
+	/**
+	 * Parses an unsigned hex number without throwing an exception on failure.
+	 * <p>
+	 * See {@linkplain #parseLong(CharSequence, int, int)} for the accepted syntax. On success the status' index is
+	 * set to {@code end} and its error index is reset to {@code -1}. On failure the status' error index is set to the
+	 * index of the offending char (or to {@code start}, if the number exceeds 64 bit) and {@code 0} is returned.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} containing the hex number to parse.
+	 * @param start the index of the first char to parse.
+	 * @param end the index following the last char to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parsed number (or {@code 0} if the parse operation failed).
+	 */
+	public static long parseLong(CharSequence s, int start, int end, ParsePosition status) {
+		return parseLong0(s, start, end, status);
+	}
+
+	private static long parseLong0(CharSequence s, int start, int end, @Nullable ParsePosition status) {
+		Objects.checkFromToIndex(start, end, s.length());
+		if (start == end) {
+			return parseError(s, start, end, start, status);
+		}
+
+		long value = 0;
+
+		for (int index = start; index < end; index++) {
+			int digit = valueOf0(s.charAt(index));
+
+			if (digit < 0) {
+				return parseError(s, start, end, index, status);
+			}
+			if ((value >>> 60) != 0) {
+				return parseError(s, start, end, start, status);
+			}
+			value = (value << 4) | digit;
+		}
+		return parseSuccess(value, end, status);
+	}
+
+	/**
+	 * Parses an unsigned hex number stored as ASCII (Latin-1) chars in a byte array.
+	 * <p>
+	 * See {@linkplain #parseLong(CharSequence, int, int)} for the accepted syntax. The number is parsed 8 chars at a
+	 * time as long as possible.
+	 * </p>
+	 *
+	 * @param chars the byte array containing the hex number to parse.
+	 * @param start the index of the first char to parse.
+	 * @param end the index following the last char to parse.
+	 * @return the parsed number (numbers above {@linkplain Long#MAX_VALUE} are returned as negative values).
+	 * @throws NumberFormatException if the hex number is invalid or exceeds 64 bit.
+	 */
+	public static long parseLong(byte[] chars, int start, int end) {
+		return parseLong0(chars, start, end, null);
+	}
+
+	/**
+	 * Parses an unsigned hex number stored as ASCII (Latin-1) chars in a byte array without throwing an exception on
+	 * failure.
+	 * <p>
+	 * See {@linkplain #parseLong(CharSequence, int, int, ParsePosition)} for the status handling.
+	 * </p>
+	 *
+	 * @param chars the byte array containing the hex number to parse.
+	 * @param start the index of the first char to parse.
+	 * @param end the index following the last char to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parsed number (or {@code 0} if the parse operation failed).
+	 */
+	public static long parseLong(byte[] chars, int start, int end, ParsePosition status) {
+		return parseLong0(chars, start, end, status);
+	}
+
+	private static long parseLong0(byte[] chars, int start, int end, @Nullable ParsePosition status) {
+		Objects.checkFromToIndex(start, end, chars.length);
+		if (start == end) {
+			return parseError(chars, start, end, start, status);
+		}
+
+		long value = 0;
+		int index = start;
+
+		while (index < end) {
+			// 0 is no valid chunk and triggers the scalar fallback
+			long chunk = (end - index >= SwarDigits.DIGITS && (value >>> 32) == 0
+					? SwarDigits.load(chars, index)
+					: 0);
+
+			if (SwarDigits.isHex(chunk)) {
+				value = (value << 32) | (SwarDigits.hexValue(chunk) & 0xffffffffL);
+				index += SwarDigits.DIGITS;
+			} else {
+				int digit = valueOf0(chars[index] & 0xff);
+
+				if (digit < 0) {
+					return parseError(chars, start, end, index, status);
+				}
+				if ((value >>> 60) != 0) {
+					return parseError(chars, start, end, start, status);
+				}
+				value = (value << 4) | digit;
+				index++;
+			}
+		}
+		return parseSuccess(value, end, status);
+	}
+
+	private static long parseSuccess(long value, int end, @Nullable ParsePosition status) {
+		if (status != null) {
+			status.setIndex(end);
+			status.setErrorIndex(-1);
 		}
 		return value;
 	}
 
+	private static long parseError(CharSequence s, int start, int end, int errorIndex,
+			@Nullable ParsePosition status) {
+		if (status == null) {
+			throw new NumberFormatException("Invalid hex number: " + s.subSequence(start, end));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
+	private static long parseError(byte[] chars, int start, int end, int errorIndex,
+			@Nullable ParsePosition status) {
+		if (status == null) {
+			throw new NumberFormatException(
+					"Invalid hex number: " + new String(chars, start, end - start, StandardCharsets.ISO_8859_1));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
 	/**
 	 * Converts a hex character to a byte value.
 	 *
@@ -116,18 +562,20 @@ public final class HexBytes {
 	 * @throws NumberFormatException if the hex character is invalid.
 	 */
 	public static int valueOf(char c) {
-		int value;
-
-		if ('0' <= c && c <= '9') {
-			value = c - '0';
-		} else if ('a' <= c && c <= 'f') {
-			value = 10 + (c - 'a');
-		} else if ('A' <= c && c <= 'F') {
-			value = 10 + (c - 'A');
-		} else {
-			throw new NumberFormatException("Invalid hex char: " + c);
+		int value = valueOf0(c);
+
+		if (value < 0) {
+			throw invalidHexChar(c);
 		}
 		return value;
 	}
 
+	private static int valueOf0(int c) {
+		return (c < 0x80 ? HexChars.VALUES[c] : -1);
+	}
+
+	private static NumberFormatException invalidHexChar(char c) {
+		return new NumberFormatException("Invalid hex char: " + c);
+	}
+
 }
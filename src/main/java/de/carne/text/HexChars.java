@@ -26,4 +26,45 @@ final class HexChars {
 
 	static final char[] LOWER_CASE = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
 
+	// Two hex chars per byte value (index: 2 * (b & 0xff)) as Latin-1 bytes
+	static final byte[] UPPER_CASE_PAIRS = pairs(UPPER_CASE);
+
+	static final byte[] LOWER_CASE_PAIRS = pairs(LOWER_CASE);
+
+	// Value of every ASCII char (-1 if it is not a hex char)
+	static final byte[] VALUES = values();
+
+	private static byte[] pairs(char[] chars) {
+		byte[] pairs = new byte[512];
+
+		for (int b = 0; b < 256; b++) {
+			pairs[2 * b] = (byte) chars[b >> 4];
+			pairs[2 * b + 1] = (byte) chars[b & 0xf];
+		}
+		return pairs;
+	}
+
+	private static byte[] values() {
+		byte[] values = new byte[128];
+
+		for (int c = 0; c < values.length; c++) {
+			values[c] = -1;
+		}
+		for (int value = 0; value < 16; value++) {
+			values[UPPER_CASE[value]] = (byte) value;
+			values[LOWER_CASE[value]] = (byte) value;
+		}
+		return values;
+	}
+
+	/*
+	 * Gets the byte value of two hex chars (negative, if any of the chars is invalid).
+	 */
+	static int value(int hiChar, int loChar) {
+		// Non-ASCII chars are mapped to an arbitrary (invalid) table entry and flagged via the sign bit
+		int value = (VALUES[hiChar & 0x7f] << 4) | VALUES[loChar & 0x7f];
+
+		return ((hiChar | loChar) < 0x80 ? value : -1);
+	}
+
 }
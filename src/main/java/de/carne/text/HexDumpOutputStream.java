@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain OutputStream} implementation rendering the written data as a classic hex dump.
+ * <p>
+ * Every output line consists of the offset of the line's first byte, the line's bytes formatted via the configured
+ * {@linkplain HexFormat} (including its case, prefix and suffix settings) and an ASCII gutter:
+ * </p>
+ *
+ * <pre>
+ * 00000000  48 65 6c 6c 6f 2c 20 57  6f 72 6c 64 21 0a 00 01  |Hello, World!...|
+ * </pre>
+ * <p>
+ * Lines are rendered into a reusable line buffer as soon as they are complete, hence arbitrary large inputs can be
+ * dumped without materializing them. An incomplete last line is emitted on {@linkplain #close()}. If collapsing is
+ * enabled, a run of lines identical to their predecessor is replaced by a single {@code *} line and the total number
+ * of dumped bytes is emitted on close.
+ * </p>
+ */
+public class HexDumpOutputStream extends OutputStream {
+
+	/**
+	 * The default number of bytes per line.
+	 */
+	public static final int DEFAULT_BYTES_PER_LINE = 16;
+
+	private static final int READ_WINDOW_SIZE = 1 << 16;
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	private final Writer out;
+	private final HexFormat format;
+	private final boolean collapse;
+	private byte[] lineBytes;
+	private byte[] previousLineBytes;
+	private int lineLength = 0;
+	private boolean previousLineValid = false;
+	private boolean collapsing = false;
+	private final char[] lineBuffer;
+	private @Nullable ByteBuffer readWindow = null;
+	private long offset = 0;
+	private boolean closed = false;
+
+	/**
+	 * Constructs a new {@linkplain HexDumpOutputStream} instance using {@linkplain HexFormat#LOWER_CASE},
+	 * {@value #DEFAULT_BYTES_PER_LINE} bytes per line and no collapsing.
+	 *
+	 * @param out the {@linkplain Writer} to emit the hex dump to.
+	 */
+	public HexDumpOutputStream(Writer out) {
+		this(out, HexFormat.LOWER_CASE, DEFAULT_BYTES_PER_LINE, false);
+	}
+
+	/**
+	 * Constructs a new {@linkplain HexDumpOutputStream} instance.
+	 *
+	 * @param out the {@linkplain Writer} to emit the hex dump to.
+	 * @param format the {@linkplain HexFormat} to use for byte formatting.
+	 * @param bytesPerLine the number of bytes per line.
+	 * @param collapse whether to collapse identical lines ({@code true}) or not ({@code false}).
+	 */
+	public HexDumpOutputStream(Writer out, HexFormat format, int bytesPerLine, boolean collapse) {
+		if (bytesPerLine <= 0) {
+			throw new IllegalArgumentException("Invalid bytes per line: " + bytesPerLine);
+		}
+		this.out = out;
+		this.format = format;
+		this.collapse = collapse;
+		this.lineBytes = new byte[bytesPerLine];
+		this.previousLineBytes = new byte[bytesPerLine];
+		// offset + 2 spaces + byte columns (incl. group space) + space + gutter + line separator
+		this.lineBuffer = new char[16 + 2 + bytesPerLine * (format.byteFormatLength() + 1) + 1 + 1 + bytesPerLine + 2
+				+ LINE_SEPARATOR.length()];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		this.lineBytes[this.lineLength++] = (byte) b;
+		if (this.lineLength == this.lineBytes.length) {
+			emitLine();
+		}
+	}
+
+	@SuppressWarnings("null")
+	@Override
+	public void write(byte @Nullable [] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte @Nullable [] b, int off, int len) throws IOException {
+		byte[] checkedB = Objects.requireNonNull(b);
+
+		Objects.checkFromIndexSize(off, len, checkedB.length);
+		ensureOpen();
+
+		int writeOff = off;
+		int remaining = len;
+
+		while (remaining > 0) {
+			int chunk = Math.min(remaining, this.lineBytes.length - this.lineLength);
+
+			System.arraycopy(checkedB, writeOff, this.lineBytes, this.lineLength, chunk);
+			this.lineLength += chunk;
+			writeOff += chunk;
+			remaining -= chunk;
+			if (this.lineLength == this.lineBytes.length) {
+				emitLine();
+			}
+		}
+	}
+
+	/**
+	 * Writes the remaining bytes of a {@linkplain ByteBuffer} to this stream.
+	 *
+	 * @param src the {@linkplain ByteBuffer} to write.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void write(ByteBuffer src) throws IOException {
+		ensureOpen();
+		while (src.hasRemaining()) {
+			int chunk = Math.min(src.remaining(), this.lineBytes.length - this.lineLength);
+
+			src.get(this.lineBytes, this.lineLength, chunk);
+			this.lineLength += chunk;
+			if (this.lineLength == this.lineBytes.length) {
+				emitLine();
+			}
+		}
+	}
+
+	/**
+	 * Writes a region of a {@linkplain FileChannel} to this stream.
+	 * <p>
+	 * The channel is read window by window into a reusable direct buffer (instead of mapping it, as a mapping is only
+	 * released once it has been garbage collected). The channel's position is not modified.
+	 * </p>
+	 *
+	 * @param channel the {@linkplain FileChannel} to read from.
+	 * @param position the position of the first byte to write.
+	 * @param count the maximum number of bytes to write.
+	 * @return the number of written bytes (which is less than {@code count} if the channel's end is reached).
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public long transferFrom(FileChannel channel, long position, long count) throws IOException {
+		if (position < 0 || count < 0) {
+			throw new IllegalArgumentException("Invalid channel region: " + position + "/" + count);
+		}
+		ensureOpen();
+
+		long size = channel.size();
+		// Avoid position + count, as it overflows for count values like Long.MAX_VALUE
+		long end = (position >= size ? position : position + Math.min(count, size - position));
+		ByteBuffer window = this.readWindow;
+
+		if (window == null) {
+			window = ByteBuffer.allocateDirect(READ_WINDOW_SIZE);
+			this.readWindow = window;
+		}
+
+		long readPosition = position;
+
+		while (readPosition < end) {
+			window.clear();
+			window.limit((int) Math.min(end - readPosition, window.capacity()));
+
+			int read = channel.read(window, readPosition);
+
+			// Stop if the channel has been truncated in the meantime
+			if (read < 0) {
+				break;
+			}
+			window.flip();
+			write(window);
+			readPosition += read;
+		}
+		return readPosition - position;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!this.closed) {
+			try {
+				if (this.lineLength > 0) {
+					emitLine();
+				}
+				if (this.collapse && this.offset > 0) {
+					int lineIndex = formatOffset(0, this.offset);
+
+					this.out.write(this.lineBuffer, 0, formatLineSeparator(lineIndex));
+				}
+			} finally {
+				this.closed = true;
+				this.out.close();
+			}
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private void emitLine() throws IOException {
+		if (this.collapse && this.previousLineValid && this.lineLength == this.lineBytes.length
+				&& Arrays.equals(this.lineBytes, this.previousLineBytes)) {
+			if (!this.collapsing) {
+				this.lineBuffer[0] = '*';
+				this.out.write(this.lineBuffer, 0, formatLineSeparator(1));
+				this.collapsing = true;
+			}
+		} else {
+			this.out.write(this.lineBuffer, 0, formatLine());
+			this.collapsing = false;
+		}
+		this.offset += this.lineLength;
+
+		byte[] swapBytes = this.previousLineBytes;
+
+		this.previousLineBytes = this.lineBytes;
+		this.lineBytes = swapBytes;
+		this.previousLineValid = true;
+		this.lineLength = 0;
+	}
+
+	private int formatLine() {
+		int bytesPerLine = this.lineBytes.length;
+		int groupIndex = bytesPerLine / 2;
+		int byteFormatLength = this.format.byteFormatLength();
+		int lineIndex = formatOffset(0, this.offset);
+
+		this.lineBuffer[lineIndex++] = ' ';
+		for (int byteIndex = 0; byteIndex < bytesPerLine; byteIndex++) {
+			if (byteIndex == groupIndex) {
+				this.lineBuffer[lineIndex++] = ' ';
+			}
+			this.lineBuffer[lineIndex++] = ' ';
+			if (byteIndex < this.lineLength) {
+				lineIndex = this.format.format(this.lineBuffer, lineIndex, this.lineBytes[byteIndex]);
+			} else {
+				Arrays.fill(this.lineBuffer, lineIndex, lineIndex + byteFormatLength, ' ');
+				lineIndex += byteFormatLength;
+			}
+		}
+		this.lineBuffer[lineIndex++] = ' ';
+		this.lineBuffer[lineIndex++] = ' ';
+		this.lineBuffer[lineIndex++] = '|';
+		for (int byteIndex = 0; byteIndex < this.lineLength; byteIndex++) {
+			int b = this.lineBytes[byteIndex] & 0xff;
+
+			this.lineBuffer[lineIndex++] = (0x20 <= b && b < 0x7f ? (char) b : '.');
+		}
+		this.lineBuffer[lineIndex++] = '|';
+		return formatLineSeparator(lineIndex);
+	}
+
+	private int formatOffset(int lineIndex, long lineOffset) {
+		// Offsets are formatted with 8 digits as long as they fit and with 16 digits otherwise
+		int digits = ((lineOffset >>> 32) != 0 ? 16 : 8);
+		int offsetIndex = lineIndex;
+
+		for (int digit = digits - 1; digit >= 0; digit--) {
+			this.lineBuffer[offsetIndex++] = this.format.hexChar((int) ((lineOffset >>> (digit * 4)) & 0xf));
+		}
+		return offsetIndex;
+	}
+
+	private int formatLineSeparator(int lineIndex) {
+		LINE_SEPARATOR.getChars(0, LINE_SEPARATOR.length(), this.lineBuffer, lineIndex);
+		return lineIndex + LINE_SEPARATOR.length();
+	}
+
+}
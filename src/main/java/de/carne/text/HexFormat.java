@@ -16,13 +16,24 @@
  */
 package de.carne.text;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * Basic hex formatting support.
+ * <p>
+ * Instances are immutable and hence can be shared between threads. The rendered tokens (prefix, hex digits and
+ * suffix) of all 256 byte values are cached per instance on first bulk use, turning bulk byte formatting into simple
+ * table copies.
+ * </p>
  */
 public final class HexFormat {
 
+	private static final char[] NO_CHARS = new char[0];
+
 	/**
 	 * Upper case {@linkplain HexFormat} instance.
 	 */
@@ -34,9 +45,14 @@ public final class HexFormat {
 	public static final HexFormat LOWER_CASE = new HexFormat(false);
 
 	private final char[] hexChars;
+	private final byte[] hexPairs;
 	private final @Nullable String prefix;
 	private final @Nullable String suffix;
 	private final int baseBufferSize;
+	private final char[] prefixChars;
+	private final char[] suffixChars;
+	// Rendered byte tokens (separator, prefix, hex digits and suffix) indexed by byte value (created on demand)
+	private volatile char @Nullable [] byteTokens = null;
 
 	/**
 	 * Constructs a {@linkplain HexFormat} instance.
@@ -56,10 +72,13 @@ public final class HexFormat {
 	 */
 	public HexFormat(boolean upperCase, @Nullable String prefix, @Nullable String suffix) {
 		this.hexChars = (upperCase ? HexChars.UPPER_CASE : HexChars.LOWER_CASE);
+		this.hexPairs = (upperCase ? HexChars.UPPER_CASE_PAIRS : HexChars.LOWER_CASE_PAIRS);
 		this.prefix = prefix;
 		this.suffix = suffix;
 		this.baseBufferSize = (this.prefix != null ? this.prefix.length() : 0)
 				+ (this.suffix != null ? this.suffix.length() : 0);
+		this.prefixChars = (prefix != null ? prefix.toCharArray() : NO_CHARS);
+		this.suffixChars = (suffix != null ? suffix.toCharArray() : NO_CHARS);
 	}
 
 	/**
@@ -80,6 +99,13 @@ public final class HexFormat {
 	 * @return the format result.
 	 */
 	public StringBuilder format(StringBuilder buffer, byte b) {
+		char[] checkedByteTokens = this.byteTokens;
+
+		if (checkedByteTokens != null) {
+			int tokenLength = byteFormatLength();
+
+			return buffer.append(checkedByteTokens, (b & 0xff) * (tokenLength + 1) + 1, tokenLength);
+		}
 		if (this.prefix != null) {
 			buffer.append(this.prefix);
 		}
@@ -98,7 +124,7 @@ public final class HexFormat {
 	 * @return the format result.
 	 */
 	public String format(byte[] bs) {
-		return format(new StringBuilder(((this.baseBufferSize + 3) * bs.length) - 1), bs).toString();
+		return format(bs, 0, bs.length);
 	}
 
 	/**
@@ -121,7 +147,7 @@ public final class HexFormat {
 	 * @return the format result.
 	 */
 	public String format(byte[] bs, int off, int len) {
-		return format(new StringBuilder(((this.baseBufferSize + 3) * len) - 1), bs, off, len).toString();
+		return new String(formatBytes(bs, off, len));
 	}
 
 	/**
@@ -134,13 +160,25 @@ public final class HexFormat {
 	 * @return the format result.
 	 */
 	public StringBuilder format(StringBuilder buffer, byte[] bs, int off, int len) {
-		for (int bIndex = 0; bIndex < len; bIndex++) {
-			if (bIndex > 0) {
-				buffer.append(' ');
+		return buffer.append(formatBytes(bs, off, len));
+	}
+
+	private char[] formatBytes(byte[] bs, int off, int len) {
+		Objects.checkFromIndexSize(off, len, bs.length);
+
+		char[] chars = new char[formatLength(len, 2)];
+
+		if (len > 0) {
+			char[] tokens = byteTokens();
+
+			// The first value is not preceded by a separator
+			int formatIndex = format(chars, 0, bs[off]);
+
+			for (int bIndex = off + 1; bIndex < off + len; bIndex++) {
+				formatIndex = formatToken(tokens, chars, formatIndex, bs[bIndex]);
 			}
-			format(buffer, bs[off + bIndex]);
 		}
-		return buffer;
+		return chars;
 	}
 
 	/**
@@ -252,4 +290,300 @@ public final class HexFormat {
 		return buffer;
 	}
 
+	/**
+	 * Formats a {@code short} array.
+	 *
+	 * @param ss the {@code short} array to format.
+	 * @return the format result.
+	 */
+	public String format(short[] ss) {
+		return format(ss, 0, ss.length);
+	}
+
+	/**
+	 * Formats a {@code short} array range.
+	 *
+	 * @param ss the {@code short} array to format.
+	 * @param off the offset of the first value to format.
+	 * @param len the number of values to format.
+	 * @return the format result.
+	 */
+	public String format(short[] ss, int off, int len) {
+		return new String(formatShorts(ss, off, len));
+	}
+
+	/**
+	 * Formats a {@code short} array range.
+	 *
+	 * @param buffer the {@linkplain StringBuilder} to format into.
+	 * @param ss the {@code short} array to format.
+	 * @param off the offset of the first value to format.
+	 * @param len the number of values to format.
+	 * @return the format result.
+	 */
+	public StringBuilder format(StringBuilder buffer, short[] ss, int off, int len) {
+		return buffer.append(formatShorts(ss, off, len));
+	}
+
+	private char[] formatShorts(short[] ss, int off, int len) {
+		Objects.checkFromIndexSize(off, len, ss.length);
+
+		char[] chars = new char[formatLength(len, 4)];
+		int formatIndex = 0;
+
+		for (int sIndex = off; sIndex < off + len; sIndex++) {
+			formatIndex = formatValue(chars, formatIndex, ss[sIndex], 4);
+		}
+		return chars;
+	}
+
+	/**
+	 * Formats a {@code int} array.
+	 *
+	 * @param is the {@code int} array to format.
+	 * @return the format result.
+	 */
+	public String format(int[] is) {
+		return format(is, 0, is.length);
+	}
+
+	/**
+	 * Formats a {@code int} array range.
+	 *
+	 * @param is the {@code int} array to format.
+	 * @param off the offset of the first value to format.
+	 * @param len the number of values to format.
+	 * @return the format result.
+	 */
+	public String format(int[] is, int off, int len) {
+		return new String(formatInts(is, off, len));
+	}
+
+	/**
+	 * Formats a {@code int} array range.
+	 *
+	 * @param buffer the {@linkplain StringBuilder} to format into.
+	 * @param is the {@code int} array to format.
+	 * @param off the offset of the first value to format.
+	 * @param len the number of values to format.
+	 * @return the format result.
+	 */
+	public StringBuilder format(StringBuilder buffer, int[] is, int off, int len) {
+		return buffer.append(formatInts(is, off, len));
+	}
+
+	private char[] formatInts(int[] is, int off, int len) {
+		Objects.checkFromIndexSize(off, len, is.length);
+
+		char[] chars = new char[formatLength(len, 8)];
+		int formatIndex = 0;
+
+		for (int iIndex = off; iIndex < off + len; iIndex++) {
+			formatIndex = formatValue(chars, formatIndex, is[iIndex], 8);
+		}
+		return chars;
+	}
+
+	/**
+	 * Formats a {@code long} array.
+	 *
+	 * @param ls the {@code long} array to format.
+	 * @return the format result.
+	 */
+	public String format(long[] ls) {
+		return format(ls, 0, ls.length);
+	}
+
+	/**
+	 * Formats a {@code long} array range.
+	 *
+	 * @param ls the {@code long} array to format.
+	 * @param off the offset of the first value to format.
+	 * @param len the number of values to format.
+	 * @return the format result.
+	 */
+	public String format(long[] ls, int off, int len) {
+		return new String(formatLongs(ls, off, len));
+	}
+
+	/**
+	 * Formats a {@code long} array range.
+	 *
+	 * @param buffer the {@linkplain StringBuilder} to format into.
+	 * @param ls the {@code long} array to format.
+	 * @param off the offset of the first value to format.
+	 * @param len the number of values to format.
+	 * @return the format result.
+	 */
+	public StringBuilder format(StringBuilder buffer, long[] ls, int off, int len) {
+		return buffer.append(formatLongs(ls, off, len));
+	}
+
+	private char[] formatLongs(long[] ls, int off, int len) {
+		Objects.checkFromIndexSize(off, len, ls.length);
+
+		char[] chars = new char[formatLength(len, 16)];
+		int formatIndex = 0;
+
+		for (int lIndex = off; lIndex < off + len; lIndex++) {
+			formatIndex = formatValue(chars, formatIndex, ls[lIndex], 16);
+		}
+		return chars;
+	}
+
+	/**
+	 * Formats the remaining bytes of a {@linkplain ByteBuffer} as a sequence of values.
+	 * <p>
+	 * The buffer's position is not modified.
+	 * </p>
+	 *
+	 * @param buffer the {@linkplain ByteBuffer} to format.
+	 * @param order the {@linkplain ByteOrder} to use for decoding multi byte values.
+	 * @param valueSize the size of the values to format ({@linkplain Byte#BYTES}, {@linkplain Short#BYTES},
+	 * {@linkplain Integer#BYTES} or {@linkplain Long#BYTES}).
+	 * @return the format result.
+	 * @throws IllegalArgumentException if the value size is invalid or the number of remaining bytes is not a
+	 * multiple of it.
+	 */
+	public String format(ByteBuffer buffer, ByteOrder order, int valueSize) {
+		return new String(formatBuffer(buffer, order, valueSize));
+	}
+
+	/**
+	 * Formats the remaining bytes of a {@linkplain ByteBuffer} as a sequence of values.
+	 * <p>
+	 * The buffer's position is not modified.
+	 * </p>
+	 *
+	 * @param buffer the {@linkplain StringBuilder} to format into.
+	 * @param bb the {@linkplain ByteBuffer} to format.
+	 * @param order the {@linkplain ByteOrder} to use for decoding multi byte values.
+	 * @param valueSize the size of the values to format ({@linkplain Byte#BYTES}, {@linkplain Short#BYTES},
+	 * {@linkplain Integer#BYTES} or {@linkplain Long#BYTES}).
+	 * @return the format result.
+	 * @throws IllegalArgumentException if the value size is invalid or the number of remaining bytes is not a
+	 * multiple of it.
+	 */
+	public StringBuilder format(StringBuilder buffer, ByteBuffer bb, ByteOrder order, int valueSize) {
+		return buffer.append(formatBuffer(bb, order, valueSize));
+	}
+
+	private char[] formatBuffer(ByteBuffer buffer, ByteOrder order, int valueSize) {
+		if (valueSize != Byte.BYTES && valueSize != Short.BYTES && valueSize != Integer.BYTES
+				&& valueSize != Long.BYTES) {
+			throw new IllegalArgumentException("Invalid value size: " + valueSize);
+		}
+
+		int start = buffer.position();
+		int limit = buffer.limit();
+
+		if (((limit - start) % valueSize) != 0) {
+			throw new IllegalArgumentException(
+					"Buffer size " + (limit - start) + " is not a multiple of value size " + valueSize);
+		}
+
+		ByteBuffer orderedBuffer = buffer.duplicate().order(order);
+		int digits = valueSize * 2;
+		char[] chars = new char[formatLength((limit - start) / valueSize, digits)];
+		int formatIndex = 0;
+
+		if (valueSize == Byte.BYTES) {
+			char[] tokens = byteTokens();
+
+			for (int bIndex = start; bIndex < limit; bIndex++) {
+				// The first value is not preceded by a separator
+				formatIndex = (bIndex > start ? formatToken(tokens, chars, formatIndex, orderedBuffer.get(bIndex))
+						: format(chars, formatIndex, orderedBuffer.get(bIndex)));
+			}
+		} else {
+			for (int bIndex = start; bIndex < limit; bIndex += valueSize) {
+				long value;
+
+				switch (valueSize) {
+				case Short.BYTES:
+					value = orderedBuffer.getShort(bIndex);
+					break;
+				case Integer.BYTES:
+					value = orderedBuffer.getInt(bIndex);
+					break;
+				default:
+					value = orderedBuffer.getLong(bIndex);
+				}
+				formatIndex = formatValue(chars, formatIndex, value, digits);
+			}
+		}
+		return chars;
+	}
+
+	private int formatLength(int count, int digits) {
+		return (count > 0 ? count * (this.baseBufferSize + digits + 1) - 1 : 0);
+	}
+
+	private int formatValue(char[] chars, int off, long value, int digits) {
+		int formatIndex = off;
+
+		// Values are separated by a single space
+		if (formatIndex > 0) {
+			chars[formatIndex++] = ' ';
+		}
+		System.arraycopy(this.prefixChars, 0, chars, formatIndex, this.prefixChars.length);
+		formatIndex += this.prefixChars.length;
+		// Emit two digits per table lookup
+		for (int shift = (digits - 2) * 4; shift >= 0; shift -= 8) {
+			int pairIndex = ((int) (value >>> shift) & 0xff) << 1;
+
+			chars[formatIndex++] = (char) this.hexPairs[pairIndex];
+			chars[formatIndex++] = (char) this.hexPairs[pairIndex + 1];
+		}
+		System.arraycopy(this.suffixChars, 0, chars, formatIndex, this.suffixChars.length);
+		return formatIndex + this.suffixChars.length;
+	}
+
+	private int formatToken(char[] tokens, char[] chars, int off, byte b) {
+		// Copy the token including the leading separator
+		int tokenLength = byteFormatLength() + 1;
+
+		System.arraycopy(tokens, (b & 0xff) * tokenLength, chars, off, tokenLength);
+		return off + tokenLength;
+	}
+
+	private char[] byteTokens() {
+		char[] checkedByteTokens = this.byteTokens;
+
+		if (checkedByteTokens == null) {
+			int tokenLength = byteFormatLength() + 1;
+
+			checkedByteTokens = new char[256 * tokenLength];
+			for (int b = 0; b < 256; b++) {
+				int tokenIndex = b * tokenLength;
+
+				checkedByteTokens[tokenIndex] = ' ';
+				System.arraycopy(this.prefixChars, 0, checkedByteTokens, tokenIndex + 1, this.prefixChars.length);
+				tokenIndex += 1 + this.prefixChars.length;
+				checkedByteTokens[tokenIndex] = (char) this.hexPairs[b << 1];
+				checkedByteTokens[tokenIndex + 1] = (char) this.hexPairs[(b << 1) + 1];
+				System.arraycopy(this.suffixChars, 0, checkedByteTokens, tokenIndex + 2, this.suffixChars.length);
+			}
+			// Concurrent initialization is harmless as every thread creates an identical table
+			this.byteTokens = checkedByteTokens;
+		}
+		return checkedByteTokens;
+	}
+
+	int byteFormatLength() {
+		return this.baseBufferSize + 2;
+	}
+
+	int format(char[] buffer, int off, byte b) {
+		int tokenLength = byteFormatLength();
+
+		// Skip the token's leading separator
+		System.arraycopy(byteTokens(), (b & 0xff) * (tokenLength + 1) + 1, buffer, off, tokenLength);
+		return off + tokenLength;
+	}
+
+	char hexChar(int nibble) {
+		return this.hexChars[nibble];
+	}
+
 }
@@ -16,6 +16,9 @@
  */
 package de.carne.text;
 
+import java.nio.ByteBuffer;
+import java.text.ParsePosition;
+
 /**
  * {@linkplain Integer} parser.
  */
@@ -74,4 +77,112 @@ public class IntegerParser implements Parser<Integer> {
 		return i;
 	}
 
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range.
+	 * <p>
+	 * In contrast to {@linkplain #parseInt(String)} the value has to be composed of ASCII digits and is parsed without
+	 * any intermediate allocation.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @return the parse result.
+	 * @throws NumberFormatException if the submitted range does not represent a valid number.
+	 * @throws IllegalArgumentException if the parsed value is out of range.
+	 */
+	public int parseInt(CharSequence s, int start, int end) {
+		return (int) DecimalNumbers.parse(s, start, end, this.min, this.max, null);
+	}
+
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range without throwing an exception on failure.
+	 * <p>
+	 * On success the status' index is set to {@code end} and its error index is reset to {@code -1}. On failure the
+	 * status' error index is set to the index of the offending character (or to {@code start}, if the parsed value is
+	 * out of range) and {@code 0} is returned.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parse result (or {@code 0} if the parse operation failed).
+	 */
+	public int parseInt(CharSequence s, int start, int end, ParsePosition status) {
+		return (int) DecimalNumbers.parse(s, start, end, this.min, this.max, status);
+	}
+
+	/**
+	 * Parses the submitted ASCII encoded {@code byte} array range.
+	 * <p>
+	 * In contrast to {@linkplain #parseInt(String)} the value has to be composed of ASCII digits and is parsed without
+	 * any intermediate allocation.
+	 * </p>
+	 *
+	 * @param bs the {@code byte} array to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @return the parse result.
+	 * @throws NumberFormatException if the submitted range does not represent a valid number.
+	 * @throws IllegalArgumentException if the parsed value is out of range.
+	 */
+	public int parseInt(byte[] bs, int start, int end) {
+		return (int) DecimalNumbers.parse(bs, start, end, this.min, this.max, null);
+	}
+
+	/**
+	 * Parses the submitted ASCII encoded {@code byte} array range without throwing an exception on failure.
+	 * <p>
+	 * On success the status' index is set to {@code end} and its error index is reset to {@code -1}. On failure the
+	 * status' error index is set to the index of the offending character (or to {@code start}, if the parsed value is
+	 * out of range) and {@code 0} is returned.
+	 * </p>
+	 *
+	 * @param bs the {@code byte} array to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parse result (or {@code 0} if the parse operation failed).
+	 */
+	public int parseInt(byte[] bs, int start, int end, ParsePosition status) {
+		return (int) DecimalNumbers.parse(bs, start, end, this.min, this.max, status);
+	}
+
+	/**
+	 * Parses the submitted ASCII encoded {@linkplain ByteBuffer} range.
+	 * <p>
+	 * In contrast to {@linkplain #parseInt(String)} the value has to be composed of ASCII digits and is parsed without
+	 * any intermediate allocation.
+	 * </p>
+	 *
+	 * @param buffer the {@linkplain ByteBuffer} to parse (the buffer's position is ignored and not modified).
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @return the parse result.
+	 * @throws NumberFormatException if the submitted range does not represent a valid number.
+	 * @throws IllegalArgumentException if the parsed value is out of range.
+	 */
+	public int parseInt(ByteBuffer buffer, int start, int end) {
+		return (int) DecimalNumbers.parse(buffer, start, end, this.min, this.max, null);
+	}
+
+	/**
+	 * Parses the submitted ASCII encoded {@linkplain ByteBuffer} range without throwing an exception on failure.
+	 * <p>
+	 * On success the status' index is set to {@code end} and its error index is reset to {@code -1}. On failure the
+	 * status' error index is set to the index of the offending character (or to {@code start}, if the parsed value is
+	 * out of range) and {@code 0} is returned.
+	 * </p>
+	 *
+	 * @param buffer the {@linkplain ByteBuffer} to parse (the buffer's position is ignored and not modified).
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parse result (or {@code 0} if the parse operation failed).
+	 */
+	public int parseInt(ByteBuffer buffer, int start, int end, ParsePosition status) {
+		return (int) DecimalNumbers.parse(buffer, start, end, this.min, this.max, status);
+	}
+
 }
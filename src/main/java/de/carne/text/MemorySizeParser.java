@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.text.ParsePosition;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Strict parser for memory sizes (e.g. {@code "512 MiB"}).
+ * <p>
+ * A size consists of a non-negative decimal integer optionally followed by any number of spaces and a unit. Supported
+ * units are {@code B}, {@code byte} and {@code bytes} (factor 1), the IEC units {@code KiB} to {@code EiB} (powers of
+ * 1024) and the SI units {@code kB} to {@code EB} (powers of 1000). Units are case sensitive, signs, fractions and
+ * ambiguous units like {@code KB} are rejected. Sizes exceeding 64 bit are reported as being out of range.
+ * </p>
+ */
+public class MemorySizeParser implements Parser<Long> {
+
+	/**
+	 * Standard parser for any size value.
+	 */
+	public static final MemorySizeParser ANY = new MemorySizeParser();
+
+	/**
+	 * Standard parser for any size value representable as an {@code int}.
+	 */
+	public static final MemorySizeParser INT = new MemorySizeParser(0, Integer.MAX_VALUE);
+
+	private static final String[] UNITS = { "B", "byte", "bytes", "KiB", "MiB", "GiB", "TiB", "PiB", "EiB", "kB", "MB",
+			"GB", "TB", "PB", "EB" };
+
+	private static final long[] UNIT_FACTORS = { 1l, 1l, 1l, 1l << 10, 1l << 20, 1l << 30, 1l << 40, 1l << 50, 1l << 60,
+			1000l, 1000000l, 1000000000l, 1000000000000l, 1000000000000000l, 1000000000000000000l };
+
+	private final long min;
+	private final long max;
+
+	/**
+	 * Constructs a new {@linkplain MemorySizeParser} accepting any size value.
+	 */
+	public MemorySizeParser() {
+		this(0, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Constructs a new {@linkplain MemorySizeParser} accepting size values of the given range.
+	 *
+	 * @param min the minimum size value to accept.
+	 * @param max the maximum size value to accept.
+	 */
+	public MemorySizeParser(long min, long max) {
+		this.min = min;
+		this.max = max;
+	}
+
+	@Override
+	public Long parse(String s) {
+		return Long.valueOf(parseSize(s));
+	}
+
+	/**
+	 * Parses the submitted string.
+	 *
+	 * @param s the {@linkplain String} to parse.
+	 * @return the parsed size in bytes.
+	 * @throws NumberFormatException if the submitted string does not represent a valid size.
+	 * @throws IllegalArgumentException if the parsed size is out of range.
+	 */
+	public long parseSize(String s) {
+		return parseSize(s, 0, s.length());
+	}
+
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range.
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @return the parsed size in bytes.
+	 * @throws NumberFormatException if the submitted range does not represent a valid size.
+	 * @throws IllegalArgumentException if the parsed size is out of range.
+	 */
+	public long parseSize(CharSequence s, int start, int end) {
+		return parseSize0(s, start, end, null);
+	}
+
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range without throwing an exception on failure.
+	 * <p>
+	 * On success the status' index is set to {@code end} and its error index is reset to {@code -1}. On failure the
+	 * status' error index is set to the index of the offending character (or to {@code start}, if the parsed size is
+	 * out of range) and {@code 0} is returned.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parsed size in bytes (or {@code 0} if the parse operation failed).
+	 */
+	public long parseSize(CharSequence s, int start, int end, ParsePosition status) {
+		return parseSize0(s, start, end, status);
+	}
+
+	private long parseSize0(CharSequence s, int start, int end, @Nullable ParsePosition status) {
+		Objects.checkFromToIndex(start, end, s.length());
+
+		long value = 0;
+		boolean overflow = false;
+		int index = start;
+
+		while (index < end) {
+			int digit = s.charAt(index) - '0';
+
+			if (digit < 0 || digit > 9) {
+				break;
+			}
+			overflow = overflow || value > (Long.MAX_VALUE - digit) / 10;
+			value = value * 10 + digit;
+			index++;
+		}
+		if (index == start) {
+			return syntaxError(s, start, end, index, status);
+		}
+
+		int unitStart = index;
+
+		while (index < end && s.charAt(index) == ' ') {
+			index++;
+		}
+
+		long factor = 1;
+
+		if (index < end) {
+			int unitIndex = TextParsing.match(UNITS, s, index, end);
+
+			// A unit is mandatory after spaces
+			if (unitIndex < 0) {
+				return syntaxError(s, start, end, index, status);
+			}
+			factor = UNIT_FACTORS[unitIndex];
+		} else if (index > unitStart) {
+			return syntaxError(s, start, end, unitStart, status);
+		}
+		overflow = overflow || value > Long.MAX_VALUE / factor;
+		if (overflow || value * factor < this.min || this.max < value * factor) {
+			return rangeError(s, start, end, status);
+		}
+		if (status != null) {
+			status.setIndex(end);
+			status.setErrorIndex(-1);
+		}
+		return value * factor;
+	}
+
+	private static long syntaxError(CharSequence s, int start, int end, int errorIndex,
+			@Nullable ParsePosition status) {
+		if (status == null) {
+			throw new NumberFormatException("Invalid size: " + s.subSequence(start, end));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
+	private long rangeError(CharSequence s, int start, int end, @Nullable ParsePosition status) {
+		if (status == null) {
+			throw new IllegalArgumentException(
+					"Size " + s.subSequence(start, end) + " out of range [" + this.min + ", " + this.max + "]");
+		}
+		status.setErrorIndex(start);
+		return 0;
+	}
+
+}
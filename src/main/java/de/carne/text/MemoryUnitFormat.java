@@ -27,13 +27,17 @@ import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * {@linkplain NumberFormat} for memory units (byte, KiB, ...).
+ * <p>
+ * For formatting byte counts on performance sensitive paths (e.g. metrics and logging) see
+ * {@linkplain MemoryUnitFormatter}.
+ * </p>
  */
 public class MemoryUnitFormat extends NumberFormat {
 
 	// Serialization support
 	private static final long serialVersionUID = -9087489563589331679L;
 
-	private static final String[] UNITS = { " byte", " KiB", " MiB", " GiB", " TiB", " PiB", " EiB", " ZiB", " YiB" };
+	static final String[] UNITS = { " byte", " KiB", " MiB", " GiB", " TiB", " PiB", " EiB", " ZiB", " YiB" };
 
 	@SuppressWarnings("squid:S5164")
 	private static final ThreadLocal<@NonNull MemoryUnitFormat> CACHED_INSTANCE = ThreadLocal
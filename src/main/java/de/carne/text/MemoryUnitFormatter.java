@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Immutable and thread-safe formatter for memory sizes and byte counts (byte, KiB, ...).
+ * <p>
+ * In contrast to {@linkplain MemoryUnitFormat} this formatter does not rely on a {@linkplain java.text.NumberFormat}.
+ * The unit is derived directly from the value's bit length and the fixed number of fraction digits is computed via
+ * integer arithmetic (rounding half up). Values below 1 KiB are always formatted without fraction digits. By default
+ * the output is locale independent (no grouping and {@code '.'} as the decimal separator). If a {@linkplain Locale}
+ * is submitted, its grouping and decimal separators are used instead.
+ * </p>
+ */
+public final class MemoryUnitFormatter {
+
+	private static final int[] FRACTION_SCALES = { 1, 10, 100, 1000 };
+
+	// Remainders are reduced to this number of bits to keep the fraction computation within long range
+	private static final int MAX_REMAINDER_BITS = 50;
+
+	/**
+	 * Default {@linkplain MemoryUnitFormatter} instance (locale independent, 1 fraction digit).
+	 */
+	public static final MemoryUnitFormatter DEFAULT = new MemoryUnitFormatter(1);
+
+	/**
+	 * The maximum number of supported fraction digits.
+	 */
+	public static final int MAX_FRACTION_DIGITS = 3;
+
+	private final int fractionDigits;
+	private final int fractionScale;
+	private final char decimalSeparator;
+	private final char groupingSeparator;
+	private final boolean grouping;
+
+	/**
+	 * Constructs a new locale independent {@linkplain MemoryUnitFormatter} instance.
+	 *
+	 * @param fractionDigits the number of fraction digits to emit (0 to {@value #MAX_FRACTION_DIGITS}).
+	 */
+	public MemoryUnitFormatter(int fractionDigits) {
+		this(fractionDigits, '.', '\0', false);
+	}
+
+	/**
+	 * Constructs a new locale aware {@linkplain MemoryUnitFormatter} instance.
+	 *
+	 * @param fractionDigits the number of fraction digits to emit (0 to {@value #MAX_FRACTION_DIGITS}).
+	 * @param locale the {@linkplain Locale} defining the grouping and decimal separators to use.
+	 */
+	public MemoryUnitFormatter(int fractionDigits, Locale locale) {
+		this(fractionDigits, DecimalFormatSymbols.getInstance(locale));
+	}
+
+	private MemoryUnitFormatter(int fractionDigits, DecimalFormatSymbols symbols) {
+		this(fractionDigits, symbols.getDecimalSeparator(), symbols.getGroupingSeparator(), true);
+	}
+
+	private MemoryUnitFormatter(int fractionDigits, char decimalSeparator, char groupingSeparator, boolean grouping) {
+		if (fractionDigits < 0 || MAX_FRACTION_DIGITS < fractionDigits) {
+			throw new IllegalArgumentException("Invalid number of fraction digits: " + fractionDigits);
+		}
+		this.fractionDigits = fractionDigits;
+		this.fractionScale = FRACTION_SCALES[fractionDigits];
+		this.decimalSeparator = decimalSeparator;
+		this.groupingSeparator = groupingSeparator;
+		this.grouping = grouping;
+	}
+
+	/**
+	 * Formats a byte count.
+	 *
+	 * @param bytes the byte count to format.
+	 * @return the format result.
+	 */
+	public String format(long bytes) {
+		return format(new StringBuilder(16), bytes).toString();
+	}
+
+	/**
+	 * Formats a byte count.
+	 *
+	 * @param buffer the {@linkplain StringBuilder} to format into.
+	 * @param bytes the byte count to format.
+	 * @return the format result.
+	 */
+	public StringBuilder format(StringBuilder buffer, long bytes) {
+		// Treated as unsigned to cover Long.MIN_VALUE
+		long magnitude = (bytes < 0 ? -bytes : bytes);
+		int unitIndex = Math.max(63 - Long.numberOfLeadingZeros(magnitude), 0) / 10;
+		int shift = unitIndex * 10;
+		long integral = magnitude >>> shift;
+		long fraction = 0;
+
+		if (unitIndex > 0) {
+			long remainder = magnitude & ((1l << shift) - 1);
+			int remainderShift = shift;
+
+			if (remainderShift > MAX_REMAINDER_BITS) {
+				remainder >>>= remainderShift - MAX_REMAINDER_BITS;
+				remainderShift = MAX_REMAINDER_BITS;
+			}
+			fraction = (remainder * this.fractionScale + (1l << (remainderShift - 1))) >>> remainderShift;
+			if (fraction == this.fractionScale) {
+				fraction = 0;
+				integral++;
+				if (integral == 1024 && unitIndex + 1 < MemoryUnitFormat.UNITS.length) {
+					integral = 1;
+					unitIndex++;
+				}
+			}
+		}
+		if (bytes < 0) {
+			buffer.append('-');
+		}
+		if (this.grouping && integral >= 1000) {
+			buffer.append(integral / 1000).append(this.groupingSeparator);
+			appendDigits(buffer, integral % 1000, 3);
+		} else {
+			buffer.append(integral);
+		}
+		if (unitIndex > 0 && this.fractionDigits > 0) {
+			buffer.append(this.decimalSeparator);
+			appendDigits(buffer, fraction, this.fractionDigits);
+		}
+		return buffer.append(MemoryUnitFormat.UNITS[unitIndex]);
+	}
+
+	private static void appendDigits(StringBuilder buffer, long value, int digits) {
+		int scale = FRACTION_SCALES[digits - 1];
+
+		for (long remaining = value; scale > 0; scale /= 10) {
+			buffer.append((char) ('0' + (remaining / scale)));
+			remaining %= scale;
+		}
+	}
+
+}
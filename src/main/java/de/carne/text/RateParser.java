@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.text.ParsePosition;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Parser for rates (e.g. {@code "10k/s"} or {@code "5 MiB/s"}).
+ * <p>
+ * A rate consists of a non-negative decimal integer, optional spaces, an optional quantity unit and an optional time
+ * unit. Quantity units are made up of an optional SI ({@code k}, {@code M}, {@code G}, {@code T}, {@code P},
+ * {@code E}) or IEC ({@code Ki} to {@code Ei}) prefix followed by an optional {@code B}. Time units are {@code /s},
+ * {@code /ms}, {@code /m} (or {@code /min}) and {@code /h}. A rate without time unit is interpreted per second.
+ * </p>
+ * <p>
+ * The parse result is the rate per second. Rates given per minute or hour are rounded to the nearest integer. Rates
+ * exceeding 64 bit are reported as being out of range.
+ * </p>
+ */
+public class RateParser implements Parser<Long> {
+
+	private static final String[] PREFIXES = { "", "k", "M", "G", "T", "P", "E", "Ki", "Mi", "Gi", "Ti", "Pi", "Ei" };
+
+	private static final long[] PREFIX_FACTORS = { 1l, 1000l, 1000000l, 1000000000l, 1000000000000l,
+			1000000000000000l, 1000000000000000000l, 1l << 10, 1l << 20, 1l << 30, 1l << 40, 1l << 50, 1l << 60 };
+
+	private static final String[] TIME_UNITS = { "s", "ms", "m", "min", "h" };
+
+	// Negative values denote divisors
+	private static final long[] TIME_UNIT_FACTORS = { 1l, 1000l, -60l, -60l, -3600l };
+
+	/**
+	 * Standard parser for any rate value.
+	 */
+	public static final RateParser ANY = new RateParser();
+
+	/**
+	 * Standard parser for any positive rate value.
+	 */
+	public static final RateParser POSITIVE = new RateParser(1, Long.MAX_VALUE);
+
+	private final long min;
+	private final long max;
+
+	/**
+	 * Constructs a new {@linkplain RateParser} accepting any rate value.
+	 */
+	public RateParser() {
+		this(0, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Constructs a new {@linkplain RateParser} accepting rate values of the given range.
+	 *
+	 * @param min the minimum rate (per second) to accept.
+	 * @param max the maximum rate (per second) to accept.
+	 */
+	public RateParser(long min, long max) {
+		this.min = min;
+		this.max = max;
+	}
+
+	@Override
+	public Long parse(String s) {
+		return Long.valueOf(parseRate(s));
+	}
+
+	/**
+	 * Parses the submitted string.
+	 *
+	 * @param s the {@linkplain String} to parse.
+	 * @return the parsed rate per second.
+	 * @throws NumberFormatException if the submitted string does not represent a valid rate.
+	 * @throws IllegalArgumentException if the parsed rate is out of range.
+	 */
+	public long parseRate(String s) {
+		return parseRate(s, 0, s.length());
+	}
+
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range.
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @return the parsed rate per second.
+	 * @throws NumberFormatException if the submitted range does not represent a valid rate.
+	 * @throws IllegalArgumentException if the parsed rate is out of range.
+	 */
+	public long parseRate(CharSequence s, int start, int end) {
+		return parseRate0(s, start, end, null);
+	}
+
+	/**
+	 * Parses the submitted {@linkplain CharSequence} range without throwing an exception on failure.
+	 * <p>
+	 * On success the status' index is set to {@code end} and its error index is reset to {@code -1}. On failure the
+	 * status' error index is set to the index of the offending character (or to {@code start}, if the parsed rate is
+	 * out of range) and {@code 0} is returned.
+	 * </p>
+	 *
+	 * @param s the {@linkplain CharSequence} to parse.
+	 * @param start the index of the first character to parse.
+	 * @param end the index following the last character to parse.
+	 * @param status the {@linkplain ParsePosition} receiving the parse status.
+	 * @return the parsed rate per second (or {@code 0} if the parse operation failed).
+	 */
+	public long parseRate(CharSequence s, int start, int end, ParsePosition status) {
+		return parseRate0(s, start, end, status);
+	}
+
+	private long parseRate0(CharSequence s, int start, int end, @Nullable ParsePosition status) {
+		Objects.checkFromToIndex(start, end, s.length());
+
+		long value = 0;
+		boolean overflow = false;
+		int index = start;
+
+		while (index < end && '0' <= s.charAt(index) && s.charAt(index) <= '9') {
+			int digit = s.charAt(index) - '0';
+
+			overflow = overflow || value > (Long.MAX_VALUE - digit) / 10;
+			value = value * 10 + digit;
+			index++;
+		}
+		if (index == start) {
+			return syntaxError(s, start, end, index, status);
+		}
+
+		int numberEnd = index;
+
+		while (index < end && s.charAt(index) == ' ') {
+			index++;
+		}
+
+		int quantityStart = index;
+
+		while (index < end && s.charAt(index) != '/') {
+			index++;
+		}
+
+		// An optional trailing B (e.g. "MiB") denotes bytes and does not affect the value
+		int prefixEnd = (index > quantityStart && s.charAt(index - 1) == 'B' ? index - 1 : index);
+		int prefixIndex = TextParsing.match(PREFIXES, s, quantityStart, prefixEnd);
+
+		if (prefixIndex < 0 || (quantityStart > numberEnd && quantityStart == index)) {
+			// Unknown prefix or spaces not followed by any unit
+			return syntaxError(s, start, end, quantityStart, status);
+		}
+		overflow = overflow || value > Long.MAX_VALUE / PREFIX_FACTORS[prefixIndex];
+
+		long rate = value * PREFIX_FACTORS[prefixIndex];
+
+		if (index < end) {
+			int timeUnitIndex = TextParsing.match(TIME_UNITS, s, index + 1, end);
+
+			if (timeUnitIndex < 0) {
+				return syntaxError(s, start, end, index + 1, status);
+			}
+
+			long timeUnitFactor = TIME_UNIT_FACTORS[timeUnitIndex];
+
+			if (timeUnitFactor > 0) {
+				overflow = overflow || rate > Long.MAX_VALUE / timeUnitFactor;
+				rate *= timeUnitFactor;
+			} else {
+				rate = rate / -timeUnitFactor + (rate % -timeUnitFactor >= -timeUnitFactor / 2 ? 1 : 0);
+			}
+		}
+		if (overflow || rate < this.min || this.max < rate) {
+			if (status == null) {
+				throw new IllegalArgumentException(
+						"Rate " + s.subSequence(start, end) + " out of range [" + this.min + ", " + this.max + "]/s");
+			}
+			status.setErrorIndex(start);
+			return 0;
+		}
+		if (status != null) {
+			status.setIndex(end);
+			status.setErrorIndex(-1);
+		}
+		return rate;
+	}
+
+	private static long syntaxError(CharSequence s, int start, int end, int errorIndex,
+			@Nullable ParsePosition status) {
+		if (status == null) {
+			throw new NumberFormatException("Invalid rate: " + s.subSequence(start, end));
+		}
+		status.setErrorIndex(errorIndex);
+		return 0;
+	}
+
+}
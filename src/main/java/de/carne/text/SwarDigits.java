@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD within a register (SWAR) helpers processing 8 ASCII encoded digits at once.
+ * <p>
+ * The digits are loaded in little endian order into a {@code long}, hence the first digit ends up in the lowest byte.
+ * </p>
+ */
+final class SwarDigits {
+
+	private SwarDigits() {
+		// Prevent instantiation
+	}
+
+	static final int DIGITS = Long.BYTES;
+
+	private static final VarHandle BYTE_ARRAY_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BYTE_BUFFER_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long LOW_NIBBLES = 0x0f0f0f0f0f0f0f0fL;
+	private static final long HIGH_NIBBLES = 0xf0f0f0f0f0f0f0f0L;
+	private static final long ZEROS = 0x3030303030303030L;
+
+	static long load(byte[] bs, int index) {
+		return (long) BYTE_ARRAY_VIEW.get(bs, index);
+	}
+
+	static long load(ByteBuffer buffer, int index) {
+		return (long) BYTE_BUFFER_VIEW.get(buffer, index);
+	}
+
+	static boolean isDecimal(long chunk) {
+		// Every byte must be of the form 0x3X and stay so after adding 6 (i.e. X <= 9)
+		return ((chunk & HIGH_NIBBLES) | (((chunk + 0x0606060606060606L) & HIGH_NIBBLES) >>> 4)) == 0x3333333333333333L;
+	}
+
+	static int decimalValue(long chunk) {
+		long value = chunk - ZEROS;
+
+		// Combine neighboring digits into 2, 4 and finally 8 digit values
+		value = (value * 10) + (value >>> 8);
+		value = (((value & 0x000000ff000000ffL) * (100 + (1000000L << 32)))
+				+ (((value >>> 16) & 0x000000ff000000ffL) * (1 + (10000L << 32)))) >>> 32;
+		return (int) value;
+	}
+
+	static boolean isHex(long chunk) {
+		// Letters are checked case-insensitively by folding them to lower case
+		return (between(chunk, '0' - 1, '9' + 1) | between(chunk | 0x2020202020202020L, 'a' - 1, 'f' + 1)) == HIGH_BITS;
+	}
+
+	static int hexValue(long chunk) {
+		// Letters (0x4X, 0x6X) map to their low nibble + 9
+		long value = (chunk & LOW_NIBBLES) + ((chunk >>> 6) & ONES) * 9;
+
+		// Combine neighboring nibbles into 2, 4 and finally 8 nibble values
+		value = ((value << 4) | (value >>> 8)) & 0x00ff00ff00ff00ffL;
+		value = ((value << 8) | (value >>> 16)) & 0x0000ffff0000ffffL;
+		value = ((value << 16) | (value >>> 32)) & 0xffffffffL;
+		return (int) value;
+	}
+
+	private static long between(long chunk, int lower, int upper) {
+		// Sets the high bit of every byte b with lower < b < upper (see "Bit Twiddling Hacks": hasbetween)
+		long low7Bits = chunk & ~HIGH_BITS;
+
+		return (ONES * (127 + upper) - low7Bits) & ~chunk & (low7Bits + ONES * (127 - lower)) & HIGH_BITS;
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+/**
+ * Allocation-free helpers shared by the unit based parsers.
+ */
+final class TextParsing {
+
+	private TextParsing() {
+		// Prevent instantiation
+	}
+
+	/*
+	 * Gets the index of the token exactly matching the submitted range (-1 if none matches).
+	 */
+	static int match(String[] tokens, CharSequence s, int start, int end) {
+		int matchIndex = -1;
+
+		for (int tokenIndex = 0; tokenIndex < tokens.length && matchIndex < 0; tokenIndex++) {
+			if (regionMatches(tokens[tokenIndex], s, start, end)) {
+				matchIndex = tokenIndex;
+			}
+		}
+		return matchIndex;
+	}
+
+	private static boolean regionMatches(String token, CharSequence s, int start, int end) {
+		int tokenLength = token.length();
+		boolean matches = tokenLength == end - start;
+
+		for (int charIndex = 0; charIndex < tokenLength && matches; charIndex++) {
+			matches = s.charAt(start + charIndex) == token.charAt(charIndex);
+		}
+		return matches;
+	}
+
+}
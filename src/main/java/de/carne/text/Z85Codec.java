@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.text;
+
+/**
+ * Z85 codec as defined in <a href="https://rfc.zeromq.org/spec/32/">ZeroMQ RFC 32</a>.
+ * <p>
+ * Every group of 4 bytes is encoded to 5 chars. In extension to the specification (which requires the data length to
+ * be a multiple of 4), a trailing partial group of 1 to 3 bytes is encoded to 2 to 4 chars the same way Ascii85 does.
+ * Z85 does not use any padding.
+ * </p>
+ */
+public final class Z85Codec extends BinaryTextCodec {
+
+	private static final int[] PARTIAL_CHARS = { 0, 2, 3, 4 };
+
+	private static final long MAX_GROUP_VALUE = 0xffffffffl;
+
+	/**
+	 * Z85 codec.
+	 */
+	public static final Z85Codec STANDARD = new Z85Codec();
+
+	private Z85Codec() {
+		// Partial char groups are filled up with the highest value char
+		super("Z85", 4, 5, PARTIAL_CHARS,
+				"0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ.-:+=^!/*?&<>()[]{}@%$#", '\0', false,
+				84);
+	}
+
+	@Override
+	void encodeGroups(byte[] bs, int off, int groups, byte[] dst, int dstOff) {
+		byte[] chars = this.alphabet;
+		int end = off + groups * 4;
+		int dstIndex = dstOff;
+
+		for (int byteIndex = off; byteIndex < end; byteIndex += 4) {
+			long value = ((bs[byteIndex] & 0xffl) << 24) | ((bs[byteIndex + 1] & 0xff) << 16)
+					| ((bs[byteIndex + 2] & 0xff) << 8) | (bs[byteIndex + 3] & 0xff);
+			int value1 = (int) (value / 85);
+			int value2 = value1 / 85;
+			int value3 = value2 / 85;
+			int value4 = value3 / 85;
+
+			dst[dstIndex] = chars[value4];
+			dst[dstIndex + 1] = chars[value3 - value4 * 85];
+			dst[dstIndex + 2] = chars[value2 - value3 * 85];
+			dst[dstIndex + 3] = chars[value1 - value2 * 85];
+			dst[dstIndex + 4] = chars[(int) (value - value1 * 85l)];
+			dstIndex += 5;
+		}
+	}
+
+	@Override
+	int decodeGroups(byte[] chars, int off, int groups, byte[] dst, int dstOff) {
+		int[] charValues = this.values;
+		int end = off + groups * 5;
+		int failedIndex = -1;
+		int dstIndex = dstOff;
+
+		for (int cIndex = off; cIndex < end && failedIndex < 0; cIndex += 5) {
+			int value0 = charValues[chars[cIndex] & 0xff];
+			int value1 = charValues[chars[cIndex + 1] & 0xff];
+			int value2 = charValues[chars[cIndex + 2] & 0xff];
+			int value3 = charValues[chars[cIndex + 3] & 0xff];
+			int value4 = charValues[chars[cIndex + 4] & 0xff];
+			long value = (((value0 * 85l + value1) * 85 + value2) * 85 + value3) * 85 + value4;
+
+			// Any invalid char (-1) is detected via the sign bit
+			if ((value0 | value1 | value2 | value3 | value4) >= 0 && value <= MAX_GROUP_VALUE) {
+				dst[dstIndex] = (byte) (value >>> 24);
+				dst[dstIndex + 1] = (byte) (value >>> 16);
+				dst[dstIndex + 2] = (byte) (value >>> 8);
+				dst[dstIndex + 3] = (byte) value;
+				dstIndex += 4;
+			} else {
+				failedIndex = cIndex;
+			}
+		}
+		return failedIndex;
+	}
+
+}
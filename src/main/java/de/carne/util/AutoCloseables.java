@@ -16,6 +16,18 @@
  */
 package de.carne.util;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
@@ -103,6 +115,119 @@ public final class AutoCloseables {
 		}
 	}
 
+	/**
+	 * Closes multiple {@linkplain AutoCloseable}s concurrently using a temporary bounded thread pool.
+	 *
+	 * @param <T> the actual {@linkplain AutoCloseable} type.
+	 * @param parallelism the maximum number of concurrent {@linkplain AutoCloseable#close()} calls.
+	 * @param timeout the maximum time to wait for all {@linkplain AutoCloseable#close()} calls to complete.
+	 * @param closeables the {@linkplain AutoCloseable}s to close (may contain {@code null} values).
+	 * @return the {@linkplain AutoCloseable}s which did not finish closing within the given timeout (empty if all
+	 * finished).
+	 * @throws Exception if one or more {@link AutoCloseable#close()} calls fail.
+	 * @see #closeAllParallel(Executor, Duration, Iterable)
+	 */
+	public static <T extends AutoCloseable> List<T> closeAllParallel(int parallelism, Duration timeout,
+			Iterable<T> closeables) throws Exception {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread closer = new Thread(runnable, AutoCloseables.class.getSimpleName());
+
+			closer.setDaemon(true);
+			return closer;
+		});
+
+		try {
+			return closeAllParallel(executor, timeout, closeables);
+		} finally {
+			// Interrupt any close call still running
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Closes multiple {@linkplain AutoCloseable}s concurrently in a safe manner.
+	 * <p>
+	 * This function submits the {@linkplain AutoCloseable#close()} call of every non-null {@linkplain AutoCloseable}
+	 * instance to the submitted {@linkplain Executor} (which should be bounded) and waits for the calls to complete
+	 * until the given timeout has elapsed. As for {@linkplain #closeAll(Iterable)} the first {@linkplain Exception} (in
+	 * the order of the submitted {@linkplain AutoCloseable}s) will be forwarded to the caller and any additional one
+	 * will be added to it as a suppressed exception. {@linkplain AutoCloseable}s which did not finish closing in time
+	 * are returned to the caller. If an exception is thrown, they are reported via an additional suppressed
+	 * {@linkplain TimeoutException} instead.
+	 * </p>
+	 *
+	 * @param <T> the actual {@linkplain AutoCloseable} type.
+	 * @param executor the {@linkplain Executor} to use for the {@linkplain AutoCloseable#close()} calls.
+	 * @param timeout the maximum time to wait for all {@linkplain AutoCloseable#close()} calls to complete.
+	 * @param closeables the {@linkplain AutoCloseable}s to close (may contain {@code null} values).
+	 * @return the {@linkplain AutoCloseable}s which did not finish closing within the given timeout (empty if all
+	 * finished).
+	 * @throws Exception if one or more {@link AutoCloseable#close()} calls fail.
+	 */
+	public static <T extends AutoCloseable> List<T> closeAllParallel(Executor executor, Duration timeout,
+			Iterable<T> closeables) throws Exception {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		List<T> closing = new ArrayList<>();
+		List<CompletableFuture<Void>> closeCalls = new ArrayList<>();
+
+		for (T closeable : closeables) {
+			if (closeable != null) {
+				closing.add(closeable);
+				closeCalls.add(CompletableFuture.runAsync(() -> {
+					try {
+						closeable.close();
+					} catch (Exception e) {
+						throw new CompletionException(e);
+					}
+				}, executor));
+			}
+		}
+
+		List<T> pending = new ArrayList<>();
+		Throwable exception = null;
+		boolean interrupted = false;
+
+		for (int closeIndex = 0; closeIndex < closeCalls.size(); closeIndex++) {
+			try {
+				if (interrupted) {
+					throw new TimeoutException();
+				}
+				closeCalls.get(closeIndex).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+
+				if (exception == null) {
+					exception = cause;
+				} else {
+					exception.addSuppressed(cause);
+				}
+			} catch (TimeoutException e) {
+				pending.add(closing.get(closeIndex));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				interrupted = true;
+				pending.add(closing.get(closeIndex));
+			}
+		}
+		if (exception != null) {
+			if (!pending.isEmpty()) {
+				exception.addSuppressed(new TimeoutException("Close timed out for: " + pending));
+			}
+			if (exception instanceof Exception) {
+				throw (Exception) exception;
+			}
+			if (exception instanceof Error) {
+				throw (Error) exception;
+			}
+			throw (RuntimeException) exception;
+		}
+		return pending;
+	}
+
 	/**
 	 * Close potential {@linkplain AutoCloseable}.
 	 * <p>
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.util;
+
+import java.lang.ref.Cleaner;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.text.IntegerParser;
+import de.carne.util.logging.Log;
+
+/**
+ * Detects resources which become unreachable without having been closed.
+ * <p>
+ * The default tracker is enabled via the system property {@value #ENABLED_PROPERTY} and is used by the resource
+ * creating classes of this library. If it is disabled, {@linkplain #track(Object)} simply returns a shared no-op
+ * {@linkplain Registration}. If it is enabled, every tracked resource is registered with a {@linkplain Cleaner} and
+ * every N-th resource (see {@value #SAMPLE_RATE_PROPERTY}) records its allocation site via a {@linkplain StackWalker}.
+ * Detected leaks are counted per allocation site and reported via {@linkplain Log}.
+ * </p>
+ */
+public final class LeakTracker {
+
+	private static final Log LOG = new Log();
+
+	/**
+	 * Property used to enable the default tracker.
+	 */
+	public static final String ENABLED_PROPERTY = LeakTracker.class.getName() + ".ENABLED";
+
+	/**
+	 * Property used to set the allocation site sample rate of the default tracker.
+	 */
+	public static final String SAMPLE_RATE_PROPERTY = LeakTracker.class.getName() + ".SAMPLE_RATE";
+
+	private static final int DEFAULT_SAMPLE_RATE = 64;
+
+	private static final int MAX_SITE_FRAMES = 8;
+
+	private static final @Nullable LeakTracker DEFAULT_TRACKER = (SystemProperties.booleanValue(ENABLED_PROPERTY)
+			? new LeakTracker(SystemProperties.intValue(SAMPLE_RATE_PROPERTY, IntegerParser.POSITIVE,
+					DEFAULT_SAMPLE_RATE))
+			: null);
+
+	private static final Lazy<Cleaner> CLEANER = new Lazy<>(Cleaner::create);
+
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+	/**
+	 * Handle used to signal the close of a tracked resource.
+	 */
+	@FunctionalInterface
+	public interface Registration {
+
+		/**
+		 * Marks the tracked resource as closed.
+		 */
+		void closed();
+
+	}
+
+	private static final Registration UNTRACKED = () -> {
+		// Nothing to do
+	};
+
+	private final int sampleRate;
+	private final AtomicLong trackCount = new AtomicLong();
+	private final Map<String, LongAdder> leakCounts = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a new {@linkplain LeakTracker} instance.
+	 *
+	 * @param sampleRate the allocation site sample rate (1 samples every resource).
+	 */
+	public LeakTracker(int sampleRate) {
+		if (sampleRate <= 0) {
+			throw new IllegalArgumentException("Invalid sample rate: " + sampleRate);
+		}
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Gets the default tracker.
+	 *
+	 * @return the default tracker (empty if leak tracking is disabled).
+	 */
+	public static Optional<LeakTracker> getDefault() {
+		return Optional.ofNullable(DEFAULT_TRACKER);
+	}
+
+	/**
+	 * Tracks a resource via the default tracker.
+	 * <p>
+	 * The returned {@linkplain Registration} must be notified as soon as the resource is closed. The resource must
+	 * not be referenced by any object reachable from the returned {@linkplain Registration}.
+	 * </p>
+	 *
+	 * @param resource the resource to track.
+	 * @return the {@linkplain Registration} to notify on close.
+	 */
+	public static Registration track(Object resource) {
+		LeakTracker tracker = DEFAULT_TRACKER;
+
+		return (tracker != null ? tracker.register(resource) : UNTRACKED);
+	}
+
+	/**
+	 * Tracks a {@linkplain FileChannel} via the default tracker.
+	 * <p>
+	 * If leak tracking is enabled, the submitted channel is wrapped into a channel which notifies the tracker on
+	 * close. Otherwise the submitted channel is returned as is.
+	 * </p>
+	 *
+	 * @param channel the {@linkplain FileChannel} to track.
+	 * @return the tracked {@linkplain FileChannel}.
+	 */
+	public static FileChannel track(FileChannel channel) {
+		LeakTracker tracker = DEFAULT_TRACKER;
+
+		return (tracker != null ? new TrackedFileChannel(channel, tracker) : channel);
+	}
+
+	/**
+	 * Registers a resource with this tracker.
+	 *
+	 * @param resource the resource to track.
+	 * @return the {@linkplain Registration} to notify on close.
+	 * @see #track(Object)
+	 */
+	public Registration register(Object resource) {
+		String site;
+
+		if (this.trackCount.getAndIncrement() % this.sampleRate == 0) {
+			site = STACK_WALKER.walk(frames -> frames
+					.filter(frame -> !frame.getClassName().startsWith(LeakTracker.class.getName())
+							&& !frame.getClassName().equals(TrackedFileChannel.class.getName()))
+					.limit(MAX_SITE_FRAMES).map(StackWalker.StackFrame::toString)
+					.collect(Collectors.joining(" <- ", resource.getClass().getName() + " @ ", "")));
+		} else {
+			site = resource.getClass().getName() + " @ <not sampled>";
+		}
+
+		LeakAction action = new LeakAction(this, site);
+		Cleaner.Cleanable cleanable = CLEANER.get().register(resource, action);
+
+		return () -> {
+			action.closed = true;
+			cleanable.clean();
+		};
+	}
+
+	/**
+	 * Gets the number of detected leaks per allocation site.
+	 *
+	 * @return the number of detected leaks per allocation site.
+	 */
+	public Map<String, Long> leakCounts() {
+		Map<String, Long> counts = new TreeMap<>();
+
+		this.leakCounts.forEach((site, count) -> counts.put(site, count.sum()));
+		return counts;
+	}
+
+	/**
+	 * Reports all detected leaks via {@linkplain Log}.
+	 */
+	public void report() {
+		leakCounts().forEach((site, count) -> LOG.warning("{0} resource leak(s) allocated at: {1}", count, site));
+	}
+
+	void leaked(String site) {
+		LongAdder counter = this.leakCounts.computeIfAbsent(site, key -> new LongAdder());
+
+		counter.increment();
+
+		long count = counter.sum();
+
+		// Log the first leak and then with decreasing frequency
+		if (Long.bitCount(count) == 1) {
+			LOG.warning("Resource leak detected ({0} so far) allocated at: {1}", count, site);
+		}
+	}
+
+	private static final class LeakAction implements Runnable {
+
+		private final LeakTracker tracker;
+		private final String site;
+		volatile boolean closed = false;
+
+		LeakAction(LeakTracker tracker, String site) {
+			this.tracker = tracker;
+			this.site = site;
+		}
+
+		@Override
+		public void run() {
+			if (!this.closed) {
+				this.tracker.leaked(this.site);
+			}
+		}
+
+	}
+
+}
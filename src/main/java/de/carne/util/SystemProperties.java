@@ -16,8 +16,11 @@
  */
 package de.carne.util;
 
+import de.carne.text.DurationParser;
 import de.carne.text.IntegerParser;
 import de.carne.text.LongParser;
+import de.carne.text.MemorySizeParser;
+import de.carne.text.RateParser;
 import de.carne.util.logging.Log;
 
 /**
@@ -264,4 +267,159 @@ public final class SystemProperties {
 		return longValue(clazz.getName() + key, parser, defaultValue);
 	}
 
+	/**
+	 * Gets a memory size system property value (e.g. {@code "512 MiB"}).
+	 *
+	 * @param key the property key to retrieve.
+	 * @return the property value in bytes or {@code 0} if the property is not defined.
+	 * @see MemorySizeParser
+	 */
+	public static long sizeValue(String key) {
+		return sizeValue(key, MemorySizeParser.ANY, 0);
+	}
+
+	/**
+	 * Gets a memory size system property value (e.g. {@code "512 MiB"}).
+	 *
+	 * @param clazz the {@linkplain Class} to derive the property key from.
+	 * @param key the property key (relative to the submitted {@linkplain Class}) to get.
+	 * @return the property value in bytes or {@code 0} if the property is not defined.
+	 * @see MemorySizeParser
+	 */
+	public static long sizeValue(Class<?> clazz, String key) {
+		return sizeValue(clazz, key, MemorySizeParser.ANY, 0);
+	}
+
+	/**
+	 * Gets a memory size system property value (e.g. {@code "512 MiB"}).
+	 *
+	 * @param key the property key to retrieve.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value in bytes or the submitted default value if the property is not defined.
+	 * @see MemorySizeParser
+	 */
+	public static long sizeValue(String key, long defaultValue) {
+		return sizeValue(key, MemorySizeParser.ANY, defaultValue);
+	}
+
+	/**
+	 * Gets a memory size system property value (e.g. {@code "512 MiB"}).
+	 *
+	 * @param clazz the {@linkplain Class} to derive the property key from.
+	 * @param key the property key (relative to the submitted {@linkplain Class}) to get.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value in bytes or the submitted default value if the property is not defined.
+	 * @see MemorySizeParser
+	 */
+	public static long sizeValue(Class<?> clazz, String key, long defaultValue) {
+		return sizeValue(clazz.getName() + key, MemorySizeParser.ANY, defaultValue);
+	}
+
+	/**
+	 * Gets a memory size system property value (e.g. {@code "512 MiB"}).
+	 *
+	 * @param key the property key to retrieve.
+	 * @param parser the {@linkplain MemorySizeParser} to use for property value parsing.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value in bytes or the submitted default value if the property is not defined.
+	 */
+	public static long sizeValue(String key, MemorySizeParser parser, long defaultValue) {
+		String value = System.getProperty(key);
+		long sizeValue = defaultValue;
+
+		if (value != null) {
+			try {
+				sizeValue = parser.parseSize(value);
+			} catch (RuntimeException e) {
+				LOG.warning(e, "Ignoring invalid size system property: ''{0}'' = ''{1}''", key, value);
+			}
+		}
+		return sizeValue;
+	}
+
+	/**
+	 * Gets a memory size system property value (e.g. {@code "512 MiB"}).
+	 *
+	 * @param clazz the {@linkplain Class} to derive the property key from.
+	 * @param key the property key (relative to the submitted {@linkplain Class}) to get.
+	 * @param parser the {@linkplain MemorySizeParser} to use for property value parsing.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value in bytes or the submitted default value if the property is not defined.
+	 */
+	public static long sizeValue(Class<?> clazz, String key, MemorySizeParser parser, long defaultValue) {
+		return sizeValue(clazz.getName() + key, parser, defaultValue);
+	}
+
+	/**
+	 * Gets a duration system property value (e.g. {@code "250ms"} or {@code "1h30m"}).
+	 *
+	 * @param key the property key to retrieve.
+	 * @param parser the {@linkplain DurationParser} to use for property value parsing.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value in the parser's time unit or the submitted default value if the property is not
+	 * defined.
+	 */
+	public static long durationValue(String key, DurationParser parser, long defaultValue) {
+		String value = System.getProperty(key);
+		long durationValue = defaultValue;
+
+		if (value != null) {
+			try {
+				durationValue = parser.parseDuration(value);
+			} catch (RuntimeException e) {
+				LOG.warning(e, "Ignoring invalid duration system property: ''{0}'' = ''{1}''", key, value);
+			}
+		}
+		return durationValue;
+	}
+
+	/**
+	 * Gets a duration system property value (e.g. {@code "250ms"} or {@code "1h30m"}).
+	 *
+	 * @param clazz the {@linkplain Class} to derive the property key from.
+	 * @param key the property key (relative to the submitted {@linkplain Class}) to get.
+	 * @param parser the {@linkplain DurationParser} to use for property value parsing.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value in the parser's time unit or the submitted default value if the property is not
+	 * defined.
+	 */
+	public static long durationValue(Class<?> clazz, String key, DurationParser parser, long defaultValue) {
+		return durationValue(clazz.getName() + key, parser, defaultValue);
+	}
+
+	/**
+	 * Gets a rate system property value (e.g. {@code "10k/s"} or {@code "5MiB/s"}).
+	 *
+	 * @param key the property key to retrieve.
+	 * @param parser the {@linkplain RateParser} to use for property value parsing.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value per second or the submitted default value if the property is not defined.
+	 */
+	public static long rateValue(String key, RateParser parser, long defaultValue) {
+		String value = System.getProperty(key);
+		long rateValue = defaultValue;
+
+		if (value != null) {
+			try {
+				rateValue = parser.parseRate(value);
+			} catch (RuntimeException e) {
+				LOG.warning(e, "Ignoring invalid rate system property: ''{0}'' = ''{1}''", key, value);
+			}
+		}
+		return rateValue;
+	}
+
+	/**
+	 * Gets a rate system property value (e.g. {@code "10k/s"} or {@code "5MiB/s"}).
+	 *
+	 * @param clazz the {@linkplain Class} to derive the property key from.
+	 * @param key the property key (relative to the submitted {@linkplain Class}) to get.
+	 * @param parser the {@linkplain RateParser} to use for property value parsing.
+	 * @param defaultValue the default value to return in case the property is not defined.
+	 * @return the property value per second or the submitted default value if the property is not defined.
+	 */
+	public static long rateValue(Class<?> clazz, String key, RateParser parser, long defaultValue) {
+		return rateValue(clazz.getName() + key, parser, defaultValue);
+	}
+
 }
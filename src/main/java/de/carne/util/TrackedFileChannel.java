@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@linkplain FileChannel} wrapper notifying a {@linkplain LeakTracker} on close.
+ */
+@SuppressWarnings("null")
+final class TrackedFileChannel extends FileChannel {
+
+	private final FileChannel channel;
+	private final LeakTracker.Registration registration;
+
+	TrackedFileChannel(FileChannel channel, LeakTracker tracker) {
+		this.channel = channel;
+		this.registration = tracker.register(this);
+	}
+
+	@Override
+	public int read(@Nullable ByteBuffer dst) throws IOException {
+		return this.channel.read(dst);
+	}
+
+	@Override
+	public long read(ByteBuffer @Nullable [] dsts, int offset, int length) throws IOException {
+		return this.channel.read(dsts, offset, length);
+	}
+
+	@Override
+	public int write(@Nullable ByteBuffer src) throws IOException {
+		return this.channel.write(src);
+	}
+
+	@Override
+	public long write(ByteBuffer @Nullable [] srcs, int offset, int length) throws IOException {
+		return this.channel.write(srcs, offset, length);
+	}
+
+	@Override
+	public long position() throws IOException {
+		return this.channel.position();
+	}
+
+	@Override
+	public FileChannel position(long newPosition) throws IOException {
+		this.channel.position(newPosition);
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		return this.channel.size();
+	}
+
+	@Override
+	public FileChannel truncate(long size) throws IOException {
+		this.channel.truncate(size);
+		return this;
+	}
+
+	@Override
+	public void force(boolean metaData) throws IOException {
+		this.channel.force(metaData);
+	}
+
+	@Override
+	public long transferTo(long position, long count, @Nullable WritableByteChannel target) throws IOException {
+		return this.channel.transferTo(position, count, target);
+	}
+
+	@Override
+	public long transferFrom(@Nullable ReadableByteChannel src, long position, long count) throws IOException {
+		return this.channel.transferFrom(src, position, count);
+	}
+
+	@Override
+	public int read(@Nullable ByteBuffer dst, long position) throws IOException {
+		return this.channel.read(dst, position);
+	}
+
+	@Override
+	public int write(@Nullable ByteBuffer src, long position) throws IOException {
+		return this.channel.write(src, position);
+	}
+
+	@Override
+	public MappedByteBuffer map(@Nullable MapMode mode, long position, long size) throws IOException {
+		return this.channel.map(mode, position, size);
+	}
+
+	@Override
+	public FileLock lock(long position, long size, boolean shared) throws IOException {
+		return this.channel.lock(position, size, shared);
+	}
+
+	@Override
+	public @Nullable FileLock tryLock(long position, long size, boolean shared) throws IOException {
+		return this.channel.tryLock(position, size, shared);
+	}
+
+	@Override
+	protected void implCloseChannel() throws IOException {
+		this.registration.closed();
+		this.channel.close();
+	}
+
+}
@@ -41,6 +41,7 @@ import java.util.Set;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 
+import de.carne.util.LeakTracker;
 import de.carne.util.logging.Log;
 
 /**
@@ -71,7 +72,7 @@ public final class UserFile {
 		Set<OpenOption> openOptions = new HashSet<>(Arrays.asList(extraOptions));
 
 		openOptions.add(StandardOpenOption.CREATE);
-		return FileChannel.open(file, openOptions, userFileAttributes(file));
+		return LeakTracker.track(FileChannel.open(file, openOptions, userFileAttributes(file)));
 	}
 
 	@SuppressWarnings("resource")
@@ -6,6 +6,7 @@
 module de.carne {
 	requires transitive java.logging;
 	requires transitive java.prefs;
+	requires jdk.unsupported;
 	requires transitive org.eclipse.jdt.annotation;
 
 	requires static org.apache.logging.log4j;
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.io.AnsiFilterOutputStream;
+
+/**
+ * Test {@linkplain AnsiFilterOutputStream} class.
+ */
+class AnsiFilterOutputStreamTest {
+
+	@Test
+	void testNoAnsi() throws IOException {
+		assertFiltered("abcdefghijklmnopqrstuvwxyz\u20ac", "abcdefghijklmnopqrstuvwxyz\u20ac");
+	}
+
+	@Test
+	void testValidAnsi() throws IOException {
+		assertFiltered("x", "\u001b\u009b@x");
+		assertFiltered("x", "\u001b\u009b0@x");
+		assertFiltered("x", "\u001b\u009b0 @x");
+		assertFiltered("abcdef\u001bxyz", "abc\u001b\u009b0@def\u001b\u009b@\u001bxyz");
+	}
+
+	@Test
+	void testUnknownAnsi() throws IOException {
+		assertFiltered("\u001b", "\u001b");
+		assertFiltered("\u001bx", "\u001bx");
+		assertFiltered("\u001b\u00c2x", "\u001b\u00c2x");
+		assertFiltered("\u001b\u0080x", "\u001b\u0080x");
+	}
+
+	private void assertFiltered(String expected, String in) throws IOException {
+		byte[] inBytes = in.getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		try (AnsiFilterOutputStream filter = new AnsiFilterOutputStream(buffer)) {
+			filter.write(inBytes);
+		}
+		Assertions.assertEquals(expected, new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+		buffer.reset();
+		try (AnsiFilterOutputStream filter = new AnsiFilterOutputStream(buffer)) {
+			for (byte b : inBytes) {
+				filter.write(b);
+			}
+		}
+		Assertions.assertEquals(expected, new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+}
@@ -37,6 +37,9 @@ class AnsiFilterTest {
 	private static final char[] OUT_VALID_ANSI_2 = "x".toCharArray();
 	private static final char[] IN_VALID_ANSI_3 = "\u001b\u009b\u0030\u0020\u0040x".toCharArray();
 	private static final char[] OUT_VALID_ANSI_3 = "x".toCharArray();
+	private static final char[] IN_MIXED_ANSI = "abc\u001b\u009b\u0030\u0040def\u001b\u009b\u0040\u001bxyz"
+			.toCharArray();
+	private static final char[] OUT_MIXED_ANSI = "abcdef\u001bxyz".toCharArray();
 	private static final char[] IN_UNKNOWN_ANSI_1 = "\u001b".toCharArray();
 	private static final char[] OUT_UNKNOWN_ANSI_1 = "\u001b".toCharArray();
 	private static final char[] IN_UNKNOWN_ANSI_2 = "\u001bx".toCharArray();
@@ -70,6 +73,13 @@ class AnsiFilterTest {
 		Assertions.assertEquals(new String(OUT_VALID_ANSI_3), filterString(new String(IN_VALID_ANSI_3)));
 	}
 
+	@Test
+	void testMixedAnsi() throws IOException {
+		Assertions.assertArrayEquals(OUT_MIXED_ANSI, filterChar(IN_MIXED_ANSI));
+		Assertions.assertArrayEquals(OUT_MIXED_ANSI, filterArray(IN_MIXED_ANSI));
+		Assertions.assertEquals(new String(OUT_MIXED_ANSI), filterString(new String(IN_MIXED_ANSI)));
+	}
+
 	@Test
 	void testUnknownAnsi1() throws IOException {
 		Assertions.assertArrayEquals(OUT_UNKNOWN_ANSI_1, filterChar(IN_UNKNOWN_ANSI_1));
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import de.carne.io.AsyncIOUtil;
+import de.carne.test.annotation.io.TempFile;
+import de.carne.test.extension.io.TempPathExtension;
+
+/**
+ * Test {@linkplain AsyncIOUtil} class.
+ */
+@ExtendWith(TempPathExtension.class)
+class AsyncIOUtilTest {
+
+	// Spans several blocks with a partial last block
+	private static final byte[] TEST_DATA = new byte[1000000];
+
+	static {
+		for (int testDataIndex = 0; testDataIndex < TEST_DATA.length; testDataIndex++) {
+			TEST_DATA[testDataIndex] = (byte) (testDataIndex * 31);
+		}
+	}
+
+	@Test
+	void testWriteAndReadAllBytes(@TempFile File file) throws IOException {
+		Path path = file.toPath();
+
+		Assertions.assertEquals(TEST_DATA.length, AsyncIOUtil.write(path, TEST_DATA).join().longValue());
+		Assertions.assertArrayEquals(TEST_DATA, Files.readAllBytes(path));
+		Assertions.assertArrayEquals(TEST_DATA, AsyncIOUtil.readAllBytes(path).join());
+		Assertions.assertArrayEquals(TEST_DATA, AsyncIOUtil.readAllBytes(path, 1).join());
+		Assertions.assertEquals(0, AsyncIOUtil.write(path, new byte[0]).join().longValue());
+		Assertions.assertArrayEquals(new byte[0], AsyncIOUtil.readAllBytes(path).join());
+	}
+
+	@Test
+	void testCopyFile(@TempFile File src, @TempFile File dst) throws IOException {
+		Files.write(src.toPath(), TEST_DATA);
+
+		Assertions.assertEquals(TEST_DATA.length,
+				AsyncIOUtil.copyFile(dst.toPath(), src.toPath(), 3).join().longValue());
+		Assertions.assertArrayEquals(TEST_DATA, Files.readAllBytes(dst.toPath()));
+		Assertions.assertEquals(TEST_DATA.length, AsyncIOUtil.copyFile(dst.toPath(), src.toPath()).join().longValue());
+		Assertions.assertArrayEquals(TEST_DATA, Files.readAllBytes(dst.toPath()));
+	}
+
+	@Test
+	void testFailure(@TempFile File file) {
+		Path missing = file.toPath().resolveSibling(file.getName() + ".missing");
+
+		CompletionException exception = Assertions.assertThrows(CompletionException.class,
+				() -> AsyncIOUtil.readAllBytes(missing).join());
+
+		Assertions.assertEquals(NoSuchFileException.class, exception.getCause().getClass());
+		Assertions.assertThrows(CompletionException.class, () -> AsyncIOUtil.copyFile(file.toPath(), missing).join());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> AsyncIOUtil.readAllBytes(file.toPath(), 0));
+	}
+
+}
@@ -17,20 +17,29 @@
 package de.carne.test.io;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.carne.io.BufferedChecksumInputStream;
+import de.carne.io.CRC32CChecksum;
 import de.carne.io.Checksum;
 import de.carne.io.ChecksumInputStream;
 import de.carne.io.ChecksumOutputStream;
 import de.carne.io.IOUtil;
 import de.carne.io.MD5Checksum;
+import de.carne.io.MultiChecksum;
 import de.carne.io.NullOutputStream;
 import de.carne.io.SHA256Checksum;
+import de.carne.io.XXHash64Checksum;
 import de.carne.text.HexBytes;
 
 /**
@@ -48,6 +57,8 @@ class ChecksumTest {
 
 	private static final String TEST_DATA_SHA256 = "40aff2e9d2d8922e47afd4648e6967497158785fbd1da870e7110266bf944880";
 	private static final String TEST_DATA_MD5 = "e2c865db4162bed963bfaa9ef6ac18f0";
+	private static final String TEST_DATA_CRC32C = "9c44184b";
+	private static final String TEST_DATA_XXHASH64 = "1facbe8406cd904b";
 
 	@Test
 	void testSHA256Checksum() throws Exception {
@@ -75,6 +86,140 @@ class ChecksumTest {
 		testChecksumOutputStream(md5, TEST_DATA_MD5);
 	}
 
+	@Test
+	void testCRC32CChecksum() throws Exception {
+		Checksum crc32c = CRC32CChecksum.getInstance();
+
+		testChecksumBulked(crc32c, TEST_DATA_CRC32C);
+		testChecksumChunked(crc32c, TEST_DATA_CRC32C);
+		testChecksumBuffered(crc32c, TEST_DATA_CRC32C);
+		testChecksumInputStream(crc32c, TEST_DATA_CRC32C);
+		testChecksumOutputStream(crc32c, TEST_DATA_CRC32C);
+	}
+
+	@Test
+	void testXXHash64Checksum() throws Exception {
+		Checksum xxHash64 = XXHash64Checksum.getInstance();
+
+		testChecksumBulked(xxHash64, TEST_DATA_XXHASH64);
+		testChecksumChunked(xxHash64, TEST_DATA_XXHASH64);
+		testChecksumBuffered(xxHash64, TEST_DATA_XXHASH64);
+		testChecksumInputStream(xxHash64, TEST_DATA_XXHASH64);
+		testChecksumOutputStream(xxHash64, TEST_DATA_XXHASH64);
+
+		xxHash64.update(new byte[0]);
+
+		Assertions.assertEquals("ef46db3751d8e999", HexBytes.toStringL(xxHash64.getValue()));
+
+		xxHash64.update("abc".getBytes());
+
+		Assertions.assertEquals("44bc2cf5ad770999", HexBytes.toStringL(xxHash64.getValue()));
+	}
+
+	@Test
+	void testMultiChecksum() throws Exception {
+		MultiChecksum multi = new MultiChecksum(MD5Checksum.getInstance(), SHA256Checksum.getInstance());
+
+		testMultiChecksum(multi);
+	}
+
+	@Test
+	void testParallelMultiChecksum() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			MultiChecksum multi = new MultiChecksum(executor, 7, 2, MD5Checksum.getInstance(),
+					SHA256Checksum.getInstance());
+
+			testMultiChecksum(multi);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void testMultiChecksum(MultiChecksum multi) throws IOException {
+		Assertions.assertEquals(2, multi.size());
+
+		testChecksumBulked(multi, TEST_DATA_MD5 + TEST_DATA_SHA256);
+		testChecksumChunked(multi, TEST_DATA_MD5 + TEST_DATA_SHA256);
+		multi.reset();
+		testChecksumInputStream(multi, TEST_DATA_MD5 + TEST_DATA_SHA256);
+		multi.reset();
+		testChecksumOutputStream(multi, TEST_DATA_MD5 + TEST_DATA_SHA256);
+		multi.update(new byte[] { 0x01, 0x02 });
+		multi.reset();
+		multi.update(ByteBuffer.wrap(TEST_DATA));
+
+		byte[][] values = multi.getValues();
+
+		Assertions.assertEquals(TEST_DATA_MD5, HexBytes.toStringL(values[0]));
+		Assertions.assertEquals(TEST_DATA_SHA256, HexBytes.toStringL(values[1]));
+	}
+
+	@Test
+	void testBufferedChecksumInputStream() throws Exception {
+		Checksum sha256 = SHA256Checksum.getInstance();
+
+		try (BufferedChecksumInputStream in = new BufferedChecksumInputStream(new ByteArrayInputStream(TEST_DATA),
+				sha256, 16)) {
+			Assertions.assertTrue(in.markSupported());
+			Assertions.assertThrows(IOException.class, in::reset);
+			Assertions.assertEquals(0, in.read());
+			in.mark(64);
+
+			byte[] buffer1 = new byte[40];
+			byte[] buffer2 = new byte[40];
+
+			Assertions.assertEquals(buffer1.length, in.readNBytes(buffer1, 0, buffer1.length));
+			in.reset();
+			Assertions.assertEquals(buffer2.length, in.readNBytes(buffer2, 0, buffer2.length));
+			Assertions.assertArrayEquals(buffer1, buffer2);
+			Assertions.assertEquals(1, buffer1[0]);
+			in.skipNBytes(19);
+			Assertions.assertEquals(60, in.read());
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+			Assertions.assertEquals(TEST_DATA.length - 61, in.transferTo(out));
+			Assertions.assertEquals(TEST_DATA.length - 61, out.size());
+			Assertions.assertEquals(-1, in.read());
+			Assertions.assertEquals(0, in.skip(1));
+			Assertions.assertThrows(EOFException.class, () -> in.skipNBytes(1));
+			Assertions.assertEquals(TEST_DATA_SHA256, HexBytes.toStringL(in.getChecksumValue()));
+		}
+		try (BufferedChecksumInputStream in = new BufferedChecksumInputStream(new ByteArrayInputStream(TEST_DATA),
+				sha256, 16)) {
+			in.mark(1);
+			in.skip(100);
+			Assertions.assertThrows(IOException.class, in::reset);
+			Assertions.assertEquals(TEST_DATA.length - 100, in.readAllBytes().length);
+			Assertions.assertEquals(TEST_DATA_SHA256, HexBytes.toStringL(in.getChecksumValue()));
+		}
+	}
+
+	@Test
+	void testChecksumInputStreamSkip() throws Exception {
+		int[] readCount = new int[1];
+		InputStream countingIn = new ByteArrayInputStream(TEST_DATA) {
+
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				readCount[0]++;
+				return super.read(b, off, len);
+			}
+
+		};
+
+		try (ChecksumInputStream in = new ChecksumInputStream(countingIn, SHA256Checksum.getInstance())) {
+			Assertions.assertEquals(1, in.skip(1));
+			// A preceding small skip must not shrink the chunk size of a larger one
+			Assertions.assertEquals(TEST_DATA.length - 2, in.skip(TEST_DATA.length - 2));
+			Assertions.assertEquals(2, readCount[0]);
+			Assertions.assertEquals(1, in.skip(TEST_DATA.length));
+			Assertions.assertEquals(TEST_DATA_SHA256, HexBytes.toStringL(in.getChecksumValue()));
+		}
+	}
+
 	private void testChecksumBulked(Checksum checksum, String expected) {
 		checksum.reset();
 		checksum.update(TEST_DATA);
@@ -96,6 +241,24 @@ class ChecksumTest {
 		Assertions.assertEquals(expected, actual);
 	}
 
+	private void testChecksumBuffered(Checksum checksum, String expected) {
+		checksum.reset();
+
+		ByteBuffer heapBuffer = ByteBuffer.wrap(TEST_DATA, 0, 5);
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(TEST_DATA.length);
+
+		directBuffer.put(TEST_DATA).position(5);
+		checksum.update(heapBuffer);
+		checksum.update(directBuffer);
+
+		Assertions.assertFalse(heapBuffer.hasRemaining());
+		Assertions.assertFalse(directBuffer.hasRemaining());
+
+		String actual = HexBytes.toStringL(checksum.getValue());
+
+		Assertions.assertEquals(expected, actual);
+	}
+
 	private void testChecksumInputStream(Checksum checksum, String expected) throws IOException {
 		String actual;
 
@@ -18,7 +18,11 @@ package de.carne.test.io;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Assertions;
@@ -108,4 +112,40 @@ class CloseablesTest {
 		Assertions.assertEquals(1, outerException.getSuppressed().length);
 	}
 
+	@Test
+	void testCloseAllParallel() throws IOException {
+		final AtomicInteger closeCounter = new AtomicInteger();
+		@SuppressWarnings("resource") Closeable closeable = () -> closeCounter.incrementAndGet();
+		@SuppressWarnings("resource") Closeable hangingCloseable = () -> {
+			try {
+				Thread.sleep(10000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		Assertions.assertEquals(Collections.emptyList(), Closeables.closeAllParallel(2, Duration.ofSeconds(10),
+				Arrays.asList(closeable, null, closeable, closeable)));
+		Assertions.assertEquals(3, closeCounter.get());
+		Assertions.assertEquals(Arrays.asList(hangingCloseable), Closeables.closeAllParallel(2,
+				Duration.ofMillis(100), Arrays.asList(closeable, hangingCloseable, closeable)));
+		Assertions.assertEquals(5, closeCounter.get());
+
+		IOException exception = Assertions.assertThrows(IOException.class, () -> {
+			Closeables.closeAllParallel(ForkJoinPool.commonPool(), Duration.ofSeconds(10),
+					Arrays.asList(closeable, FAILING_CLOSEABLE, closeable, FAILING_CLOSEABLE));
+		});
+
+		Assertions.assertEquals(1, exception.getSuppressed().length);
+		Assertions.assertEquals(7, closeCounter.get());
+
+		exception = Assertions.assertThrows(IOException.class, () -> {
+			Closeables.closeAllParallel(2, Duration.ofMillis(100),
+					Arrays.asList(hangingCloseable, FAILING_CLOSEABLE, closeable));
+		});
+
+		Assertions.assertEquals(TimeoutException.class, exception.getSuppressed()[0].getClass());
+		Assertions.assertEquals(8, closeCounter.get());
+	}
+
 }
@@ -16,6 +16,11 @@
  */
 package de.carne.test.io;
 
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -26,13 +31,161 @@ import de.carne.io.ConsoleWriter;
  */
 class ConsoleWriterTest {
 
+	private static final String FORCE_ANSI_OUTPUT_PROPERTY = ConsoleWriter.class.getName() + ".forceAnsiOutput";
+
+	private static final long FLUSH_TIMEOUT = 10000;
+
+	// Records the written text and the text available at every flush
+	private static class ObservedWriter extends Writer {
+
+		private final StringBuilder written = new StringBuilder();
+		private final List<String> flushed = new ArrayList<>();
+
+		@Override
+		public synchronized void write(char @Nullable [] cbuf, int off, int len) {
+			this.written.append(cbuf, off, len);
+		}
+
+		@Override
+		public synchronized void flush() {
+			this.flushed.add(this.written.toString());
+		}
+
+		@Override
+		public void close() {
+			// Nothing to do here
+		}
+
+		synchronized String written() {
+			return this.written.toString();
+		}
+
+		synchronized String lastFlushed() {
+			return (this.flushed.isEmpty() ? "" : this.flushed.get(this.flushed.size() - 1));
+		}
+
+	}
+
 	@Test
 	void testAnsiEnabled() {
-		System.setProperty(ConsoleWriter.class.getName() + ".forceAnsiOutput", Boolean.TRUE.toString());
+		String forceAnsiOutput = System.getProperty(FORCE_ANSI_OUTPUT_PROPERTY);
+
+		System.setProperty(FORCE_ANSI_OUTPUT_PROPERTY, Boolean.TRUE.toString());
+		try {
+			// Not closed, as this would close the standard output (no background flush is registered for LINE)
+			@SuppressWarnings("resource") ConsoleWriter cw = new ConsoleWriter();
+
+			Assertions.assertTrue(cw.isAnsiEnabled());
+			Assertions.assertSame(ConsoleWriter.FlushPolicy.LINE, cw.getFlushPolicy());
+		} finally {
+			if (forceAnsiOutput != null) {
+				System.setProperty(FORCE_ANSI_OUTPUT_PROPERTY, forceAnsiOutput);
+			} else {
+				System.clearProperty(FORCE_ANSI_OUTPUT_PROPERTY);
+			}
+		}
+	}
+
+	@Test
+	void testFlushPolicies() {
+		Assertions.assertEquals("LINE", ConsoleWriter.FlushPolicy.LINE.toString());
+		Assertions.assertEquals("EXPLICIT", ConsoleWriter.FlushPolicy.EXPLICIT.toString());
+		Assertions.assertEquals("SIZE(16)", ConsoleWriter.FlushPolicy.size(16).toString());
+		Assertions.assertEquals("INTERVAL(10 ms)", ConsoleWriter.FlushPolicy.interval(10).toString());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ConsoleWriter.FlushPolicy.size(0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ConsoleWriter.FlushPolicy.interval(0));
+	}
+
+	@Test
+	void testLineFlushPolicy() {
+		ObservedWriter out = new ObservedWriter();
+
+		try (ConsoleWriter cw = new ConsoleWriter(out, ConsoleWriter.FlushPolicy.LINE)) {
+			Assertions.assertSame(ConsoleWriter.FlushPolicy.LINE, cw.getFlushPolicy());
+
+			cw.print("abc");
+
+			Assertions.assertEquals("", out.lastFlushed());
+
+			cw.println("def");
+
+			Assertions.assertEquals("abcdef" + System.lineSeparator(), out.lastFlushed());
+			Assertions.assertFalse(cw.checkError());
+		}
+	}
+
+	@Test
+	void testSizeFlushPolicy() {
+		ObservedWriter out = new ObservedWriter();
+
+		try (ConsoleWriter cw = new ConsoleWriter(out, ConsoleWriter.FlushPolicy.size(4))) {
+			cw.print("abc");
+
+			Assertions.assertEquals("", out.written());
+
+			cw.print('d');
+
+			Assertions.assertEquals("abcd", out.lastFlushed());
+
+			cw.print("efghijk");
+
+			Assertions.assertEquals("abcdefgh", out.lastFlushed());
+			Assertions.assertEquals("abcdefgh", out.written());
+
+			cw.flush();
+
+			Assertions.assertEquals("abcdefghijk", out.lastFlushed());
+			Assertions.assertFalse(cw.checkError());
+		}
+	}
+
+	@Test
+	void testExplicitFlushPolicy() {
+		ObservedWriter out = new ObservedWriter();
+
+		try (ConsoleWriter cw = new ConsoleWriter(out, ConsoleWriter.FlushPolicy.EXPLICIT)) {
+			for (int lineIndex = 0; lineIndex < 10; lineIndex++) {
+				cw.println("line " + lineIndex);
+			}
+
+			Assertions.assertEquals("", out.written());
+
+			cw.flush();
+
+			Assertions.assertTrue(out.lastFlushed().startsWith("line 0"));
+			Assertions.assertTrue(out.lastFlushed().contains("line 9"));
+			Assertions.assertFalse(cw.checkError());
+		}
+	}
+
+	@Test
+	void testIntervalFlushPolicy() throws InterruptedException {
+		ObservedWriter out = new ObservedWriter();
+
+		try (ConsoleWriter cw = new ConsoleWriter(out, ConsoleWriter.FlushPolicy.interval(10))) {
+			cw.print("abc");
+
+			// Flushed by the background thread without any further call
+			long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT;
+
+			while (!"abc".equals(out.lastFlushed()) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+
+			Assertions.assertEquals("abc", out.lastFlushed());
+			Assertions.assertFalse(cw.checkError());
+		}
+	}
+
+	@Test
+	void testClose() {
+		ObservedWriter out = new ObservedWriter();
+		ConsoleWriter cw = new ConsoleWriter(out, ConsoleWriter.FlushPolicy.EXPLICIT);
 
-		@SuppressWarnings("resource") ConsoleWriter cw = new ConsoleWriter();
+		cw.print("abc");
+		cw.close();
 
-		Assertions.assertTrue(cw.isAnsiEnabled());
+		Assertions.assertEquals("abc", out.lastFlushed());
 	}
 
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.io.ChecksumOutputStream;
+import de.carne.io.FanOutOutputStream;
+import de.carne.io.NullOutputStream;
+import de.carne.io.XXHash64Checksum;
+
+/**
+ * Test {@linkplain FanOutOutputStream} class.
+ */
+class FanOutOutputStreamTest {
+
+	private static final byte[] TEST_DATA = new byte[100000];
+
+	static {
+		for (int testDataIndex = 0; testDataIndex < TEST_DATA.length; testDataIndex++) {
+			TEST_DATA[testDataIndex] = (byte) (testDataIndex & 0xff);
+		}
+	}
+
+	private static class FailingOutputStream extends OutputStream {
+
+		private final String message;
+		private final int failAfter;
+		private int written = 0;
+		boolean closed = false;
+
+		FailingOutputStream(String message, int failAfter) {
+			this.message = message;
+			this.failAfter = failAfter;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte @Nullable [] b, int off, int len) throws IOException {
+			this.written += len;
+			if (this.written > this.failAfter) {
+				throw new IOException(this.message);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.closed = true;
+			throw new IOException(this.message + " (close)");
+		}
+
+	}
+
+	private static class BrokenOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			throw new IllegalStateException("Broken sink");
+		}
+
+	}
+
+	@Test
+	void testSynchronousMode() throws IOException {
+		testMode(FanOutOutputStream.Mode.SYNCHRONOUS);
+	}
+
+	@Test
+	void testBackpressureMode() throws IOException {
+		testMode(FanOutOutputStream.Mode.BACKPRESSURE);
+	}
+
+	private void testMode(FanOutOutputStream.Mode mode) throws IOException {
+		ByteArrayOutputStream sink1 = new ByteArrayOutputStream();
+		ByteArrayOutputStream sink2 = new ByteArrayOutputStream();
+		ChecksumOutputStream sink3 = new ChecksumOutputStream(new NullOutputStream(), XXHash64Checksum.getInstance());
+
+		try (FanOutOutputStream out = new FanOutOutputStream(mode, 2, Arrays.asList(sink1, sink2, sink3))) {
+			Assertions.assertEquals(mode, out.getMode());
+
+			int written = 0;
+
+			out.write(TEST_DATA[written++]);
+			while (written < TEST_DATA.length) {
+				int len = Math.min(written, TEST_DATA.length - written);
+
+				out.write(TEST_DATA, written, len);
+				written += len;
+			}
+			out.flush();
+
+			Assertions.assertArrayEquals(TEST_DATA, sink1.toByteArray());
+		}
+		Assertions.assertArrayEquals(TEST_DATA, sink1.toByteArray());
+		Assertions.assertArrayEquals(TEST_DATA, sink2.toByteArray());
+
+		XXHash64Checksum checksum = XXHash64Checksum.getInstance();
+
+		checksum.update(TEST_DATA);
+
+		Assertions.assertArrayEquals(checksum.getValue(), sink3.getChecksumValue());
+	}
+
+	@Test
+	void testFailures() {
+		testFailures(FanOutOutputStream.Mode.SYNCHRONOUS);
+		testFailures(FanOutOutputStream.Mode.BACKPRESSURE);
+	}
+
+	private void testFailures(FanOutOutputStream.Mode mode) {
+		ByteArrayOutputStream sink1 = new ByteArrayOutputStream();
+		FailingOutputStream sink2 = new FailingOutputStream("sink2", 10);
+		FailingOutputStream sink3 = new FailingOutputStream("sink3", 1000);
+
+		IOException exception = Assertions.assertThrows(IOException.class, () -> {
+			try (FanOutOutputStream out = new FanOutOutputStream(mode, 1, Arrays.asList(sink1, sink2, sink3))) {
+				out.write(TEST_DATA);
+			}
+		});
+
+		Set<String> messages = new HashSet<>();
+
+		collectMessages(messages, exception);
+
+		Assertions.assertEquals(new HashSet<>(Arrays.asList("sink2", "sink2 (close)", "sink3", "sink3 (close)")),
+				messages);
+		Assertions.assertTrue(sink2.closed);
+		Assertions.assertTrue(sink3.closed);
+		// Healthy sinks receive all data
+		Assertions.assertArrayEquals(TEST_DATA, sink1.toByteArray());
+	}
+
+	@Test
+	void testRuntimeFailures() {
+		testRuntimeFailures(FanOutOutputStream.Mode.SYNCHRONOUS);
+		testRuntimeFailures(FanOutOutputStream.Mode.BACKPRESSURE);
+	}
+
+	private void testRuntimeFailures(FanOutOutputStream.Mode mode) {
+		ByteArrayOutputStream sink1 = new ByteArrayOutputStream();
+		BrokenOutputStream sink2 = new BrokenOutputStream();
+		List<IOException> reported = new ArrayList<>();
+
+		try (FanOutOutputStream out = new FanOutOutputStream(mode, 1, Arrays.asList(sink1, sink2))) {
+			// Enough chunks to exceed the queue of the broken sink
+			for (int written = 0; written < TEST_DATA.length; written += 100) {
+				try {
+					out.write(TEST_DATA, written, 100);
+				} catch (IOException e) {
+					reported.add(e);
+				}
+			}
+		} catch (IOException e) {
+			reported.add(e);
+		}
+
+		// The failure is reported once and the healthy sink receives all data
+		Assertions.assertEquals(1, reported.size());
+		Assertions.assertTrue(reported.get(0).getCause() instanceof IllegalStateException);
+		Assertions.assertArrayEquals(TEST_DATA, sink1.toByteArray());
+	}
+
+	private void collectMessages(Set<String> messages, Throwable exception) {
+		messages.add(exception.getMessage());
+		for (Throwable suppressed : exception.getSuppressed()) {
+			collectMessages(messages, suppressed);
+		}
+	}
+
+}
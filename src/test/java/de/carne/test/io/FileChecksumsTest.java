@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import de.carne.io.Checksum;
+import de.carne.io.FileChecksums;
+import de.carne.io.MessageDigestChecksum;
+import de.carne.io.XXHash64Checksum;
+import de.carne.test.annotation.io.TempFile;
+import de.carne.test.extension.io.TempPathExtension;
+
+/**
+ * Test {@linkplain FileChecksums} class.
+ */
+@ExtendWith(TempPathExtension.class)
+class FileChecksumsTest {
+
+	private static final byte[] TEST_DATA = new byte[1000];
+
+	static {
+		for (int testDataIndex = 0; testDataIndex < TEST_DATA.length; testDataIndex++) {
+			TEST_DATA[testDataIndex] = (byte) (testDataIndex & 0xff);
+		}
+	}
+
+	@Test
+	void testChecksum(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		Checksum checksum = XXHash64Checksum.getInstance();
+
+		checksum.update(TEST_DATA);
+
+		byte[] expected = checksum.getValue();
+
+		Assertions.assertArrayEquals(expected, FileChecksums.checksum(file.toPath(), checksum));
+		Assertions.assertThrows(NoSuchFileException.class, () -> {
+			FileChecksums.checksum(file.toPath().resolveSibling(file.getName() + ".missing"), checksum);
+		});
+	}
+
+	@Test
+	void testTreeChecksum(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		// 1000 bytes / 300 byte chunks -> 4 leaves -> 2 nodes -> root
+		byte[] leaf1 = leaf(0, 300);
+		byte[] leaf2 = leaf(300, 300);
+		byte[] leaf3 = leaf(600, 300);
+		byte[] leaf4 = leaf(900, 100);
+		byte[] expected = node(node(leaf1, leaf2), node(leaf3, leaf4));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			Assertions.assertArrayEquals(expected,
+					FileChecksums.treeChecksum(file.toPath(), XXHash64Checksum::getInstance, 300, executor));
+			// 1000 bytes / 400 byte chunks -> 3 leaves -> node + promoted leaf -> root
+			Assertions.assertArrayEquals(node(node(leaf(0, 400), leaf(400, 400)), leaf(800, 200)),
+					FileChecksums.treeChecksum(file.toPath(), XXHash64Checksum::getInstance, 400, executor));
+		} finally {
+			executor.shutdown();
+		}
+		Assertions.assertArrayEquals(leaf(0, TEST_DATA.length),
+				FileChecksums.treeChecksum(file.toPath(), XXHash64Checksum::getInstance));
+	}
+
+	@Test
+	void testTreeChecksumFailure(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		// The first leaf fails right away, the remaining ones (1000 bytes / 100 byte chunks -> 9) take some time
+		AtomicInteger startedLeaves = new AtomicInteger();
+		AtomicInteger completedLeaves = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			Assertions.assertThrows(IllegalStateException.class,
+					() -> FileChecksums.treeChecksum(file.toPath(), () -> {
+						if (startedLeaves.getAndIncrement() == 0) {
+							throw new IllegalStateException("Leaf failure");
+						}
+						return slowChecksum(completedLeaves);
+					}, 100, executor));
+			// No leaf is still running (and hence no leaf has been cut off by closing the file)
+			Assertions.assertEquals(9, completedLeaves.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static Checksum slowChecksum(AtomicInteger completed) {
+		try {
+			Thread.sleep(50);
+			return new MessageDigestChecksum(MessageDigest.getInstance("MD5")) {
+
+				@Override
+				public byte[] getValue() {
+					completed.incrementAndGet();
+					return super.getValue();
+				}
+
+			};
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] leaf(int off, int len) {
+		Checksum checksum = XXHash64Checksum.getInstance();
+
+		checksum.update((byte) 0x00);
+		checksum.update(TEST_DATA, off, len);
+		return checksum.getValue();
+	}
+
+	private static byte[] node(byte[] left, byte[] right) {
+		Checksum checksum = XXHash64Checksum.getInstance();
+
+		checksum.update((byte) 0x01);
+		checksum.update(left);
+		checksum.update(right);
+		return checksum.getValue();
+	}
+
+}
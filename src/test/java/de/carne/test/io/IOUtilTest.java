@@ -26,13 +26,21 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import de.carne.io.CompressionStats;
+import de.carne.io.Defaults;
 import de.carne.io.IOUtil;
+import de.carne.io.ParallelGzipOutputStream;
 import de.carne.test.annotation.io.TempFile;
 import de.carne.test.extension.io.TempPathExtension;
 
@@ -169,4 +177,142 @@ class IOUtilTest {
 		Assertions.assertArrayEquals(fileDataOutputStream.toByteArray(), buffer);
 	}
 
+	@Test
+	void testGzip(@TempFile File file1, @TempFile File file2, @TempFile File file3) throws IOException {
+		// Multiple blocks of compressible data
+		byte[] data = new byte[ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE * 3 + 1234];
+
+		for (int dataIndex = 0; dataIndex < data.length; dataIndex++) {
+			data[dataIndex] = (byte) ((dataIndex * dataIndex) >>> 8);
+		}
+
+		ByteArrayOutputStream compressedOutputStream = new ByteArrayOutputStream();
+		CompressionStats compressStats = IOUtil.gzipStream(compressedOutputStream,
+				new ByteArrayInputStream(data));
+		byte[] compressed = compressedOutputStream.toByteArray();
+
+		Assertions.assertEquals(data.length, compressStats.uncompressedBytes());
+		Assertions.assertEquals(compressed.length, compressStats.compressedBytes());
+		Assertions.assertTrue(compressStats.ratio() < 1.0);
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			Assertions.assertArrayEquals(data, IOUtil.readAllBytes(in));
+		}
+
+		ByteArrayOutputStream decompressedOutputStream = new ByteArrayOutputStream();
+		CompressionStats decompressStats = IOUtil.gunzipStream(decompressedOutputStream,
+				new ByteArrayInputStream(compressed));
+
+		Assertions.assertArrayEquals(data, decompressedOutputStream.toByteArray());
+		Assertions.assertEquals(data.length, decompressStats.uncompressedBytes());
+		Assertions.assertEquals(compressed.length, decompressStats.compressedBytes());
+
+		// File based and empty input
+		IOUtil.copyStream(file1, new ByteArrayInputStream(data));
+		IOUtil.gzipFile(file2, file1);
+		IOUtil.gunzipFile(file3, file2);
+
+		Assertions.assertArrayEquals(data, IOUtil.readAllBytes(file3));
+
+		compressedOutputStream.reset();
+		IOUtil.gzipStream(compressedOutputStream, new ByteArrayInputStream(new byte[0]));
+		decompressedOutputStream.reset();
+		IOUtil.gunzipStream(decompressedOutputStream, new ByteArrayInputStream(compressedOutputStream.toByteArray()));
+
+		Assertions.assertEquals(0, decompressedOutputStream.size());
+
+		// Failing input
+		InputStream failingInputStream = new InputStream() {
+
+			@Override
+			public int read() throws IOException {
+				throw new IOException("Read failure");
+			}
+
+		};
+
+		Assertions.assertThrows(IOException.class,
+				() -> IOUtil.gzipStream(new ByteArrayOutputStream(), failingInputStream));
+	}
+
+	@Test
+	void testGunzipMemberAtBlockBoundary() throws IOException {
+		// The first member ends exactly at the end of the first read ahead block and the following data only becomes
+		// available after the first member has been decompressed completely
+		int blockSize = Defaults.DEFAULT_BUFFER_SIZE << 4;
+		byte[] data1 = "first member".getBytes();
+		byte[] data2 = "second member".getBytes();
+		byte[] member1 = gzipWithComment(data1, blockSize);
+		byte[] member2 = gzipWithComment(data2, 0);
+		byte[] compressed = new byte[member1.length + member2.length];
+
+		Assertions.assertEquals(blockSize, member1.length);
+		System.arraycopy(member1, 0, compressed, 0, member1.length);
+		System.arraycopy(member2, 0, compressed, member1.length, member2.length);
+
+		CountDownLatch member1Decompressed = new CountDownLatch(1);
+		ByteArrayOutputStream decompressedOutputStream = new ByteArrayOutputStream() {
+
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				super.write(b, off, len);
+				if (size() >= data1.length) {
+					member1Decompressed.countDown();
+				}
+			}
+
+		};
+		InputStream compressedInputStream = new ByteArrayInputStream(compressed) {
+
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				if (this.pos >= blockSize) {
+					try {
+						if (!member1Decompressed.await(10, TimeUnit.SECONDS)) {
+							return -1;
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return -1;
+					}
+				}
+				int readLimit = (this.pos < blockSize ? blockSize : this.count);
+
+				return super.read(b, off, Math.min(len, readLimit - this.pos));
+			}
+
+		};
+		CompressionStats decompressStats = IOUtil.gunzipStream(decompressedOutputStream, compressedInputStream);
+		byte[] data = new byte[data1.length + data2.length];
+
+		System.arraycopy(data1, 0, data, 0, data1.length);
+		System.arraycopy(data2, 0, data, data1.length, data2.length);
+
+		Assertions.assertArrayEquals(data, decompressedOutputStream.toByteArray());
+		Assertions.assertEquals(compressed.length, decompressStats.compressedBytes());
+	}
+
+	private static byte[] gzipWithComment(byte[] data, int memberSize) throws IOException {
+		ByteArrayOutputStream gzipOutputStream = new ByteArrayOutputStream();
+
+		try (GZIPOutputStream out = new GZIPOutputStream(gzipOutputStream)) {
+			out.write(data);
+		}
+
+		byte[] gzip = gzipOutputStream.toByteArray();
+
+		if (memberSize > 0) {
+			// Pad the member to the requested size via a (zero terminated) comment following the fixed size header
+			int headerSize = 10;
+			byte[] paddedGzip = new byte[memberSize];
+
+			System.arraycopy(gzip, 0, paddedGzip, 0, headerSize);
+			paddedGzip[3] = 0x10;
+			Arrays.fill(paddedGzip, headerSize, memberSize - gzip.length + headerSize - 1, (byte) 'x');
+			System.arraycopy(gzip, headerSize, paddedGzip, memberSize - gzip.length + headerSize,
+					gzip.length - headerSize);
+			gzip = paddedGzip;
+		}
+		return gzip;
+	}
+
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import de.carne.io.MappedByteString;
+import de.carne.io.MappedFile;
+import de.carne.test.annotation.io.TempFile;
+import de.carne.test.extension.io.TempPathExtension;
+import de.carne.util.ByteString;
+
+/**
+ * Test {@linkplain MappedFile} class.
+ */
+@ExtendWith(TempPathExtension.class)
+class MappedFileTest {
+
+	private static final byte[] TEST_DATA = new byte[1000];
+
+	static {
+		for (int testDataIndex = 0; testDataIndex < TEST_DATA.length; testDataIndex++) {
+			TEST_DATA[testDataIndex] = (byte) (testDataIndex & 0xff);
+		}
+	}
+
+	@Test
+	void testMappedFile(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		MappedFile mappedFile;
+
+		try (MappedFile mappedFile0 = MappedFile.open(file.toPath())) {
+			mappedFile = mappedFile0;
+
+			Assertions.assertEquals(TEST_DATA.length, mappedFile.size());
+			Assertions.assertEquals(ByteBuffer.wrap(TEST_DATA), mappedFile.buffer());
+			Assertions.assertTrue(mappedFile.buffer().isReadOnly());
+
+			MappedByteString byteString = mappedFile.byteString();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+			byteString.write(out);
+
+			Assertions.assertArrayEquals(TEST_DATA, out.toByteArray());
+			Assertions.assertArrayEquals(TEST_DATA, byteString.bytes());
+			Assertions.assertTrue(byteString.contentEquals(ByteString.wrap(TEST_DATA)));
+			Assertions.assertEquals(ByteString.wrap(TEST_DATA), byteString.toByteString());
+			Assertions.assertEquals(ByteString.wrap(TEST_DATA).toString(), byteString.toString());
+			Assertions.assertEquals(ByteString.wrap(TEST_DATA).hashCode(), byteString.hashCode());
+
+			MappedByteString slice = byteString.slice(256, 4);
+
+			Assertions.assertEquals(ByteString.wrap(TEST_DATA, 256, 4), slice.toByteString());
+			Assertions.assertEquals(1, slice.byteAt(1));
+			Assertions.assertEquals(slice, byteString.slice(512, 4));
+			Assertions.assertTrue(slice.compareTo(byteString.slice(257, 4)) < 0);
+		}
+		Assertions.assertTrue(mappedFile.isClosed());
+		Assertions.assertThrows(IllegalStateException.class, mappedFile::buffer);
+		Assertions.assertThrows(IllegalStateException.class, () -> mappedFile.byteString());
+		mappedFile.close();
+	}
+
+	@Test
+	void testClosedByteString(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		MappedByteString byteString;
+
+		try (MappedFile mappedFile = MappedFile.open(file.toPath())) {
+			byteString = mappedFile.byteString();
+		}
+
+		MappedByteString closedByteString = byteString;
+
+		Assertions.assertEquals(TEST_DATA.length, closedByteString.length());
+		Assertions.assertThrows(IllegalStateException.class, () -> closedByteString.byteAt(0));
+		Assertions.assertThrows(IllegalStateException.class, closedByteString::bytes);
+		Assertions.assertThrows(IllegalStateException.class, closedByteString::asBuffer);
+		Assertions.assertThrows(IllegalStateException.class, closedByteString::hashCode);
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> closedByteString.write(new ByteArrayOutputStream()));
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> closedByteString.contentEquals(ByteString.wrap(TEST_DATA)));
+		Assertions.assertThrows(IllegalStateException.class, () -> closedByteString.compareTo(closedByteString));
+	}
+
+	@Test
+	void testCompareMappings(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		try (MappedFile mappedFile1 = MappedFile.open(file.toPath());
+				MappedFile mappedFile2 = MappedFile.open(file.toPath())) {
+			MappedByteString byteString1 = mappedFile1.byteString();
+			MappedByteString byteString2 = mappedFile2.byteString();
+
+			Assertions.assertEquals(0, byteString1.compareTo(byteString2));
+			Assertions.assertEquals(byteString1, byteString2);
+			Assertions.assertTrue(byteString1.slice(0, 10).compareTo(byteString2) < 0);
+			Assertions.assertTrue(byteString1.compareTo(byteString2.slice(0, 10)) > 0);
+			Assertions.assertTrue(byteString1.slice(1, 10).compareTo(byteString2.slice(2, 10)) < 0);
+		}
+	}
+
+	@Test
+	void testCompareUnsigned(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		ByteString byteString = ByteString.wrap(TEST_DATA);
+
+		try (MappedFile mappedFile1 = MappedFile.open(file.toPath());
+				MappedFile mappedFile2 = MappedFile.open(file.toPath())) {
+			MappedByteString byteString1 = mappedFile1.byteString();
+			MappedByteString byteString2 = mappedFile2.byteString();
+
+			// 0x80 and above must sort after 0x7f (like ByteString does)
+			Assertions.assertTrue(byteString.slice(128, 2).compareTo(byteString.slice(127, 2)) > 0);
+			Assertions.assertTrue(byteString1.slice(128, 2).compareTo(byteString1.slice(127, 2)) > 0);
+			Assertions.assertTrue(byteString1.slice(127, 2).compareTo(byteString1.slice(128, 2)) < 0);
+			Assertions.assertTrue(byteString1.slice(128, 2).compareTo(byteString2.slice(127, 2)) > 0);
+			Assertions.assertTrue(byteString1.slice(127, 2).compareTo(byteString2.slice(255, 2)) < 0);
+			Assertions.assertTrue(byteString1.slice(255, 1).compareTo(byteString2.slice(0, 1)) > 0);
+		}
+	}
+
+	@Test
+	void testConcurrentClose(@TempFile File file) throws IOException, InterruptedException {
+		Files.write(file.toPath(), new byte[1 << 20]);
+
+		MappedFile mappedFile = MappedFile.open(file.toPath());
+		MappedByteString byteString = mappedFile.byteString();
+		Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		CountDownLatch started = new CountDownLatch(4);
+		List<Thread> readers = new ArrayList<>();
+
+		for (int readerIndex = 0; readerIndex < 4; readerIndex++) {
+			Thread reader = new Thread(() -> {
+				started.countDown();
+				try {
+					while (!Thread.currentThread().isInterrupted()) {
+						byteString.bytes();
+						byteString.hashCode();
+					}
+				} catch (IllegalStateException e) {
+					// Expected as soon as the mapping has been closed
+				} catch (RuntimeException e) {
+					failures.add(e);
+				}
+			});
+
+			reader.start();
+			readers.add(reader);
+		}
+		started.await();
+		mappedFile.close();
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		Assertions.assertTrue(failures.isEmpty());
+	}
+
+	@Test
+	void testMappedEmptyFile(@TempFile File file) throws IOException {
+		try (MappedFile mappedFile = MappedFile.open(file.toPath())) {
+			Assertions.assertEquals(0, mappedFile.size());
+			Assertions.assertEquals(0, mappedFile.byteString().length());
+			Assertions.assertEquals("", mappedFile.byteString().toString());
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.io.IOUtil;
+import de.carne.io.PrefetchInputStream;
+
+/**
+ * Test {@linkplain PrefetchInputStream} class.
+ */
+class PrefetchInputStreamTest {
+
+	private static final byte[] TEST_DATA = new byte[10000];
+
+	static {
+		for (int testDataIndex = 0; testDataIndex < TEST_DATA.length; testDataIndex++) {
+			TEST_DATA[testDataIndex] = (byte) (testDataIndex & 0xff);
+		}
+	}
+
+	private static class ObservedInputStream extends InputStream {
+
+		private final InputStream in = new ByteArrayInputStream(TEST_DATA);
+		// One permit per read call
+		final Semaphore readPermits;
+		final Semaphore readBytes = new Semaphore(0);
+
+		ObservedInputStream(int readPermits) {
+			this.readPermits = new Semaphore(readPermits);
+		}
+
+		@Override
+		public int read() throws IOException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int read(byte @Nullable [] b, int off, int len) throws IOException {
+			try {
+				this.readPermits.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+
+			int read = this.in.read(b, off, len);
+
+			if (read > 0) {
+				this.readBytes.release(read);
+			}
+			return read;
+		}
+
+	}
+
+	private static class FailingInputStream extends InputStream {
+
+		@Override
+		public int read() throws IOException {
+			throw new IOException("Read failure");
+		}
+
+	}
+
+	private static class BrokenInputStream extends InputStream {
+
+		@Override
+		public int read() throws IOException {
+			throw new IllegalStateException("Broken source");
+		}
+
+	}
+
+	@Test
+	void testRead() throws IOException {
+		try (InputStream in = new PrefetchInputStream(new ByteArrayInputStream(TEST_DATA), 1000, 3)) {
+			byte[] buffer = new byte[TEST_DATA.length];
+
+			Assertions.assertEquals(0, in.read());
+			Assertions.assertEquals(9, in.skip(9));
+			Assertions.assertEquals(10, in.read(buffer, 10, 10));
+			Assertions.assertEquals(980, IOUtil.readEager(in, buffer, 20, 980));
+			Assertions.assertEquals(TEST_DATA.length - 1000,
+					IOUtil.readBlocking(in, buffer, 1000, buffer.length - 1000));
+			buffer[0] = 0;
+			for (int bufferIndex = 1; bufferIndex < 10; bufferIndex++) {
+				buffer[bufferIndex] = (byte) bufferIndex;
+			}
+			Assertions.assertArrayEquals(TEST_DATA, buffer);
+			Assertions.assertEquals(-1, in.read());
+			Assertions.assertEquals(-1, in.read(buffer));
+			Assertions.assertThrows(EOFException.class, () -> IOUtil.readEager(in, buffer, 0, 1));
+		}
+	}
+
+	@Test
+	void testFailure() throws IOException {
+		try (InputStream in = new PrefetchInputStream(new FailingInputStream())) {
+			Assertions.assertThrows(IOException.class, in::read);
+		}
+		try (InputStream in = new PrefetchInputStream(new BrokenInputStream())) {
+			Assertions.assertThrows(IllegalStateException.class, in::read);
+		}
+
+		InputStream in = new PrefetchInputStream(new ByteArrayInputStream(TEST_DATA));
+
+		in.close();
+		in.close();
+		Assertions.assertThrows(IOException.class, in::read);
+	}
+
+	@Test
+	void testReadAhead() throws IOException, InterruptedException {
+		ObservedInputStream source = new ObservedInputStream(100);
+
+		try (InputStream in = new PrefetchInputStream(source, 1000, 2)) {
+			// The blocks are fetched before the consumer requests any data
+			Assertions.assertTrue(source.readBytes.tryAcquire(2000, 10, TimeUnit.SECONDS));
+
+			byte[] buffer = new byte[TEST_DATA.length];
+
+			Assertions.assertEquals(TEST_DATA.length, IOUtil.readBlocking(in, buffer, 0, buffer.length));
+			Assertions.assertArrayEquals(TEST_DATA, buffer);
+			Assertions.assertEquals(-1, in.read());
+		}
+	}
+
+	@Test
+	void testOverlap() throws IOException, InterruptedException {
+		ObservedInputStream source = new ObservedInputStream(1);
+		int blockSize = 1000;
+
+		try (InputStream in = new PrefetchInputStream(source, blockSize, 1)) {
+			byte[] buffer = new byte[blockSize];
+
+			Assertions.assertTrue(source.readBytes.tryAcquire(blockSize, 10, TimeUnit.SECONDS));
+			for (int blockStart = 0; blockStart < TEST_DATA.length; blockStart += blockSize) {
+				Assertions.assertEquals(blockSize, IOUtil.readBlocking(in, buffer, 0, blockSize));
+
+				// The next block is read while the consumer is still processing the current one (a plain stream
+				// would not advance here, as the consumer does not issue any read until the next block is read)
+				int nextBlockSize = Math.min(blockSize, TEST_DATA.length - blockStart - blockSize);
+
+				source.readPermits.release();
+				Assertions.assertTrue(source.readBytes.tryAcquire(nextBlockSize, 10, TimeUnit.SECONDS));
+				Assertions.assertArrayEquals(Arrays.copyOfRange(TEST_DATA, blockStart, blockStart + blockSize), buffer);
+			}
+			Assertions.assertEquals(-1, in.read());
+		}
+	}
+
+	@Test
+	void testAbandoned() throws InterruptedException {
+		// A running prefetch must not keep an abandoned stream reachable (and hence hide the leak)
+		@SuppressWarnings("resource")
+		WeakReference<InputStream> abandoned = new WeakReference<>(
+				new PrefetchInputStream(new ByteArrayInputStream(TEST_DATA), 1000, 1));
+		long deadline = System.currentTimeMillis() + 10000;
+
+		while (abandoned.get() != null && System.currentTimeMillis() < deadline) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assertions.assertNull(abandoned.get());
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.io.IOMeter;
+import de.carne.io.IOUtil;
+import de.carne.io.MeteredInputStream;
+import de.carne.io.MeteredOutputStream;
+import de.carne.io.ThrottledInputStream;
+import de.carne.io.ThrottledOutputStream;
+import de.carne.io.ThrottledReadableByteChannel;
+import de.carne.io.TokenBucket;
+
+/**
+ * Test {@linkplain TokenBucket} and related classes.
+ */
+class TokenBucketTest {
+
+	private static final int TEST_RATE = 100 * 1024;
+	private static final int TEST_CAPACITY = 10 * 1024;
+
+	// Requires at least 0.5 s to be transferred with the test rate
+	private static final byte[] TEST_DATA = new byte[TEST_CAPACITY + TEST_RATE / 2];
+
+	private static final long MIN_MILLIS = 400;
+
+	static {
+		for (int testDataIndex = 0; testDataIndex < TEST_DATA.length; testDataIndex++) {
+			TEST_DATA[testDataIndex] = (byte) (testDataIndex & 0xff);
+		}
+	}
+
+	@Test
+	void testThrottledInputStream() throws IOException {
+		long start = System.nanoTime();
+
+		try (InputStream in = new ThrottledInputStream(new ByteArrayInputStream(TEST_DATA),
+				new TokenBucket(TEST_RATE, TEST_CAPACITY))) {
+			Assertions.assertArrayEquals(TEST_DATA, IOUtil.readAllBytes(in));
+		}
+		Assertions.assertTrue(elapsedMillis(start) >= MIN_MILLIS);
+	}
+
+	@Test
+	void testThrottledOutputStream() throws IOException {
+		long start = System.nanoTime();
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		try (OutputStream out = new ThrottledOutputStream(buffer, new TokenBucket(TEST_RATE, TEST_CAPACITY))) {
+			out.write(TEST_DATA);
+		}
+		Assertions.assertTrue(elapsedMillis(start) >= MIN_MILLIS);
+		Assertions.assertArrayEquals(TEST_DATA, buffer.toByteArray());
+	}
+
+	@Test
+	void testThrottledReadableByteChannel() throws IOException {
+		long start = System.nanoTime();
+		ByteBuffer buffer = ByteBuffer.allocate(TEST_DATA.length);
+
+		try (ReadableByteChannel channel = new ThrottledReadableByteChannel(
+				Channels.newChannel(new ByteArrayInputStream(TEST_DATA)), new TokenBucket(TEST_RATE, TEST_CAPACITY))) {
+			while (channel.read(buffer) >= 0 && buffer.hasRemaining()) {
+				// Read until EOF or buffer full
+			}
+		}
+		Assertions.assertTrue(elapsedMillis(start) >= MIN_MILLIS);
+		Assertions.assertArrayEquals(TEST_DATA, buffer.array());
+	}
+
+	@Test
+	void testSharedTokenBucket() throws IOException {
+		long start = System.nanoTime();
+		TokenBucket bucket = new TokenBucket(TEST_RATE, TEST_CAPACITY);
+		byte[] half = new byte[TEST_DATA.length / 2];
+
+		// Both copies together are limited by the shared bucket
+		IOUtil.copyStream(new ByteArrayOutputStream(), new ByteArrayInputStream(half), bucket);
+		IOUtil.copyStream(new ByteArrayOutputStream(), new ByteArrayInputStream(half), bucket);
+
+		Assertions.assertTrue(elapsedMillis(start) >= MIN_MILLIS);
+	}
+
+	@Test
+	void testMeteredStreams() throws IOException {
+		IOMeter meter = new IOMeter();
+
+		try (InputStream in = new MeteredInputStream(new ByteArrayInputStream(TEST_DATA), meter);
+				OutputStream out = new MeteredOutputStream(new ByteArrayOutputStream(), meter)) {
+			out.write(in.read());
+			out.write(IOUtil.readAllBytes(in));
+		}
+
+		Assertions.assertEquals(TEST_DATA.length, meter.readBytes());
+		Assertions.assertEquals(TEST_DATA.length, meter.writeBytes());
+		Assertions.assertEquals(2, meter.writeCount());
+		Assertions.assertTrue(meter.readCount() >= 2);
+
+		meter.reset();
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		Assertions.assertEquals(TEST_DATA.length,
+				IOUtil.copyStream(buffer, new ByteArrayInputStream(TEST_DATA), meter));
+		Assertions.assertArrayEquals(TEST_DATA, buffer.toByteArray());
+		Assertions.assertEquals(TEST_DATA.length, meter.readBytes());
+		Assertions.assertEquals(TEST_DATA.length, meter.writeBytes());
+	}
+
+	private static long elapsedMillis(long start) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.text.Base32Codec;
+
+/**
+ * Test {@linkplain Base32Codec} class.
+ */
+class Base32CodecTest {
+
+	private static final String[] TEST_VALUES = { "", "f", "fo", "foo", "foob", "fooba", "foobar" };
+	private static final String[] TEST_SEQUENCES = { "", "MY======", "MZXQ====", "MZXW6===", "MZXW6YQ=", "MZXW6YTB",
+			"MZXW6YTBOI======" };
+
+	@Test
+	void testToString() {
+		for (int testIndex = 0; testIndex < TEST_VALUES.length; testIndex++) {
+			byte[] bs = TEST_VALUES[testIndex].getBytes(StandardCharsets.US_ASCII);
+
+			Assertions.assertEquals(TEST_SEQUENCES[testIndex], Base32Codec.STANDARD.toString(bs));
+			Assertions.assertEquals(TEST_SEQUENCES[testIndex].length(), Base32Codec.STANDARD.encodedLength(bs.length));
+			Assertions.assertArrayEquals(bs, Base32Codec.STANDARD.valueOf(TEST_SEQUENCES[testIndex]));
+			// Padding is optional
+			Assertions.assertArrayEquals(bs,
+					Base32Codec.STANDARD.valueOf(TEST_SEQUENCES[testIndex].replace("=", "")));
+		}
+
+		Random random = new Random(42);
+
+		for (int length = 0; length < 1024; length++) {
+			byte[] bs = new byte[length];
+
+			random.nextBytes(bs);
+			Assertions.assertArrayEquals(bs, Base32Codec.STANDARD.valueOf(Base32Codec.STANDARD.toString(bs)));
+		}
+	}
+
+	@Test
+	void testDecode() {
+		String[] invalidSequences = { "M", "MZX", "MZXW6Y", "MY=", "MZXW6YQ==", "MY=======", "========", "mzxw6ytb",
+				"MZXW6YT1" };
+
+		for (String invalidSequence : invalidSequences) {
+			Assertions.assertThrows(NumberFormatException.class, () -> Base32Codec.STANDARD.valueOf(invalidSequence),
+					invalidSequence);
+		}
+	}
+
+	@Test
+	void testStreams() throws IOException {
+		byte[] bs = new byte[12345];
+
+		new Random(42).nextBytes(bs);
+
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+		try (OutputStream out = Base32Codec.STANDARD.wrap(encoded)) {
+			out.write(bs, 0, 3);
+			out.write(bs, 3, bs.length - 3);
+		}
+		Assertions.assertEquals(Base32Codec.STANDARD.toString(bs), encoded.toString(StandardCharsets.US_ASCII));
+
+		try (InputStream in = Base32Codec.STANDARD.wrap(new ByteArrayInputStream(encoded.toByteArray()))) {
+			Assertions.assertArrayEquals(bs, in.readAllBytes());
+		}
+	}
+
+}
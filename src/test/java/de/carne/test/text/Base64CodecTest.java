@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.text.Base64Codec;
+
+/**
+ * Test {@linkplain Base64Codec} class.
+ */
+class Base64CodecTest {
+
+	@Test
+	void testToString() {
+		Random random = new Random(42);
+
+		for (int length = 0; length < 1024; length++) {
+			byte[] bs = new byte[length];
+
+			random.nextBytes(bs);
+
+			String standard = Base64Codec.STANDARD.toString(bs);
+			String url = Base64Codec.URL.toString(bs);
+
+			Assertions.assertEquals(Base64.getEncoder().encodeToString(bs), standard);
+			Assertions.assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(bs), url);
+			Assertions.assertEquals(standard.length(), Base64Codec.STANDARD.encodedLength(length));
+			Assertions.assertEquals(url.length(), Base64Codec.URL.encodedLength(length));
+			Assertions.assertArrayEquals(bs, Base64Codec.STANDARD.valueOf(standard));
+			Assertions.assertArrayEquals(bs, Base64Codec.URL.valueOf(url));
+		}
+		Assertions.assertEquals("Zm9v", Base64Codec.STANDARD.toString("xfoox".getBytes(StandardCharsets.US_ASCII), 1,
+				3));
+		Assertions.assertEquals("Base64", Base64Codec.STANDARD.toString());
+	}
+
+	@Test
+	void testEncode() throws IOException {
+		byte[] bs = "foobar!".getBytes(StandardCharsets.US_ASCII);
+		char[] chars = new char[2 + 12];
+		byte[] asciiChars = new byte[2 + 12];
+
+		Assertions.assertEquals(chars.length, Base64Codec.STANDARD.encode(bs, 0, bs.length, chars, 2));
+		Assertions.assertEquals("Zm9vYmFyIQ==", new String(chars, 2, chars.length - 2));
+		Assertions.assertEquals(asciiChars.length, Base64Codec.STANDARD.encode(bs, 0, bs.length, asciiChars, 2));
+		Assertions.assertEquals("Zm9vYmFyIQ==", new String(asciiChars, 2, asciiChars.length - 2,
+				StandardCharsets.US_ASCII));
+		Assertions.assertThrows(IndexOutOfBoundsException.class,
+				() -> Base64Codec.STANDARD.encode(bs, 0, bs.length, new char[11], 0));
+
+		StringBuilder buffer = new StringBuilder("x");
+		StringWriter writer = new StringWriter();
+
+		Base64Codec.URL.append(buffer, bs, 0, bs.length);
+		Base64Codec.URL.append(writer, bs, 3, 3);
+		Assertions.assertEquals("xZm9vYmFyIQ", buffer.toString());
+		Assertions.assertEquals("YmFy", writer.toString());
+	}
+
+	@Test
+	void testDecode() {
+		byte[] decoded = new byte[2 + 7];
+
+		Assertions.assertEquals(7, Base64Codec.STANDARD.decodedLength("Zm9vYmFyIQ==", 0, 12));
+		Assertions.assertEquals(7, Base64Codec.STANDARD.decodedLength("Zm9vYmFyIQ", 0, 10));
+		Assertions.assertEquals(decoded.length, Base64Codec.STANDARD.decode("Zm9vYmFyIQ==", 0, 12, decoded, 2));
+		Assertions.assertEquals("foobar!", new String(decoded, 2, 7, StandardCharsets.US_ASCII));
+		Assertions.assertEquals(decoded.length, Base64Codec.URL.decode("[Zm9vYmFyIQ]", 1, 11, decoded, 2));
+		Assertions.assertEquals(6,
+				Base64Codec.URL.decode("Zm9vYmFyIQ".getBytes(StandardCharsets.US_ASCII), 4, 6, decoded, 2));
+		Assertions.assertEquals("bar!", new String(decoded, 2, 4, StandardCharsets.US_ASCII));
+		Assertions.assertArrayEquals(new byte[] { (byte) 0xfb, (byte) 0xff }, Base64Codec.URL.valueOf("-_8"));
+		// Padding is optional for both codecs
+		Assertions.assertArrayEquals(new byte[] { (byte) 0xfb, (byte) 0xff }, Base64Codec.URL.valueOf("-_8="));
+		Assertions.assertArrayEquals(new byte[1], Base64Codec.URL.valueOf("AA=="));
+		Assertions.assertEquals(1, Base64Codec.URL.decodedLength("AA==", 0, 4));
+		Assertions.assertThrows(NumberFormatException.class, () -> Base64Codec.URL.valueOf("AA="));
+		Assertions.assertThrows(NumberFormatException.class, () -> Base64Codec.URL.valueOf("AAAA===="));
+		Assertions.assertArrayEquals(new byte[0], Base64Codec.STANDARD.valueOf(""));
+
+		String[] invalidSequences = { "Z", "Zm9vY", "Zm9v=", "Zm9v====", "Zm=", "Z===", "====", "Zm=9", "Zm9_",
+				"Zm9\u00e4", "Zm9\u20ac" };
+
+		for (String invalidSequence : invalidSequences) {
+			Assertions.assertThrows(NumberFormatException.class, () -> Base64Codec.STANDARD.valueOf(invalidSequence),
+					invalidSequence);
+		}
+		Assertions.assertThrows(NumberFormatException.class, () -> Base64Codec.URL.valueOf("Zm9+"));
+		Assertions.assertThrows(IndexOutOfBoundsException.class,
+				() -> Base64Codec.STANDARD.decode("Zm9vYmFyIQ==", 0, 12, new byte[6], 0));
+	}
+
+	@Test
+	void testStreams() throws IOException {
+		byte[] bs = new byte[100000];
+
+		new Random(42).nextBytes(bs);
+
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+		try (OutputStream out = Base64Codec.STANDARD.wrap(encoded)) {
+			out.write(bs[0]);
+			out.write(bs, 1, 1);
+			out.write(bs, 2, 50000);
+			out.write(bs, 50002, bs.length - 50002 - 1);
+			out.write(bs[bs.length - 1]);
+		}
+		Assertions.assertEquals(Base64.getEncoder().encodeToString(bs), encoded.toString(StandardCharsets.US_ASCII));
+
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+
+		try (InputStream in = Base64Codec.STANDARD.wrap(new ByteArrayInputStream(encoded.toByteArray()))) {
+			decoded.write(in.read());
+			in.transferTo(decoded);
+			Assertions.assertEquals(-1, in.read());
+		}
+		Assertions.assertArrayEquals(bs, decoded.toByteArray());
+
+		byte[] invalid = "Zm9vYmFy=Zm9v".getBytes(StandardCharsets.US_ASCII);
+
+		try (InputStream in = Base64Codec.STANDARD.wrap(new ByteArrayInputStream(invalid))) {
+			Assertions.assertThrows(IOException.class, () -> in.transferTo(OutputStream.nullOutputStream()));
+		}
+	}
+
+}
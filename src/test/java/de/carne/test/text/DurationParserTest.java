@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.text.ParsePosition;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.text.DurationParser;
+
+/**
+ * Test {@linkplain DurationParser} class.
+ */
+class DurationParserTest {
+
+	@Test
+	void testParseSuccess() {
+		DurationParser parser = DurationParser.MILLIS;
+
+		Assertions.assertEquals(TimeUnit.MILLISECONDS, parser.getUnit());
+		Assertions.assertEquals(Duration.ofMillis(250), parser.parse("250ms"));
+		Assertions.assertEquals(0, parser.parseDuration("0"));
+		Assertions.assertEquals(250, parser.parseDuration("250"));
+		Assertions.assertEquals(250, parser.parseDuration("250 ms"));
+		Assertions.assertEquals(5400000, parser.parseDuration("1h30m"));
+		Assertions.assertEquals(5400000, parser.parseDuration("1h 30m"));
+		Assertions.assertEquals(90061001, parser.parseDuration("1d1h1m1s1ms"));
+		Assertions.assertEquals(1, parser.parseDuration("1999us"));
+		Assertions.assertEquals(1, parser.parseDuration("1000\u00b5s"));
+		Assertions.assertEquals(Long.MAX_VALUE, parser.parseDuration(Long.toString(Long.MAX_VALUE)));
+		Assertions.assertEquals(2000000, DurationParser.NANOS.parseDuration("2ms"));
+		Assertions.assertEquals(1500, DurationParser.NANOS.parseDuration("1us500ns"));
+		Assertions.assertEquals(2, new DurationParser(TimeUnit.HOURS).parseDuration("2h59m"));
+		Assertions.assertEquals(30000, parser.parseDuration("timeout=30s;", 8, 11));
+	}
+
+	@Test
+	void testParseFailure() {
+		DurationParser parser = DurationParser.MILLIS;
+		String[] invalidDurations = { "", " 1s", "1s ", "-1s", "1.5s", "s", "1x", "1 S", "1m1h", "1s1s", "1us1\u00b5s",
+				"1h30", "1h 30" };
+
+		for (String invalidDuration : invalidDurations) {
+			Assertions.assertThrows(NumberFormatException.class, () -> parser.parseDuration(invalidDuration),
+					invalidDuration);
+		}
+
+		String[] outOfRangeDurations = { "9223372036854775808", "106752d", "99999999999999999999ms" };
+
+		for (String outOfRangeDuration : outOfRangeDurations) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> parser.parseDuration(outOfRangeDuration),
+					outOfRangeDuration);
+		}
+
+		DurationParser boundedParser = new DurationParser(TimeUnit.SECONDS, 1, 60);
+
+		Assertions.assertEquals(60, boundedParser.parseDuration("1m"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> boundedParser.parseDuration("1m1s"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> boundedParser.parseDuration("999ms"));
+	}
+
+	@Test
+	void testParseStatus() {
+		DurationParser parser = new DurationParser(TimeUnit.MILLISECONDS, 1, 60000);
+		ParsePosition status = new ParsePosition(0);
+
+		Assertions.assertEquals(1500, parser.parseDuration("[1s500ms]", 1, 8, status));
+		Assertions.assertEquals(8, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseDuration("1s5x", 0, 4, status));
+		Assertions.assertEquals(3, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseDuration("1s  ", 0, 4, status));
+		Assertions.assertEquals(2, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseDuration("x", 0, 1, status));
+		Assertions.assertEquals(0, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseDuration("[0ms]", 1, 4, status));
+		Assertions.assertEquals(1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseDuration("[2m]", 1, 3, status));
+		Assertions.assertEquals(1, status.getErrorIndex());
+	}
+
+}
@@ -16,6 +16,15 @@
  */
 package de.carne.test.text;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -35,6 +44,71 @@ class HexBytesTest {
 	void testToString() {
 		Assertions.assertEquals(TEST_HEX_SEQUENCE_L, HexBytes.toStringL(TEST_BYTES));
 		Assertions.assertEquals(TEST_HEX_SEQUENCE_U, HexBytes.toStringU(TEST_BYTES));
+		Assertions.assertEquals(TEST_HEX_SEQUENCE_L.substring(2, 6), HexBytes.toStringL(TEST_BYTES, 1, 2));
+		Assertions.assertEquals("", HexBytes.toStringU(TEST_BYTES, 0, 0));
+
+		byte[] allBytes = new byte[256];
+
+		for (int b = 0; b < allBytes.length; b++) {
+			allBytes[b] = (byte) b;
+		}
+
+		String allHexL = HexBytes.toStringL(allBytes);
+
+		for (int b = 0; b < allBytes.length; b++) {
+			Assertions.assertEquals(String.format("%02x", b), allHexL.substring(2 * b, 2 * b + 2));
+		}
+		Assertions.assertArrayEquals(allBytes, HexBytes.valueOf(allHexL));
+		Assertions.assertArrayEquals(allBytes, HexBytes.valueOf(HexBytes.toStringU(allBytes)));
+	}
+
+	@Test
+	void testEncode() throws IOException {
+		char[] chars = new char[2 + 2 * TEST_BYTES.length];
+
+		Assertions.assertEquals(chars.length, HexBytes.encodeL(TEST_BYTES, 0, TEST_BYTES.length, chars, 2));
+		Assertions.assertEquals(TEST_HEX_SEQUENCE_L, new String(chars, 2, chars.length - 2));
+		Assertions.assertEquals(chars.length, HexBytes.encodeU(TEST_BYTES, 0, TEST_BYTES.length, chars, 2));
+		Assertions.assertEquals(TEST_HEX_SEQUENCE_U, new String(chars, 2, chars.length - 2));
+		Assertions.assertThrows(IndexOutOfBoundsException.class,
+				() -> HexBytes.encodeL(TEST_BYTES, 0, TEST_BYTES.length, chars, 3));
+
+		byte[] latin1 = new byte[2 * TEST_BYTES.length];
+
+		Assertions.assertEquals(latin1.length, HexBytes.encodeL(TEST_BYTES, 0, TEST_BYTES.length, latin1, 0));
+		Assertions.assertEquals(TEST_HEX_SEQUENCE_L, new String(latin1, StandardCharsets.ISO_8859_1));
+		Assertions.assertEquals(latin1.length, HexBytes.encodeU(TEST_BYTES, 0, TEST_BYTES.length, latin1, 0));
+		Assertions.assertEquals(TEST_HEX_SEQUENCE_U, new String(latin1, StandardCharsets.ISO_8859_1));
+
+		for (boolean direct : new boolean[] { false, true }) {
+			ByteBuffer src = ByteBuffer.wrap(TEST_BYTES);
+			ByteBuffer dst = (direct ? ByteBuffer.allocateDirect(latin1.length) : ByteBuffer.allocate(latin1.length));
+			byte[] encoded = new byte[latin1.length];
+
+			HexBytes.encodeL(src, dst);
+			Assertions.assertFalse(src.hasRemaining());
+			Assertions.assertFalse(dst.hasRemaining());
+			((ByteBuffer) dst.flip()).get(encoded);
+			Assertions.assertEquals(TEST_HEX_SEQUENCE_L, new String(encoded, StandardCharsets.ISO_8859_1));
+			Assertions.assertThrows(BufferOverflowException.class,
+					() -> HexBytes.encodeU(ByteBuffer.wrap(TEST_BYTES), ByteBuffer.allocate(1)));
+		}
+
+		StringBuilder builder = new StringBuilder("0x");
+
+		HexBytes.appendL(builder, TEST_BYTES, 0, TEST_BYTES.length);
+		Assertions.assertEquals("0x" + TEST_HEX_SEQUENCE_L, builder.toString());
+
+		StringWriter writer = new StringWriter();
+
+		HexBytes.appendU(writer, TEST_BYTES, 0, TEST_BYTES.length);
+		Assertions.assertEquals(TEST_HEX_SEQUENCE_U, writer.toString());
+
+		StringBuffer buffer = new StringBuffer();
+		byte[] largeBytes = new byte[1000];
+
+		HexBytes.appendU(buffer, largeBytes, 0, largeBytes.length);
+		Assertions.assertEquals(HexBytes.toStringU(largeBytes), buffer.toString());
 	}
 
 	@Test
@@ -42,6 +116,94 @@ class HexBytesTest {
 		Assertions.assertArrayEquals(TEST_BYTES, HexBytes.valueOf(TEST_HEX_SEQUENCE));
 		Assertions.assertArrayEquals(TEST_BYTES, HexBytes.valueOf(TEST_HEX_SEQUENCE_L));
 		Assertions.assertArrayEquals(TEST_BYTES, HexBytes.valueOf(TEST_HEX_SEQUENCE_U));
+		Assertions.assertArrayEquals(new byte[0], HexBytes.valueOf(""));
+
+		byte[] decoded = new byte[1 + TEST_BYTES.length];
+
+		Assertions.assertEquals(decoded.length, HexBytes.decode("0x" + TEST_HEX_SEQUENCE, 2,
+				2 + TEST_HEX_SEQUENCE.length(), decoded, 1));
+		Assertions.assertArrayEquals(TEST_BYTES, Arrays.copyOfRange(decoded, 1, decoded.length));
+		Assertions.assertEquals(TEST_BYTES.length, HexBytes.decode(
+				TEST_HEX_SEQUENCE.getBytes(StandardCharsets.US_ASCII), 0, TEST_HEX_SEQUENCE.length(), decoded, 0));
+		Assertions.assertEquals(15, HexBytes.valueOf('f'));
+		Assertions.assertEquals(10, HexBytes.valueOf('A'));
+	}
+
+	@Test
+	void testValueOfFailure() {
+		NumberFormatException oddLength = Assertions.assertThrows(NumberFormatException.class,
+				() -> HexBytes.valueOf("abc"));
+
+		Assertions.assertEquals("Invalid hex sequence: abc", oddLength.getMessage());
+
+		NumberFormatException invalidHi = Assertions.assertThrows(NumberFormatException.class,
+				() -> HexBytes.valueOf("00g0"));
+
+		Assertions.assertEquals("Invalid hex char: g", invalidHi.getMessage());
+
+		NumberFormatException invalidLo = Assertions.assertThrows(NumberFormatException.class,
+				() -> HexBytes.valueOf("000G"));
+
+		Assertions.assertEquals("Invalid hex char: G", invalidLo.getMessage());
+		// Non-ASCII chars must not be folded onto valid table entries
+		Assertions.assertThrows(NumberFormatException.class, () -> HexBytes.valueOf("\u00b0\u00b1"));
+		Assertions.assertThrows(NumberFormatException.class, () -> HexBytes.valueOf("0\u0130"));
+		Assertions.assertThrows(NumberFormatException.class,
+				() -> HexBytes.decode(new byte[] { (byte) 0xb0, 0x30 }, 0, 2, new byte[1], 0));
+		Assertions.assertThrows(NumberFormatException.class, () -> HexBytes.valueOf('/'));
+		Assertions.assertThrows(NumberFormatException.class, () -> HexBytes.valueOf(':'));
+	}
+
+	@Test
+	void testParseLong() {
+		Random random = new Random(42);
+
+		for (int round = 0; round < 10000; round++) {
+			long value = random.nextLong() >>> random.nextInt(64);
+			String hex = String.format("%0" + (1 + random.nextInt(24)) + "x", value);
+			String text = (random.nextBoolean() ? hex : hex.toUpperCase());
+			byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+
+			Assertions.assertEquals(value, HexBytes.parseLong(text, 0, text.length()), text);
+			Assertions.assertEquals(value, HexBytes.parseLong(bytes, 0, bytes.length), text);
+		}
+		Assertions.assertEquals(0x1234, HexBytes.parseLong("[1234]", 1, 5));
+		Assertions.assertThrows(NumberFormatException.class, () -> HexBytes.parseLong("", 0, 0));
+		Assertions.assertThrows(NumberFormatException.class, () -> HexBytes.parseLong("-1", 0, 2));
+		Assertions.assertThrows(NumberFormatException.class, () -> HexBytes.parseLong("0x1", 0, 3));
+
+		ParsePosition status = new ParsePosition(0);
+		byte[] overflow = "00010000000000000000".getBytes(StandardCharsets.US_ASCII);
+		byte[] invalid = "0123456789abcdeg".getBytes(StandardCharsets.US_ASCII);
+
+		Assertions.assertEquals(0, HexBytes.parseLong(overflow, 0, overflow.length, status));
+		Assertions.assertEquals(0, status.getErrorIndex());
+		Assertions.assertEquals(0, HexBytes.parseLong(invalid, 0, invalid.length, status));
+		Assertions.assertEquals(15, status.getErrorIndex());
+		Assertions.assertEquals(0, HexBytes.parseLong("12:4", 0, 4, status));
+		Assertions.assertEquals(2, status.getErrorIndex());
+		Assertions.assertEquals(-1l, HexBytes.parseLong("ffffFFFFffffFFFF", 0, 16, status));
+		Assertions.assertEquals(16, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+	}
+
+	@Test
+	void testDecodeChunks() {
+		byte[] bytes = new byte[257];
+
+		new Random(42).nextBytes(bytes);
+		for (int len = 0; len <= bytes.length; len++) {
+			byte[] chars = HexBytes.toStringU(bytes, 0, len).getBytes(StandardCharsets.US_ASCII);
+			byte[] decoded = new byte[len];
+
+			HexBytes.decode(chars, 0, chars.length, decoded, 0);
+			Assertions.assertArrayEquals(Arrays.copyOf(bytes, len), decoded);
+		}
+
+		byte[] invalid = "00112233445566x7".getBytes(StandardCharsets.US_ASCII);
+
+		Assertions.assertEquals("Invalid hex char: x", Assertions.assertThrows(NumberFormatException.class,
+				() -> HexBytes.decode(invalid, 0, invalid.length, new byte[8], 0)).getMessage());
 	}
 
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import de.carne.test.annotation.io.TempFile;
+import de.carne.test.extension.io.TempPathExtension;
+import de.carne.text.HexDumpOutputStream;
+import de.carne.text.HexFormat;
+
+/**
+ * Test {@linkplain HexDumpOutputStream} class.
+ */
+@ExtendWith(TempPathExtension.class)
+class HexDumpOutputStreamTest {
+
+	private static final String NL = System.lineSeparator();
+
+	private static final byte[] TEST_DATA = "Hello, World!\n\u0000\u0001Bye".getBytes(StandardCharsets.ISO_8859_1);
+
+	private static final String TEST_DUMP = ""
+			+ "00000000  48 65 6c 6c 6f 2c 20 57  6f 72 6c 64 21 0a 00 01  |Hello, World!...|" + NL
+			+ "00000010  42 79 65                                          |Bye|" + NL;
+
+	@Test
+	void testDump() throws IOException {
+		StringWriter dump = new StringWriter();
+
+		try (HexDumpOutputStream out = new HexDumpOutputStream(dump)) {
+			out.write(TEST_DATA[0]);
+			out.write(TEST_DATA, 1, 15);
+			out.flush();
+			out.write(ByteBuffer.wrap(TEST_DATA, 16, TEST_DATA.length - 16));
+		}
+		Assertions.assertEquals(TEST_DUMP, dump.toString());
+
+		HexDumpOutputStream closed = new HexDumpOutputStream(new StringWriter());
+
+		closed.close();
+		Assertions.assertThrows(IOException.class, () -> closed.write(0));
+	}
+
+	@Test
+	void testFormattedDump() throws IOException {
+		StringWriter dump = new StringWriter();
+
+		try (HexDumpOutputStream out = new HexDumpOutputStream(dump, new HexFormat(true, "0x", null), 4, false)) {
+			out.write(new byte[] { 0x00, 0x7f, (byte) 0x80, (byte) 0xff, 0x41 });
+		}
+		Assertions.assertEquals("00000000  0x00 0x7F  0x80 0xFF  |....|" + NL //
+				+ "00000004  0x41                  |A|" + NL, dump.toString());
+	}
+
+	@Test
+	void testCollapsedDump() throws IOException {
+		StringWriter dump = new StringWriter();
+
+		try (HexDumpOutputStream out = new HexDumpOutputStream(dump, HexFormat.UPPER_CASE, 8, true)) {
+			out.write(new byte[8 * 5]);
+			out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+			out.write(new byte[8 * 2]);
+		}
+		Assertions.assertEquals("" //
+				+ "00000000  00 00 00 00  00 00 00 00  |........|" + NL //
+				+ "*" + NL //
+				+ "00000028  01 02 03 04  05 06 07 08  |........|" + NL //
+				+ "00000030  00 00 00 00  00 00 00 00  |........|" + NL //
+				+ "*" + NL //
+				+ "00000040" + NL, dump.toString());
+	}
+
+	@Test
+	void testChannelDump(@TempFile File file) throws IOException {
+		Files.write(file.toPath(), TEST_DATA);
+
+		StringWriter dump = new StringWriter();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				HexDumpOutputStream out = new HexDumpOutputStream(dump)) {
+			Assertions.assertEquals(TEST_DATA.length, out.transferFrom(channel, 0, Long.MAX_VALUE - 1));
+			Assertions.assertEquals(0, out.transferFrom(channel, TEST_DATA.length + 1, 1));
+		}
+		Assertions.assertEquals(TEST_DUMP, dump.toString());
+
+		StringWriter splitDump = new StringWriter();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				HexDumpOutputStream out = new HexDumpOutputStream(splitDump)) {
+			Assertions.assertEquals(1, out.transferFrom(channel, 0, 1));
+			Assertions.assertEquals(TEST_DATA.length - 1, out.transferFrom(channel, 1, Long.MAX_VALUE));
+			Assertions.assertEquals(0, out.transferFrom(channel, TEST_DATA.length, Long.MAX_VALUE));
+		}
+		Assertions.assertEquals(TEST_DUMP, splitDump.toString());
+
+		// Several read windows
+		byte[] largeData = new byte[200000];
+
+		for (int dataIndex = 0; dataIndex < largeData.length; dataIndex++) {
+			largeData[dataIndex] = (byte) ((dataIndex * 31) >>> 4);
+		}
+		Files.write(file.toPath(), largeData);
+
+		StringWriter expectedDump = new StringWriter();
+
+		try (HexDumpOutputStream out = new HexDumpOutputStream(expectedDump)) {
+			out.write(largeData, 3, largeData.length - 3);
+		}
+
+		StringWriter largeDump = new StringWriter();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				HexDumpOutputStream out = new HexDumpOutputStream(largeDump)) {
+			Assertions.assertEquals(largeData.length - 3, out.transferFrom(channel, 3, Long.MAX_VALUE));
+			Assertions.assertEquals(0, channel.position());
+		}
+		Assertions.assertEquals(expectedDump.toString(), largeDump.toString());
+	}
+
+}
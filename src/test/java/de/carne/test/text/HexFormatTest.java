@@ -16,6 +16,9 @@
  */
 package de.carne.test.text;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -86,4 +89,70 @@ class HexFormatTest {
 		Assertions.assertEquals("FFFFFFFFFFFFFFFFh", formatter.format(0xffffffffffffffffl));
 	}
 
+	@Test
+	void testBulkFormat() {
+		HexFormat formatter = new HexFormat(false, "0x", ",");
+
+		Assertions.assertEquals("", formatter.format(new byte[0]));
+		Assertions.assertEquals("0x80,", formatter.format(new byte[] { 0x00, (byte) 0x80, (byte) 0xff }, 1, 1));
+		Assertions.assertEquals("0x0000, 0x8000, 0xffff,",
+				formatter.format(new short[] { 0x0000, (short) 0x8000, (short) 0xffff }));
+		Assertions.assertEquals("0x00000000, 0x80000000, 0xffffffff,",
+				formatter.format(new int[] { 0x00000000, 0x80000000, 0xffffffff }));
+		Assertions.assertEquals("0x0000000000000000, 0x8000000000000000, 0xffffffffffffffff,",
+				formatter.format(new long[] { 0x0000000000000000l, 0x8000000000000000l, 0xffffffffffffffffl }));
+		Assertions.assertEquals("> 0x8000,", formatter
+				.format(new StringBuilder("> "), new short[] { 0x0000, (short) 0x8000, (short) 0xffff }, 1, 1)
+				.toString());
+		Assertions.assertEquals("> 0x80000000,",
+				formatter.format(new StringBuilder("> "), new int[] { 0x80000000 }, 0, 1).toString());
+		Assertions.assertEquals("",
+				formatter.format(new StringBuilder(), new long[] { 0x0000000000000000l }, 1, 0).toString());
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> formatter.format(new int[1], 1, 1));
+
+		HexFormat upperFormatter = HexFormat.UPPER_CASE;
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08 });
+
+		buffer.position(1);
+		Assertions.assertEquals("01 02 03 04 05 06 07 08", upperFormatter.format(buffer, ByteOrder.BIG_ENDIAN, 1));
+		Assertions.assertEquals("0102 0304 0506 0708", upperFormatter.format(buffer, ByteOrder.BIG_ENDIAN, 2));
+		Assertions.assertEquals("0201 0403 0605 0807", upperFormatter.format(buffer, ByteOrder.LITTLE_ENDIAN, 2));
+		Assertions.assertEquals("01020304 05060708", upperFormatter.format(buffer, ByteOrder.BIG_ENDIAN, 4));
+		Assertions.assertEquals("04030201 08070605", upperFormatter.format(buffer, ByteOrder.LITTLE_ENDIAN, 4));
+		Assertions.assertEquals("0102030405060708", upperFormatter.format(buffer, ByteOrder.BIG_ENDIAN, 8));
+		Assertions.assertEquals("[0807060504030201", upperFormatter
+				.format(new StringBuilder("["), buffer, ByteOrder.LITTLE_ENDIAN, 8).toString());
+		Assertions.assertEquals(1, buffer.position());
+		Assertions.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> upperFormatter.format(buffer, ByteOrder.BIG_ENDIAN, 3));
+		buffer.position(2);
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> upperFormatter.format(buffer, ByteOrder.BIG_ENDIAN, 2));
+	}
+
+	@Test
+	void testByteTokens() {
+		HexFormat formatter = new HexFormat(true, "0x", ",");
+		byte[] allBytes = new byte[256];
+		StringBuilder expected = new StringBuilder();
+
+		for (int b = 0; b < allBytes.length; b++) {
+			allBytes[b] = (byte) b;
+			if (b > 0) {
+				expected.append(' ');
+			}
+			expected.append(String.format("0x%02X,", b));
+		}
+		// Single byte formatting before and after the bulk formatting (which creates the token table) must not differ
+		Assertions.assertEquals("0xA5,", formatter.format((byte) 0xa5));
+		Assertions.assertEquals(expected.toString(), formatter.format(allBytes));
+		Assertions.assertEquals("0xA5,", formatter.format((byte) 0xa5));
+		Assertions.assertEquals(">0xFF, 0x00,",
+				formatter.format(new StringBuilder(">"), allBytes, 255, 1).append(" 0x00,").toString());
+		Assertions.assertEquals("0xFE, 0xFF,",
+				formatter.format(ByteBuffer.wrap(allBytes, 254, 2), ByteOrder.BIG_ENDIAN, Byte.BYTES));
+		Assertions.assertEquals("", formatter.format(ByteBuffer.wrap(allBytes, 0, 0), ByteOrder.BIG_ENDIAN, 1));
+	}
+
 }
@@ -16,6 +16,10 @@
  */
 package de.carne.test.text;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -46,4 +50,64 @@ class IntegerParserTest {
 		Assertions.assertThrows(RuntimeException.class, () -> parser.parse("-1"));
 	}
 
+	@Test
+	void testParseRange() {
+		IntegerParser parser = IntegerParser.ANY;
+		String minString = Integer.toString(Integer.MIN_VALUE);
+		String maxString = Integer.toString(Integer.MAX_VALUE);
+		String text = "[" + minString + "," + maxString + ",+42]";
+		byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+		int minEnd = 1 + minString.length();
+		int maxEnd = minEnd + 1 + maxString.length();
+
+		Assertions.assertEquals(Integer.MIN_VALUE, parser.parseInt(text, 1, minEnd));
+		Assertions.assertEquals(Integer.MAX_VALUE, parser.parseInt(text, minEnd + 1, maxEnd));
+		Assertions.assertEquals(42, parser.parseInt(text, maxEnd + 1, text.length() - 1));
+		Assertions.assertEquals(Integer.MIN_VALUE, parser.parseInt(bytes, 1, minEnd));
+		Assertions.assertEquals(Integer.MAX_VALUE, parser.parseInt(bytes, minEnd + 1, maxEnd));
+		Assertions.assertEquals(Integer.MIN_VALUE, parser.parseInt(ByteBuffer.wrap(bytes), 1, minEnd));
+
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+
+		directBuffer.put(bytes);
+		Assertions.assertEquals(Integer.MAX_VALUE, parser.parseInt(directBuffer, minEnd + 1, maxEnd));
+		Assertions.assertEquals(42, parser.parseInt(directBuffer, maxEnd + 1, bytes.length - 1));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseInt(text, 0, minEnd));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseInt(text, 1, 1));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseInt(bytes, 1, 2));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseInt(directBuffer, 1, maxEnd));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> parser.parseInt(text, 1, text.length() + 1));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> IntegerParser.POSITIVE.parseInt(text, 1, minEnd));
+	}
+
+	@Test
+	void testParseStatus() {
+		IntegerParser parser = IntegerParser.POSITIVE;
+		ParsePosition status = new ParsePosition(0);
+		String text = "x42,-1,1?," + Integer.toString(Integer.MAX_VALUE) + "0";
+		byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1).slice();
+
+		Assertions.assertEquals(42, parser.parseInt(text, 1, 3, status));
+		Assertions.assertEquals(3, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseInt(text, 0, 3, status));
+		Assertions.assertEquals(0, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseInt(bytes, 4, 6, status));
+		Assertions.assertEquals(4, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseInt(bytes, 7, 9, status));
+		Assertions.assertEquals(8, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseInt(text, 10, text.length(), status));
+		Assertions.assertEquals(10, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseInt(text, 3, 3, status));
+		Assertions.assertEquals(3, status.getErrorIndex());
+		// Buffer indices are relative to the (sliced) buffer
+		Assertions.assertEquals(42, parser.parseInt(buffer, 0, 2, status));
+		Assertions.assertEquals(2, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseInt(buffer, 6, 8, status));
+		Assertions.assertEquals(7, status.getErrorIndex());
+	}
+
 }
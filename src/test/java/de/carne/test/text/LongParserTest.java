@@ -16,6 +16,11 @@
  */
 package de.carne.test.text;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -46,4 +51,98 @@ class LongParserTest {
 		Assertions.assertThrows(RuntimeException.class, () -> parser.parse("-1"));
 	}
 
+	@Test
+	void testParseRange() {
+		LongParser parser = LongParser.ANY;
+		String minString = Long.toString(Long.MIN_VALUE);
+		String maxString = Long.toString(Long.MAX_VALUE);
+		String text = "[" + minString + "," + maxString + ",+42]";
+		byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+		int minEnd = 1 + minString.length();
+		int maxEnd = minEnd + 1 + maxString.length();
+
+		Assertions.assertEquals(Long.MIN_VALUE, parser.parseLong(text, 1, minEnd));
+		Assertions.assertEquals(Long.MAX_VALUE, parser.parseLong(text, minEnd + 1, maxEnd));
+		Assertions.assertEquals(42, parser.parseLong(text, maxEnd + 1, text.length() - 1));
+		Assertions.assertEquals(Long.MIN_VALUE, parser.parseLong(bytes, 1, minEnd));
+		Assertions.assertEquals(Long.MAX_VALUE, parser.parseLong(bytes, minEnd + 1, maxEnd));
+		Assertions.assertEquals(Long.MIN_VALUE, parser.parseLong(ByteBuffer.wrap(bytes), 1, minEnd));
+
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+
+		directBuffer.put(bytes);
+		Assertions.assertEquals(Long.MAX_VALUE, parser.parseLong(directBuffer, minEnd + 1, maxEnd));
+		Assertions.assertEquals(42, parser.parseLong(directBuffer, maxEnd + 1, bytes.length - 1));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseLong(text, 0, minEnd));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseLong(text, 1, 1));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseLong(bytes, 1, 2));
+		Assertions.assertThrows(NumberFormatException.class, () -> parser.parseLong(directBuffer, 1, maxEnd));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> parser.parseLong(text, 1, text.length() + 1));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> LongParser.POSITIVE.parseLong(text, 1, minEnd));
+	}
+
+	@Test
+	void testParseStatus() {
+		LongParser parser = LongParser.POSITIVE;
+		ParsePosition status = new ParsePosition(0);
+		String text = "x42,-1,1?," + Long.toString(Long.MAX_VALUE) + "0";
+		byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1).slice();
+
+		Assertions.assertEquals(42, parser.parseLong(text, 1, 3, status));
+		Assertions.assertEquals(3, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseLong(text, 0, 3, status));
+		Assertions.assertEquals(0, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseLong(bytes, 4, 6, status));
+		Assertions.assertEquals(4, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseLong(bytes, 7, 9, status));
+		Assertions.assertEquals(8, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseLong(text, 10, text.length(), status));
+		Assertions.assertEquals(10, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseLong(text, 3, 3, status));
+		Assertions.assertEquals(3, status.getErrorIndex());
+		// Buffer indices are relative to the (sliced) buffer
+		Assertions.assertEquals(42, parser.parseLong(buffer, 0, 2, status));
+		Assertions.assertEquals(2, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseLong(buffer, 6, 8, status));
+		Assertions.assertEquals(7, status.getErrorIndex());
+	}
+
+	@Test
+	void testParseDigitChunks() {
+		LongParser parser = LongParser.ANY;
+		Random random = new Random(42);
+
+		// Exercise the 8 digit chunk path as well as the scalar fallback for all number lengths
+		for (int round = 0; round < 10000; round++) {
+			long value = random.nextLong() >> random.nextInt(64);
+			String text = String.format("%0" + (1 + random.nextInt(24)) + "d", value);
+			byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+
+			Assertions.assertEquals(value, parser.parseLong(bytes, 0, bytes.length), text);
+			Assertions.assertEquals(value, parser.parseLong(ByteBuffer.wrap(bytes), 0, bytes.length), text);
+		}
+
+		String[] overflows = { "9223372036854775808", "-9223372036854775809", "99999999999999999999",
+				"-00000000099999999999999999999" };
+
+		for (String overflow : overflows) {
+			byte[] bytes = overflow.getBytes(StandardCharsets.US_ASCII);
+			ParsePosition status = new ParsePosition(0);
+
+			Assertions.assertThrows(NumberFormatException.class, () -> parser.parseLong(bytes, 0, bytes.length));
+			parser.parseLong(bytes, 0, bytes.length, status);
+			Assertions.assertEquals(0, status.getErrorIndex());
+		}
+
+		byte[] invalid = "12345678123456x8".getBytes(StandardCharsets.US_ASCII);
+		ParsePosition status = new ParsePosition(0);
+
+		parser.parseLong(invalid, 0, invalid.length, status);
+		Assertions.assertEquals(14, status.getErrorIndex());
+	}
+
 }
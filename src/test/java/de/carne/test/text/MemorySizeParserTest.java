@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.text.ParsePosition;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.text.MemorySizeParser;
+
+/**
+ * Test {@linkplain MemorySizeParser} class.
+ */
+class MemorySizeParserTest {
+
+	@Test
+	void testParseSuccess() {
+		MemorySizeParser parser = MemorySizeParser.ANY;
+
+		Assertions.assertEquals(Long.valueOf(0), parser.parse("0"));
+		Assertions.assertEquals(512, parser.parseSize("512"));
+		Assertions.assertEquals(512, parser.parseSize("512B"));
+		Assertions.assertEquals(1, parser.parseSize("1 byte"));
+		Assertions.assertEquals(2, parser.parseSize("2  bytes"));
+		Assertions.assertEquals(512l << 20, parser.parseSize("512 MiB"));
+		Assertions.assertEquals(64l << 10, parser.parseSize("64KiB"));
+		Assertions.assertEquals(3l << 30, parser.parseSize("3 GiB"));
+		Assertions.assertEquals(1l << 40, parser.parseSize("1 TiB"));
+		Assertions.assertEquals(1l << 50, parser.parseSize("1 PiB"));
+		Assertions.assertEquals(7l << 60, parser.parseSize("7 EiB"));
+		Assertions.assertEquals(2000, parser.parseSize("2 kB"));
+		Assertions.assertEquals(5000000, parser.parseSize("5 MB"));
+		Assertions.assertEquals(1000000000l, parser.parseSize("1 GB"));
+		Assertions.assertEquals(1000000000000l, parser.parseSize("1 TB"));
+		Assertions.assertEquals(1000000000000000l, parser.parseSize("1 PB"));
+		Assertions.assertEquals(9000000000000000000l, parser.parseSize("9 EB"));
+		Assertions.assertEquals(Long.MAX_VALUE, parser.parseSize(Long.toString(Long.MAX_VALUE)));
+		Assertions.assertEquals(4l << 10, parser.parseSize("size=4 KiB;", 5, 10));
+	}
+
+	@Test
+	void testParseFailure() {
+		MemorySizeParser parser = MemorySizeParser.ANY;
+		String[] invalidSizes = { "", " 1", "1 ", "-1", "+1", "1.5 GiB", "1 KB", "1 kib", "1 XiB", "1 MiBs", "MiB" };
+
+		for (String invalidSize : invalidSizes) {
+			Assertions.assertThrows(NumberFormatException.class, () -> parser.parseSize(invalidSize), invalidSize);
+		}
+
+		String[] outOfRangeSizes = { "8 EiB", "10 EB", "9223372036854775808", "99999999999999999999 B",
+				"8589934592 GiB" };
+
+		for (String outOfRangeSize : outOfRangeSizes) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> parser.parseSize(outOfRangeSize),
+					outOfRangeSize);
+		}
+		Assertions.assertEquals(Integer.MAX_VALUE, MemorySizeParser.INT.parseSize("2147483647"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> MemorySizeParser.INT.parseSize("2 GiB"));
+	}
+
+	@Test
+	void testParseStatus() {
+		MemorySizeParser parser = new MemorySizeParser(1, 1l << 30);
+		ParsePosition status = new ParsePosition(0);
+
+		Assertions.assertEquals(16l << 20, parser.parseSize("[16 MiB]", 1, 7, status));
+		Assertions.assertEquals(7, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseSize("16 MiX", 0, 6, status));
+		Assertions.assertEquals(3, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseSize("16  ", 0, 4, status));
+		Assertions.assertEquals(2, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseSize("x", 0, 1, status));
+		Assertions.assertEquals(0, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseSize("[0]", 1, 2, status));
+		Assertions.assertEquals(1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseSize("[2 GiB]", 1, 6, status));
+		Assertions.assertEquals(1, status.getErrorIndex());
+	}
+
+}
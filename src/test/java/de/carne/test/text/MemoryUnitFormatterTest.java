@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.text.MemoryUnitFormatter;
+
+/**
+ * Test {@linkplain MemoryUnitFormatter} class.
+ */
+class MemoryUnitFormatterTest {
+
+	@Test
+	void testFormat() {
+		MemoryUnitFormatter formatter = MemoryUnitFormatter.DEFAULT;
+
+		Assertions.assertEquals("0 byte", formatter.format(0));
+		Assertions.assertEquals("1023 byte", formatter.format(1023));
+		Assertions.assertEquals("1.0 KiB", formatter.format(1024));
+		Assertions.assertEquals("1.2 KiB", formatter.format(1234));
+		Assertions.assertEquals("11.8 MiB", formatter.format(12345678));
+		Assertions.assertEquals("-1.5 GiB", formatter.format(-3l << 29));
+		Assertions.assertEquals("8.0 EiB", formatter.format(Long.MAX_VALUE));
+		Assertions.assertEquals("-8.0 EiB", formatter.format(Long.MIN_VALUE));
+		// Rounding up to the next unit
+		Assertions.assertEquals("1.0 MiB", formatter.format((1024 * 1024) - 1));
+		Assertions.assertEquals("size: 4.0 KiB", formatter.format(new StringBuilder("size: "), 4096).toString());
+	}
+
+	@Test
+	void testFractionDigits() {
+		Assertions.assertEquals("1 KiB", new MemoryUnitFormatter(0).format(1535));
+		Assertions.assertEquals("2 KiB", new MemoryUnitFormatter(0).format(1536));
+		Assertions.assertEquals("1.50 KiB", new MemoryUnitFormatter(2).format(1536));
+		Assertions.assertEquals("11.774 MiB", new MemoryUnitFormatter(3).format(12345678));
+		Assertions.assertEquals("1.001 KiB", new MemoryUnitFormatter(3).format(1025));
+		Assertions.assertEquals("7.996 EiB", new MemoryUnitFormatter(3).format(Long.MAX_VALUE - (1l << 52)));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new MemoryUnitFormatter(-1));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> new MemoryUnitFormatter(MemoryUnitFormatter.MAX_FRACTION_DIGITS + 1));
+
+		// Cross check against floating point arithmetic
+		MemoryUnitFormatter formatter = new MemoryUnitFormatter(3);
+		long[] values = { 1024, 1500, 999999, 1l << 40, (1l << 50) + 12345678901l, 123456789012345678l };
+
+		for (long value : values) {
+			int unitIndex = (63 - Long.numberOfLeadingZeros(value)) / 10;
+			double expected = value / Math.pow(1024.0, unitIndex);
+
+			Assertions.assertEquals(String.format(Locale.ROOT, "%.3f", expected),
+					formatter.format(value).replaceAll(" .*", ""));
+		}
+	}
+
+	@Test
+	void testLocaleFormat() {
+		MemoryUnitFormatter formatter = new MemoryUnitFormatter(1, Locale.GERMANY);
+
+		Assertions.assertEquals("1.023 byte", formatter.format(1023));
+		Assertions.assertEquals("1,2 KiB", formatter.format(1234));
+		Assertions.assertEquals("1.023,5 KiB", formatter.format(1048064));
+		Assertions.assertEquals("999 byte", formatter.format(999));
+	}
+
+}
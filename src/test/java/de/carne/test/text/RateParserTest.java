@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.text.ParsePosition;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.text.RateParser;
+
+/**
+ * Test {@linkplain RateParser} class.
+ */
+class RateParserTest {
+
+	@Test
+	void testParseSuccess() {
+		RateParser parser = RateParser.ANY;
+
+		Assertions.assertEquals(Long.valueOf(0), parser.parse("0"));
+		Assertions.assertEquals(100, parser.parseRate("100"));
+		Assertions.assertEquals(100, parser.parseRate("100/s"));
+		Assertions.assertEquals(100, parser.parseRate("100B/s"));
+		Assertions.assertEquals(10000, parser.parseRate("10k/s"));
+		Assertions.assertEquals(10000, parser.parseRate("10 k"));
+		Assertions.assertEquals(5l << 20, parser.parseRate("5MiB/s"));
+		Assertions.assertEquals(5l << 20, parser.parseRate("5 MiB/s"));
+		Assertions.assertEquals(3000000000l, parser.parseRate("3GB"));
+		Assertions.assertEquals(1l << 60, parser.parseRate("1Ei"));
+		Assertions.assertEquals(2000, parser.parseRate("2/ms"));
+		Assertions.assertEquals(2, parser.parseRate("120/m"));
+		Assertions.assertEquals(2, parser.parseRate("90/min"));
+		Assertions.assertEquals(1, parser.parseRate("89/min"));
+		Assertions.assertEquals(1000, parser.parseRate("3600k/h"));
+		Assertions.assertEquals(Long.MAX_VALUE, parser.parseRate(Long.toString(Long.MAX_VALUE)));
+		Assertions.assertEquals(64l << 10, parser.parseRate("rate=64KiB/s;", 5, 12));
+	}
+
+	@Test
+	void testParseFailure() {
+		RateParser parser = RateParser.ANY;
+		String[] invalidRates = { "", " 1", "1 ", "-1", "1.5k", "1 /s", "1/", "1/d", "1/s ", "1K", "1kiB", "1 MBs",
+				"k/s" };
+
+		for (String invalidRate : invalidRates) {
+			Assertions.assertThrows(NumberFormatException.class, () -> parser.parseRate(invalidRate), invalidRate);
+		}
+
+		String[] outOfRangeRates = { "9223372036854775808", "8Ei", "10E", "9223372036854776/ms" };
+
+		for (String outOfRangeRate : outOfRangeRates) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> parser.parseRate(outOfRangeRate),
+					outOfRangeRate);
+		}
+		Assertions.assertEquals(1, RateParser.POSITIVE.parseRate("1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> RateParser.POSITIVE.parseRate("0/s"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> RateParser.POSITIVE.parseRate("29/m"));
+	}
+
+	@Test
+	void testParseStatus() {
+		RateParser parser = new RateParser(1, 1000000);
+		ParsePosition status = new ParsePosition(0);
+
+		Assertions.assertEquals(10000, parser.parseRate("[10k/s]", 1, 6, status));
+		Assertions.assertEquals(6, status.getIndex());
+		Assertions.assertEquals(-1, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseRate("10x/s", 0, 5, status));
+		Assertions.assertEquals(2, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseRate("10k/d", 0, 5, status));
+		Assertions.assertEquals(4, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseRate("x", 0, 1, status));
+		Assertions.assertEquals(0, status.getErrorIndex());
+		Assertions.assertEquals(0, parser.parseRate("[2M/s]", 1, 5, status));
+		Assertions.assertEquals(1, status.getErrorIndex());
+	}
+
+}
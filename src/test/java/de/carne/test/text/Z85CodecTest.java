@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.text;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.text.Z85Codec;
+
+/**
+ * Test {@linkplain Z85Codec} class.
+ */
+class Z85CodecTest {
+
+	private static final byte[] TEST_BYTES = new byte[] { (byte) 0x86, 0x4f, (byte) 0xd2, 0x6f, (byte) 0xb5, 0x59,
+			(byte) 0xf7, 0x5b };
+	private static final String TEST_SEQUENCE = "HelloWorld";
+
+	@Test
+	void testToString() {
+		Assertions.assertEquals(TEST_SEQUENCE, Z85Codec.STANDARD.toString(TEST_BYTES));
+		Assertions.assertArrayEquals(TEST_BYTES, Z85Codec.STANDARD.valueOf(TEST_SEQUENCE));
+		Assertions.assertEquals("00000", Z85Codec.STANDARD.toString(new byte[4]));
+		Assertions.assertEquals("%nSc0", Z85Codec.STANDARD.toString(new byte[] { -1, -1, -1, -1 }));
+		Assertions.assertEquals("%nS9", Z85Codec.STANDARD.toString(new byte[] { -1, -1, -1 }));
+
+		Random random = new Random(42);
+
+		for (int length = 0; length < 1024; length++) {
+			byte[] bs = new byte[length];
+
+			random.nextBytes(bs);
+
+			String sequence = Z85Codec.STANDARD.toString(bs);
+
+			Assertions.assertEquals(length + (length + 3) / 4, sequence.length());
+			Assertions.assertArrayEquals(bs, Z85Codec.STANDARD.valueOf(sequence));
+		}
+	}
+
+	@Test
+	void testDecode() {
+		String[] invalidSequences = { "H", "Hello~", "Hello\"orld", "%nSc1", "#####", "HelloW" };
+
+		for (String invalidSequence : invalidSequences) {
+			Assertions.assertThrows(NumberFormatException.class, () -> Z85Codec.STANDARD.valueOf(invalidSequence),
+					invalidSequence);
+		}
+	}
+
+	@Test
+	void testStreams() throws IOException {
+		byte[] bs = new byte[54321];
+
+		new Random(42).nextBytes(bs);
+
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+		try (OutputStream out = Z85Codec.STANDARD.wrap(encoded)) {
+			out.write(bs);
+		}
+		Assertions.assertEquals(Z85Codec.STANDARD.toString(bs), encoded.toString(StandardCharsets.US_ASCII));
+
+		try (InputStream in = Z85Codec.STANDARD.wrap(new ByteArrayInputStream(encoded.toByteArray()))) {
+			Assertions.assertArrayEquals(bs, in.readAllBytes());
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.test.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import de.carne.test.annotation.io.TempFile;
+import de.carne.test.extension.io.TempPathExtension;
+import de.carne.util.LeakTracker;
+
+/**
+ * Test {@linkplain LeakTracker} class.
+ */
+@ExtendWith(TempPathExtension.class)
+class LeakTrackerTest {
+
+	private static final long GC_TIMEOUT = 10000;
+
+	@Test
+	void testDefaultTracker(@TempFile File file) throws IOException {
+		// Leak tracking is disabled by default
+		Assertions.assertFalse(LeakTracker.getDefault().isPresent());
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			Assertions.assertSame(channel, LeakTracker.track(channel));
+		}
+		LeakTracker.track(this).closed();
+	}
+
+	@Test
+	void testLeakDetection() throws InterruptedException {
+		LeakTracker tracker = new LeakTracker(2);
+
+		// Closed resources are not reported
+		tracker.register(new Object()).closed();
+		tracker.register(new Object()).closed();
+		// Every second allocation site is sampled
+		tracker.register(new Object());
+		tracker.register(new Object());
+
+		Map<String, Long> leakCounts = awaitLeaks(tracker, 2);
+
+		Assertions.assertEquals(2, leakCounts.size());
+		Assertions.assertTrue(leakCounts.keySet().stream().anyMatch(site -> site.contains("testLeakDetection")));
+		Assertions.assertTrue(leakCounts.keySet().stream().anyMatch(site -> site.endsWith("<not sampled>")));
+		tracker.report();
+	}
+
+	private static Map<String, Long> awaitLeaks(LeakTracker tracker, long expectedLeaks) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + GC_TIMEOUT;
+		Map<String, Long> leakCounts;
+
+		do {
+			System.gc();
+			Thread.sleep(10);
+			leakCounts = tracker.leakCounts();
+		} while (leakCounts.values().stream().mapToLong(Long::longValue).sum() < expectedLeaks
+				&& System.currentTimeMillis() < deadline);
+		return leakCounts;
+	}
+
+}
@@ -16,10 +16,15 @@
  */
 package de.carne.test.util;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import de.carne.text.DurationParser;
+import de.carne.text.MemorySizeParser;
+import de.carne.text.RateParser;
 import de.carne.util.SystemProperties;
 
 /**
@@ -35,6 +40,10 @@ class SystemPropertiesTest {
 	private static final String KEY_INT_42 = ".int42";
 	private static final String KEY_LONG_0 = ".longZero";
 	private static final String KEY_LONG_42 = ".long42";
+	private static final String KEY_SIZE_42 = ".size42";
+	private static final String KEY_SIZE_512M = ".size512M";
+	private static final String KEY_DURATION_1H30M = ".duration1h30m";
+	private static final String KEY_RATE_5MIB = ".rate5MiB";
 
 	@BeforeAll
 	static void setUpSystemProperties() {
@@ -45,6 +54,10 @@ class SystemPropertiesTest {
 		System.setProperty(SystemPropertiesTest.class.getName() + KEY_INT_42, "42");
 		System.setProperty(SystemPropertiesTest.class.getName() + KEY_LONG_0, "0");
 		System.setProperty(SystemPropertiesTest.class.getName() + KEY_LONG_42, "42");
+		System.setProperty(SystemPropertiesTest.class.getName() + KEY_SIZE_42, "42");
+		System.setProperty(SystemPropertiesTest.class.getName() + KEY_SIZE_512M, "512 MiB");
+		System.setProperty(SystemPropertiesTest.class.getName() + KEY_DURATION_1H30M, "1h30m");
+		System.setProperty(SystemPropertiesTest.class.getName() + KEY_RATE_5MIB, "5MiB/s");
 	}
 
 	@Test
@@ -80,4 +93,41 @@ class SystemPropertiesTest {
 		Assertions.assertEquals(42l, SystemProperties.longValue(getClass(), KEY_LONG_42, -1));
 	}
 
+	@Test
+	void testSizes() {
+		Assertions.assertEquals(0l, SystemProperties.sizeValue(getClass(), KEY_UNDEFINED));
+		Assertions.assertEquals(0l, SystemProperties.sizeValue(getClass(), KEY_BOOLEAN_TRUE));
+		Assertions.assertEquals(1l, SystemProperties.sizeValue(getClass(), KEY_UNDEFINED, 1));
+		Assertions.assertEquals(42l, SystemProperties.sizeValue(getClass(), KEY_SIZE_42, -1));
+		Assertions.assertEquals(512l << 20, SystemProperties.sizeValue(getClass(), KEY_SIZE_512M, -1));
+		Assertions.assertEquals(-1l,
+				SystemProperties.sizeValue(getClass(), KEY_SIZE_512M, new MemorySizeParser(0, 1l << 20), -1));
+	}
+
+	@Test
+	void testDurations() {
+		Assertions.assertEquals(1l,
+				SystemProperties.durationValue(getClass(), KEY_UNDEFINED, DurationParser.MILLIS, 1));
+		Assertions.assertEquals(-1l,
+				SystemProperties.durationValue(getClass(), KEY_BOOLEAN_TRUE, DurationParser.MILLIS, -1));
+		Assertions.assertEquals(42l, SystemProperties.durationValue(getClass(), KEY_INT_42, DurationParser.MILLIS, -1));
+		Assertions.assertEquals(90l * 60 * 1000,
+				SystemProperties.durationValue(getClass(), KEY_DURATION_1H30M, DurationParser.MILLIS, -1));
+		Assertions.assertEquals(90l, SystemProperties.durationValue(getClass(), KEY_DURATION_1H30M,
+				new DurationParser(TimeUnit.MINUTES), -1));
+		Assertions.assertEquals(-1l, SystemProperties.durationValue(getClass(), KEY_DURATION_1H30M,
+				new DurationParser(TimeUnit.MINUTES, 0, 60), -1));
+	}
+
+	@Test
+	void testRates() {
+		Assertions.assertEquals(1l, SystemProperties.rateValue(getClass(), KEY_UNDEFINED, RateParser.ANY, 1));
+		Assertions.assertEquals(-1l, SystemProperties.rateValue(getClass(), KEY_BOOLEAN_TRUE, RateParser.ANY, -1));
+		Assertions.assertEquals(-1l, SystemProperties.rateValue(getClass(), KEY_INT_0, RateParser.POSITIVE, -1));
+		Assertions.assertEquals(42l, SystemProperties.rateValue(getClass(), KEY_INT_42, RateParser.POSITIVE, -1));
+		Assertions.assertEquals(5l << 20, SystemProperties.rateValue(getClass(), KEY_RATE_5MIB, RateParser.ANY, -1));
+		Assertions.assertEquals(-1l,
+				SystemProperties.rateValue(getClass(), KEY_RATE_5MIB, new RateParser(0, 1l << 20), -1));
+	}
+
 }